@@ -0,0 +1,121 @@
+package org.jboss.as.console.benchmark;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.console.client.v3.dmr.AddressTemplate;
+import org.jboss.as.console.client.v3.dmr.ResourceAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.useware.kernel.gui.behaviour.StatementContext;
+
+/**
+ * Measures parsing and resolving of {@link AddressTemplate}s as used by the finder columns and the required resources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AddressTemplateBenchmark {
+
+    @Param({
+            "{selected.profile}/subsystem=datasources/data-source=*",
+            "{selected.profile}/subsystem=messaging-activemq/server=*/jms-queue=*",
+            "opt://{selected.host}/{selected.server}/subsystem=undertow/server=default-server/http-listener=*",
+            "/server-group=*/deployment=*"
+    })
+    public String template;
+
+    private AddressTemplate parsed;
+    private StatementContext context;
+
+    @Setup
+    public void setup() {
+        parsed = AddressTemplate.of(template);
+        context = new BenchmarkContext();
+    }
+
+    @Benchmark
+    public AddressTemplate of() {
+        return AddressTemplate.of(template);
+    }
+
+    @Benchmark
+    public ResourceAddress resolve() {
+        return parsed.resolve(context, "default", "ExampleDS");
+    }
+
+    @Benchmark
+    public String resolveAsKey() {
+        return parsed.resolveAsKey(context, "default", "ExampleDS");
+    }
+
+
+    /**
+     * Statement context with a selected profile, host and server.
+     */
+    static class BenchmarkContext implements StatementContext {
+
+        private final Map<String, String[]> tuples = new HashMap<>();
+
+        BenchmarkContext() {
+            tuples.put("selected.profile", new String[]{"profile", "full-ha"});
+            tuples.put("selected.host", new String[]{"host", "master"});
+            tuples.put("selected.server", new String[]{"server", "server-one"});
+        }
+
+        @Override
+        public String get(String key) {
+            String[] tuple = tuples.get(key);
+            return tuple != null ? tuple[1] : null;
+        }
+
+        @Override
+        public String[] getTuple(String key) {
+            return tuples.get(key);
+        }
+
+        @Override
+        public String resolve(String key) {
+            return get(key);
+        }
+
+        @Override
+        public String[] resolveTuple(String key) {
+            return getTuple(key);
+        }
+
+        @Override
+        public LinkedList<String> collect(String key) {
+            LinkedList<String> values = new LinkedList<>();
+            String value = get(key);
+            if (value != null) {
+                values.add(value);
+            }
+            return values;
+        }
+
+        @Override
+        public LinkedList<String[]> collectTuples(String key) {
+            LinkedList<String[]> values = new LinkedList<>();
+            String[] tuple = getTuple(key);
+            if (tuple != null) {
+                values.add(tuple);
+            }
+            return values;
+        }
+    }
+}
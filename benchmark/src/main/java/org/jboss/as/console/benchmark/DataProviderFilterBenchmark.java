@@ -0,0 +1,53 @@
+package org.jboss.as.console.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.console.client.widgets.forms.EntityAdapter;
+import org.jboss.as.console.client.widgets.tables.DataProviderFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+
+/**
+ * Measures {@link DataProviderFilter#filter(List, String, DataProviderFilter.Predicate)} on the queues of the {@link
+ * Payloads#JMS_QUEUES} payload. The prefixes match all, some and none of the queues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DataProviderFilterBenchmark {
+
+    @Param({"queue", "queue-49", "topic"})
+    public String prefix;
+
+    private List<EntityAdapterBenchmark.Queue> queues;
+    private DataProviderFilter.Predicate<EntityAdapterBenchmark.Queue> predicate;
+
+    @Setup
+    public void setup() {
+        EntityAdapter<EntityAdapterBenchmark.Queue> adapter = new EntityAdapter<>(EntityAdapterBenchmark.Queue.class,
+                new EntityAdapterBenchmark.QueueMetaData());
+        queues = adapter.fromDMRList(Payloads.node(Payloads.JMS_QUEUES).get(RESULT).asList());
+        // typical predicate: case insensitive match on the name
+        predicate = (prefix, candidate) -> candidate.getName().toLowerCase().contains(prefix.toLowerCase());
+    }
+
+    @Benchmark
+    public List<EntityAdapterBenchmark.Queue> filter() {
+        return DataProviderFilter.filter(queues, prefix, predicate);
+    }
+}
@@ -0,0 +1,203 @@
+package org.jboss.as.console.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.console.client.widgets.forms.AddressBinding;
+import org.jboss.as.console.client.widgets.forms.ApplicationMetaData;
+import org.jboss.as.console.client.widgets.forms.BeanMetaData;
+import org.jboss.as.console.client.widgets.forms.EntityAdapter;
+import org.jboss.as.console.client.widgets.forms.EntityFactory;
+import org.jboss.as.console.client.widgets.forms.FormItem;
+import org.jboss.as.console.client.widgets.forms.FormMetaData;
+import org.jboss.as.console.client.widgets.forms.Getter;
+import org.jboss.as.console.client.widgets.forms.Mutator;
+import org.jboss.as.console.client.widgets.forms.PropertyBinding;
+import org.jboss.as.console.client.widgets.forms.Setter;
+import org.jboss.dmr.client.ModelNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+
+/**
+ * Measures the conversion of the {@link Payloads#JMS_QUEUES} payload into entities. The meta data which is generated
+ * by the annotation processor at GWT compile time is replaced by {@link QueueMetaData}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EntityAdapterBenchmark {
+
+    private EntityAdapter<Queue> adapter;
+    private List<ModelNode> queues;
+    private ModelNode queue;
+
+    @Setup
+    public void setup() {
+        adapter = new EntityAdapter<>(Queue.class, new QueueMetaData());
+        queues = Payloads.node(Payloads.JMS_QUEUES).get(RESULT).asList();
+        queue = queues.get(0);
+    }
+
+    @Benchmark
+    public Queue fromDMR() {
+        return adapter.fromDMR(queue);
+    }
+
+    @Benchmark
+    public List<Queue> fromDMRList() {
+        return adapter.fromDMRList(queues);
+    }
+
+
+    // ------------------------------------------------------ entity & meta data
+
+    public static class Queue {
+
+        private String name;
+        private List<String> entries;
+        private boolean durable;
+        private String selector;
+        private String deadLetterAddress;
+        private Long messageCount;
+        private Integer consumerCount;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getEntries() {
+            return entries;
+        }
+
+        public void setEntries(List<String> entries) {
+            this.entries = entries;
+        }
+
+        public boolean isDurable() {
+            return durable;
+        }
+
+        public void setDurable(boolean durable) {
+            this.durable = durable;
+        }
+
+        public String getSelector() {
+            return selector;
+        }
+
+        public void setSelector(String selector) {
+            this.selector = selector;
+        }
+
+        public String getDeadLetterAddress() {
+            return deadLetterAddress;
+        }
+
+        public void setDeadLetterAddress(String deadLetterAddress) {
+            this.deadLetterAddress = deadLetterAddress;
+        }
+
+        public Long getMessageCount() {
+            return messageCount;
+        }
+
+        public void setMessageCount(Long messageCount) {
+            this.messageCount = messageCount;
+        }
+
+        public Integer getConsumerCount() {
+            return consumerCount;
+        }
+
+        public void setConsumerCount(Integer consumerCount) {
+            this.consumerCount = consumerCount;
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    static class QueueMetaData implements ApplicationMetaData {
+
+        private final BeanMetaData beanMetaData;
+        private final Mutator<Queue> mutator;
+
+        QueueMetaData() {
+            List<PropertyBinding> properties = new ArrayList<>();
+            properties.add(new PropertyBinding("name", "name", "java.lang.String", true, false));
+            properties.add(new PropertyBinding("entries", "entries", "java.util.List", String.class, this, false,
+                    false, false, FormItem.NULL, "Entries", false, null, null, null, null, 0, null));
+            properties.add(new PropertyBinding("durable", "durable", "java.lang.Boolean", false, false));
+            properties.add(new PropertyBinding("selector", "selector", "java.lang.String", false, true));
+            properties.add(new PropertyBinding("deadLetterAddress", "dead-letter-address", "java.lang.String", false,
+                    false));
+            properties.add(new PropertyBinding("messageCount", "message-count", "java.lang.Long", false, false));
+            properties.add(new PropertyBinding("consumerCount", "consumer-count", "java.lang.Integer", false, false));
+            beanMetaData = new BeanMetaData(Queue.class, new AddressBinding(AddressBinding.parseAddressString(
+                    "profile=default/subsystem=messaging-activemq/server=default/jms-queue={0}")), properties);
+
+            mutator = new Mutator<>();
+            mutator.register("name", (Setter<Queue>) (entity, value) -> entity.setName((String) value));
+            mutator.register("name", (Getter<Queue>) Queue::getName);
+            mutator.register("entries", (Setter<Queue>) (entity, value) -> entity.setEntries((List<String>) value));
+            mutator.register("entries", (Getter<Queue>) Queue::getEntries);
+            mutator.register("durable", (Setter<Queue>) (entity, value) -> entity.setDurable((Boolean) value));
+            mutator.register("durable", (Getter<Queue>) Queue::isDurable);
+            mutator.register("selector", (Setter<Queue>) (entity, value) -> entity.setSelector((String) value));
+            mutator.register("selector", (Getter<Queue>) Queue::getSelector);
+            mutator.register("deadLetterAddress",
+                    (Setter<Queue>) (entity, value) -> entity.setDeadLetterAddress((String) value));
+            mutator.register("deadLetterAddress", (Getter<Queue>) Queue::getDeadLetterAddress);
+            mutator.register("messageCount", (Setter<Queue>) (entity, value) -> entity.setMessageCount((Long) value));
+            mutator.register("messageCount", (Getter<Queue>) Queue::getMessageCount);
+            mutator.register("consumerCount",
+                    (Setter<Queue>) (entity, value) -> entity.setConsumerCount((Integer) value));
+            mutator.register("consumerCount", (Getter<Queue>) Queue::getConsumerCount);
+        }
+
+        @Override
+        public List<PropertyBinding> getBindingsForType(Class<?> type) {
+            return beanMetaData.getProperties();
+        }
+
+        @Override
+        public BeanMetaData getBeanMetaData(Class<?> type) {
+            return beanMetaData;
+        }
+
+        @Override
+        public Mutator getMutator(Class<?> type) {
+            return mutator;
+        }
+
+        @Override
+        public <T> EntityFactory<T> getFactory(Class<T> type) {
+            return () -> (T) new Queue();
+        }
+
+        @Override
+        public FormMetaData getFormMetaData(Class<?> type) {
+            return null;
+        }
+    }
+}
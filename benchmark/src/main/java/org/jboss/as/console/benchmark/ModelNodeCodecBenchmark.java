@@ -0,0 +1,74 @@
+package org.jboss.as.console.benchmark;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelNodeDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+
+/**
+ * Compares the {@link org.jboss.dmr.client.DataInput} based decoder with the {@link ModelNodeDecoder} and measures
+ * encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ModelNodeCodecBenchmark {
+
+    @Param({Payloads.DOMAIN, Payloads.JMS_QUEUES, Payloads.PROFILE_DESCRIPTION})
+    public String payload;
+
+    private String base64;
+    private ModelNode node;
+
+    @Setup
+    public void setup() {
+        base64 = Payloads.base64(payload);
+        node = ModelNode.fromBase64Legacy(base64);
+        if (!node.equals(ModelNodeDecoder.decode(base64))) {
+            throw new IllegalStateException("Decoders disagree on payload " + payload);
+        }
+    }
+
+    @Benchmark
+    public ModelNode decodeDataInput() {
+        return ModelNode.fromBase64Legacy(base64);
+    }
+
+    @Benchmark
+    public ModelNode decodeTypedArray() {
+        return ModelNodeDecoder.decode(base64);
+    }
+
+    /**
+     * Decodes lazily and touches only a small part of the response, which is the typical usage for large responses.
+     */
+    @Benchmark
+    public ModelNode decodeLazyAndReadOutcome() {
+        ModelNode node = ModelNodeDecoder.decode(base64, true);
+        node.get(OUTCOME).asString();
+        node.get(RESULT).keys();
+        return node;
+    }
+
+    @Benchmark
+    public String encode() {
+        return node.toBase64String();
+    }
+}
@@ -0,0 +1,189 @@
+package org.jboss.as.console.benchmark;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Large management responses used by the benchmarks.
+ * <p>
+ * If the system property {@value #PAYLOADS_DIR} points to a directory containing recorded responses
+ * ({@code <name>.dmr}, the base64 encoded response body as returned for {@code application/dmr-encoded}), these
+ * are used. Otherwise a response of the same shape is generated.
+ */
+public final class Payloads {
+
+    public static final String PAYLOADS_DIR = "payloads.dir";
+
+    public static final String DOMAIN = "domain-200-hosts";
+    public static final String JMS_QUEUES = "jms-5000-queues";
+    public static final String PROFILE_DESCRIPTION = "profile-description";
+
+    private Payloads() {}
+
+    /**
+     * @return the base64 encoded response
+     */
+    public static String base64(String name) {
+        String dir = System.getProperty(PAYLOADS_DIR);
+        if (dir != null) {
+            Path path = Paths.get(dir, name + ".dmr");
+            if (Files.isReadable(path)) {
+                try {
+                    return new String(Files.readAllBytes(path), StandardCharsets.US_ASCII);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to read recorded payload " + path + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return generate(name).toBase64String();
+    }
+
+    public static ModelNode node(String name) {
+        return ModelNode.fromBase64(base64(name));
+    }
+
+    static ModelNode generate(String name) {
+        switch (name) {
+            case DOMAIN:
+                return domain(200, 4);
+            case JMS_QUEUES:
+                return jmsQueues(5000);
+            case PROFILE_DESCRIPTION:
+                return profileDescription(40, 12);
+            default:
+                throw new IllegalArgumentException("Unknown payload " + name);
+        }
+    }
+
+
+    // ------------------------------------------------------ generators
+
+    /**
+     * Shape of {@code /host=*:read-resource(include-runtime=true, recursive-depth=2)}
+     */
+    static ModelNode domain(int hosts, int serversPerHost) {
+        ModelNode result = new ModelNode();
+        for (int h = 0; h < hosts; h++) {
+            String hostName = "host-" + h;
+            ModelNode host = new ModelNode();
+            host.get(NAME).set(hostName);
+            host.get("master").set(h == 0);
+            host.get("host-state").set("running");
+            host.get("product-name").set("WildFly Full");
+            host.get("product-version").set("10.1.0.Final");
+            host.get("release-codename").set("Kenny");
+            host.get("management-major-version").set(4);
+            host.get("management-minor-version").set(2);
+            host.get("running-mode").set("NORMAL");
+            host.get("suspend-state").set("RUNNING");
+            for (int s = 0; s < serversPerHost; s++) {
+                String serverName = "server-" + h + "-" + s;
+                ModelNode server = host.get("server-config").get(serverName);
+                server.get(NAME).set(serverName);
+                server.get(GROUP).set("server-group-" + (s % 3));
+                server.get("auto-start").set(true);
+                server.get("socket-binding-port-offset").set(s * 100);
+                server.get("socket-binding-group").setExpression("${jboss.socket.binding.group:full-ha-sockets}");
+                server.get("status").set("STARTED");
+                ModelNode jvm = server.get("jvm").get("default");
+                jvm.get("heap-size").set("64m");
+                jvm.get("max-heap-size").set("512m");
+                jvm.get("jvm-options").add("-server").add("-XX:+UseG1GC");
+                server.get("system-property").get("jboss.node.name").get(VALUE).set(serverName);
+            }
+            host.get("interface").get("public").get("inet-address").setExpression("${jboss.bind.address:127.0.0.1}");
+            host.get("interface").get("management").get("inet-address").setExpression("${jboss.bind.address.management:127.0.0.1}");
+            result.get(hostName).set(host);
+        }
+        return response(result);
+    }
+
+    /**
+     * Shape of {@code /profile=full-ha/subsystem=messaging-activemq/server=default:read-children-resources(child-type=jms-queue, include-runtime=true)}
+     */
+    static ModelNode jmsQueues(int queues) {
+        ModelNode result = new ModelNode();
+        for (int i = 0; i < queues; i++) {
+            String name = "queue-" + i;
+            ModelNode queue = new ModelNode();
+            queue.get("consumer-count").set(i % 7);
+            queue.get("dead-letter-address").set("jms.queue.DLQ");
+            queue.get("delivering-count").set(0);
+            queue.get("durable").set(true);
+            queue.get("entries").add("java:/jms/queue/" + name).add("java:jboss/exported/jms/queue/" + name);
+            queue.get("expiry-address").set("jms.queue.ExpiryQueue");
+            queue.get("legacy-entries").set(new ModelNode());
+            queue.get("message-count").set((long) i * 13);
+            queue.get("messages-added").set((long) i * 1000);
+            queue.get("paused").set(false);
+            queue.get("queue-address").set("jms.queue." + name);
+            queue.get("scheduled-count").set(0L);
+            queue.get("selector").set(new ModelNode());
+            queue.get("temporary").set(false);
+            result.get(name).set(queue);
+        }
+        return response(result);
+    }
+
+    /**
+     * Shape of {@code /profile=full-ha/subsystem=*:read-resource-description(recursive=true, operations=true,
+     * access-control=combined-descriptions)}
+     */
+    static ModelNode profileDescription(int resources, int attributesPerResource) {
+        ModelNode result = new ModelNode();
+        result.get(DESCRIPTION).set("A named set of subsystem configurations.");
+        for (int r = 0; r < resources; r++) {
+            ModelNode resource = result.get(CHILDREN).get("subsystem").get(MODEL_DESCRIPTION).get("subsystem-" + r);
+            resource.get(DESCRIPTION).set("The configuration of subsystem " + r + ".");
+            resource.get("capabilities").setEmptyList();
+            for (int a = 0; a < attributesPerResource; a++) {
+                ModelNode attribute = resource.get(ATTRIBUTES).get("attribute-" + a);
+                attribute.get(TYPE).set(a % 3 == 0 ? ModelType.STRING : a % 3 == 1 ? ModelType.BOOLEAN : ModelType.INT);
+                attribute.get(DESCRIPTION).set("Description of attribute " + a + " which tends to be a rather long sentence explaining its purpose.");
+                attribute.get("expressions-allowed").set(true);
+                attribute.get("nillable").set(a % 2 == 0);
+                attribute.get("access-type").set("read-write");
+                attribute.get("storage").set("configuration");
+                attribute.get("restart-required").set("all-services");
+                if (a % 3 == 2) {
+                    attribute.get("default").set(a);
+                    attribute.get("min").set(0L);
+                    attribute.get("max").set(2147483647L);
+                }
+            }
+            for (String op : new String[]{ADD, REMOVE, READ_RESOURCE_OPERATION, WRITE_ATTRIBUTE_OPERATION, "undefine-attribute"}) {
+                ModelNode operation = resource.get(OPERATIONS).get(op);
+                operation.get(OPERATION_NAME).set(op);
+                operation.get(DESCRIPTION).set("The " + op + " operation");
+                operation.get(REQUEST_PROPERTIES).get(NAME).get(TYPE).set(ModelType.STRING);
+                operation.get("reply-properties").setEmptyObject();
+                operation.get("read-only").set(op.startsWith("read"));
+                operation.get("runtime-only").set(false);
+            }
+            ModelNode accessControl = resource.get("access-control");
+            accessControl.get("default").get("read").set(true);
+            accessControl.get("default").get("write").set(true);
+            for (int a = 0; a < attributesPerResource; a++) {
+                accessControl.get("default").get(ATTRIBUTES).get("attribute-" + a).get("read").set(true);
+                accessControl.get("default").get(ATTRIBUTES).get("attribute-" + a).get("write").set(true);
+            }
+            accessControl.get("exceptions").setEmptyObject();
+        }
+        return response(result);
+    }
+
+    private static ModelNode response(ModelNode result) {
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        response.get(RESULT).set(result);
+        return response;
+    }
+}
@@ -137,7 +137,7 @@ final class BytesModelValue extends ModelValue {
         }
         builder.append(jsonEscape(TYPE_KEY));
         builder.append(" : ");
-        //builder.append(jsonEscape(Base64.encodeBytes(bytes)));
+        builder.append(jsonEscape(Base64.encodeBytes(bytes)));
         if (multiLine) {
             indent(builder.append('\n'), indent);
         } else {
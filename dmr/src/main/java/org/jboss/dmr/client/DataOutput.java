@@ -46,11 +46,9 @@ public class DataOutput {
 
     private void growToFit(int size) {
         if (pos + size >= bytes.length) {
-            byte[] array = new byte[bytes.length + size];
-            for (int i = 0; i < bytes.length; i++) {
-                array[i] = bytes[i];
-            }
-
+            // grow exponentially, otherwise encoding becomes quadratic
+            byte[] array = new byte[Math.max(bytes.length << 1, pos + size + 1)];
+            System.arraycopy(bytes, 0, array, 0, pos);
             bytes = array;
         }
     }
@@ -0,0 +1,163 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.Uint8Array;
+
+/**
+ * Decodes large base64 encoded payloads in a web worker ({@code dmr-decode-worker.js}) to keep the UI responsive.
+ * <p>
+ * The worker decodes the base64 text and indexes the objects and lists of the payload. Both are handed back as
+ * transferable buffers, so nothing is copied. The model node is then created {@linkplain ModelNodeDecoder lazily}
+ * on the main thread: The index lets the decoder skip nested containers without scanning them, so only the parts
+ * which are actually accessed are ever touched on the main thread.
+ * <p>
+ * If the worker script can't be loaded, all pending and future decodes fail and callers should fall back to
+ * {@link ModelNodeDecoder}.
+ */
+public final class DecodeWorker {
+
+    public interface Callback {
+
+        void onDecoded(ModelNode node);
+
+        void onFailure(String message);
+    }
+
+
+    private static final String SCRIPT = "dmr-decode-worker.js";
+    private static DecodeWorker instance;
+
+    private final Map<Integer, Callback> callbacks;
+    private final StringTable strings;
+    private JavaScriptObject worker;
+    private int nextId;
+
+    private DecodeWorker(String url, StringTable strings) {
+        this.callbacks = new HashMap<Integer, Callback>();
+        this.strings = strings;
+        this.worker = createWorker(url);
+    }
+
+    /**
+     * Workers are used in script mode only and if the browser supports them as well as typed arrays.
+     */
+    public static boolean isSupported() {
+        return GWT.isScript() && ModelNodeDecoder.isSupported() && hasWorkerSupport()
+                && (instance == null || instance.worker != null);
+    }
+
+    /**
+     * Returns the shared worker. Keys and short values are interned in the {@linkplain StringTable#session()
+     * session string table}.
+     */
+    public static DecodeWorker get() {
+        if (instance == null) {
+            instance = new DecodeWorker(GWT.getModuleBaseURL() + SCRIPT, StringTable.session());
+        }
+        return instance;
+    }
+
+    /**
+     * Decodes the base64 encoded payload. The callback is called asynchronously.
+     */
+    public void decode(String encoded, Callback callback) {
+        if (worker == null) {
+            callback.onFailure("Decode worker not available");
+            return;
+        }
+        int id = nextId++;
+        callbacks.put(id, callback);
+        post(worker, id, encoded);
+    }
+
+    private void onDecoded(int id, Uint8Array bytes, Int32Array index) {
+        Callback callback = callbacks.remove(id);
+        if (callback != null) {
+            ModelNode node;
+            try {
+                node = new ModelNodeDecoder(bytes, index, strings).readNode();
+            } catch (IllegalArgumentException e) {
+                callback.onFailure(e.getMessage());
+                return;
+            }
+            callback.onDecoded(node);
+        }
+    }
+
+    private void onFailure(int id, String message) {
+        Callback callback = callbacks.remove(id);
+        if (callback != null) {
+            callback.onFailure(message);
+        }
+    }
+
+    /**
+     * The worker itself failed (e.g. the script could not be loaded): fail all pending decodes and don't use the
+     * worker anymore.
+     */
+    private void onWorkerError(String message) {
+        terminate(worker);
+        worker = null;
+        List<Callback> pending = new ArrayList<Callback>(callbacks.values());
+        callbacks.clear();
+        for (Callback callback : pending) {
+            callback.onFailure(message);
+        }
+    }
+
+    private static native boolean hasWorkerSupport() /*-{
+        return typeof $wnd.Worker === 'function';
+    }-*/;
+
+    private native JavaScriptObject createWorker(String url) /*-{
+        var that = this;
+        var worker = new $wnd.Worker(url);
+        worker.onmessage = $entry(function (event) {
+            var data = event.data;
+            if (data.error) {
+                that.@org.jboss.dmr.client.DecodeWorker::onFailure(ILjava/lang/String;)(data.id, data.error);
+            } else {
+                that.@org.jboss.dmr.client.DecodeWorker::onDecoded(ILcom/google/gwt/typedarrays/shared/Uint8Array;Lcom/google/gwt/typedarrays/shared/Int32Array;)(data.id, new Uint8Array(data.bytes), new Int32Array(data.index));
+            }
+        });
+        worker.onerror = $entry(function (event) {
+            event.preventDefault();
+            that.@org.jboss.dmr.client.DecodeWorker::onWorkerError(Ljava/lang/String;)(event.message || "Decode worker failed");
+        });
+        return worker;
+    }-*/;
+
+    private static native void post(JavaScriptObject worker, int id, String encoded) /*-{
+        worker.postMessage({id: id, encoded: encoded});
+    }-*/;
+
+    private static native void terminate(JavaScriptObject worker) /*-{
+        worker.terminate();
+    }-*/;
+}
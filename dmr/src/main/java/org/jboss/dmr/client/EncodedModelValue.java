@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+/**
+ * A lazy value backed by the binary ({@code application/dmr-encoded}) representation. Keeps the offset of the
+ * encoded value inside the response buffer.
+ */
+final class EncodedModelValue extends LazyModelValue {
+
+    private ModelNodeDecoder.Buffer buffer;
+    private final int offset;
+
+    EncodedModelValue(final ModelType type, final ModelNodeDecoder.Buffer buffer, final int offset) {
+        super(type);
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    @Override
+    ModelValue decode() {
+        return buffer.decodeContainer(getType(), offset);
+    }
+
+    @Override
+    void release() {
+        buffer = null;
+    }
+
+    @Override
+    LazyModelValue share() {
+        return new EncodedModelValue(getType(), buffer, offset);
+    }
+
+    @Override
+    boolean sameSource(final LazyModelValue other) {
+        if (other instanceof EncodedModelValue) {
+            EncodedModelValue that = (EncodedModelValue) other;
+            return buffer == that.buffer && offset == that.offset;
+        }
+        return false;
+    }
+}
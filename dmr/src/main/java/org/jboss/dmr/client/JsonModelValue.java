@@ -0,0 +1,239 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
+
+/**
+ * A lazy value backed by a JavaScript object or array as returned by the browser's native {@code JSON.parse()}.
+ * <p>
+ * Decoding one level copies the primitive members into real model values and wraps nested objects and arrays into
+ * new JSON backed values. So a response is only converted into a real model node as far as it is read or modified.
+ * <p>
+ * The JSON representation of the management model is lossy: Numbers are mapped to {@link ModelType#INT}, {@link
+ * ModelType#LONG} or {@link ModelType#DOUBLE} depending on their value, and longs outside of +/-2^53 as well as
+ * big decimals lose their precision. Expressions, bytes, types and properties are recognized by the wrappers used by
+ * {@link ModelNode#toJSONString(boolean)}.
+ */
+final class JsonModelValue extends LazyModelValue {
+
+    private static final String BOOLEAN = "boolean";
+    private static final String NUMBER = "number";
+    private static final String STRING = "string";
+    private static final String OBJECT = "object";
+    private static final String ARRAY = "array";
+
+    private static final double MAX_SAFE_INTEGER = 9007199254740991d;
+
+    private JavaScriptObject json;
+
+    private JsonModelValue(final ModelType type, final JavaScriptObject json) {
+        super(type);
+        this.json = json;
+    }
+
+    /**
+     * Parses the JSON string using {@code JSON.parse()}.
+     */
+    static ModelNode parse(final String json) {
+        // wrap the result, so that top level primitives are handled the same way as nested ones
+        return new ModelNode(element(parseWrapped(json), 0));
+    }
+
+    @Override
+    ModelValue decode() {
+        if (getType() == ModelType.OBJECT) {
+            final JsArrayString keys = keys(json);
+            final LinkedHashMap<String, ModelNode> map = new LinkedHashMap<String, ModelNode>();
+            for (int i = 0; i < keys.length(); i++) {
+                final String key = keys.get(i);
+                map.put(key, new ModelNode(member(json, key)));
+            }
+            return new ObjectModelValue(map);
+        } else {
+            final int length = length(json);
+            final ArrayList<ModelNode> list = new ArrayList<ModelNode>(length);
+            for (int i = 0; i < length; i++) {
+                list.add(new ModelNode(element(json, i)));
+            }
+            return new ListModelValue(list);
+        }
+    }
+
+    @Override
+    void release() {
+        json = null;
+    }
+
+    @Override
+    LazyModelValue share() {
+        return new JsonModelValue(getType(), json);
+    }
+
+    @Override
+    boolean sameSource(final LazyModelValue other) {
+        return other instanceof JsonModelValue && json == ((JsonModelValue) other).json;
+    }
+
+
+    // ------------------------------------------------------ mapping
+
+    private static ModelValue member(final JavaScriptObject object, final String key) {
+        final String kind = kindOf(object, key);
+        if (BOOLEAN.equals(kind)) {
+            return BooleanModelValue.valueOf(getBoolean(object, key));
+        } else if (NUMBER.equals(kind)) {
+            return number(getNumber(object, key));
+        } else if (STRING.equals(kind)) {
+            return new StringModelValue(getString(object, key));
+        } else if (ARRAY.equals(kind)) {
+            return new JsonModelValue(ModelType.LIST, getObject(object, key));
+        } else if (OBJECT.equals(kind)) {
+            return object(getObject(object, key));
+        }
+        return ModelValue.UNDEFINED;
+    }
+
+    private static ModelValue element(final JavaScriptObject array, final int index) {
+        final String kind = kindOf(array, index);
+        if (BOOLEAN.equals(kind)) {
+            return BooleanModelValue.valueOf(getBoolean(array, index));
+        } else if (NUMBER.equals(kind)) {
+            return number(getNumber(array, index));
+        } else if (STRING.equals(kind)) {
+            return new StringModelValue(getString(array, index));
+        } else if (ARRAY.equals(kind)) {
+            return new JsonModelValue(ModelType.LIST, getObject(array, index));
+        } else if (OBJECT.equals(kind)) {
+            return object(getObject(array, index));
+        }
+        return ModelValue.UNDEFINED;
+    }
+
+    private static ModelValue number(final double value) {
+        if (value == Math.floor(value) && Math.abs(value) <= MAX_SAFE_INTEGER) {
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return new IntModelValue((int) value);
+            }
+            return new LongModelValue((long) value);
+        }
+        return new DoubleModelValue(value);
+    }
+
+    private static ModelValue object(final JavaScriptObject object) {
+        final String key = singleKey(object);
+        if (key != null) {
+            if (ExpressionValue.TYPE_KEY.equals(key) && STRING.equals(kindOf(object, key))) {
+                return new ExpressionValue(getString(object, key));
+
+            } else if (BytesModelValue.TYPE_KEY.equals(key) && STRING.equals(kindOf(object, key))) {
+                try {
+                    return new BytesModelValue(Base64.decode(getString(object, key)));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Invalid " + BytesModelValue.TYPE_KEY + ": " + e.getMessage());
+                }
+
+            } else if (TypeModelValue.TYPE_KEY.equals(key) && STRING.equals(kindOf(object, key))) {
+                return TypeModelValue.of(ModelType.valueOf(getString(object, key)));
+
+            } else if (PropertyModelValue.TYPE_KEY.equals(key) && OBJECT.equals(kindOf(object, key))) {
+                final JavaScriptObject property = getObject(object, key);
+                final String name = singleKey(property);
+                if (name != null) {
+                    return new PropertyModelValue(name, new ModelNode(member(property, name)));
+                }
+            }
+        }
+        return new JsonModelValue(ModelType.OBJECT, object);
+    }
+
+
+    // ------------------------------------------------------ native access
+
+    private static native JavaScriptObject parseWrapped(String json) /*-{
+        return [JSON.parse(json)];
+    }-*/;
+
+    private static native JsArrayString keys(JavaScriptObject object) /*-{
+        return Object.keys(object);
+    }-*/;
+
+    private static native String singleKey(JavaScriptObject object) /*-{
+        var keys = Object.keys(object);
+        return keys.length == 1 ? keys[0] : null;
+    }-*/;
+
+    private static native int length(JavaScriptObject array) /*-{
+        return array.length;
+    }-*/;
+
+    private static native String kindOf(JavaScriptObject object, String key) /*-{
+        var value = object[key];
+        if (value === null || value === undefined) {
+            return null;
+        }
+        return Array.isArray(value) ? "array" : typeof value;
+    }-*/;
+
+    private static native String kindOf(JavaScriptObject array, int index) /*-{
+        var value = array[index];
+        if (value === null || value === undefined) {
+            return null;
+        }
+        return Array.isArray(value) ? "array" : typeof value;
+    }-*/;
+
+    private static native boolean getBoolean(JavaScriptObject object, String key) /*-{
+        return object[key];
+    }-*/;
+
+    private static native boolean getBoolean(JavaScriptObject array, int index) /*-{
+        return array[index];
+    }-*/;
+
+    private static native double getNumber(JavaScriptObject object, String key) /*-{
+        return object[key];
+    }-*/;
+
+    private static native double getNumber(JavaScriptObject array, int index) /*-{
+        return array[index];
+    }-*/;
+
+    private static native String getString(JavaScriptObject object, String key) /*-{
+        return object[key];
+    }-*/;
+
+    private static native String getString(JavaScriptObject array, int index) /*-{
+        return array[index];
+    }-*/;
+
+    private static native JavaScriptObject getObject(JavaScriptObject object, String key) /*-{
+        return object[key];
+    }-*/;
+
+    private static native JavaScriptObject getObject(JavaScriptObject array, int index) /*-{
+        return array[index];
+    }-*/;
+}
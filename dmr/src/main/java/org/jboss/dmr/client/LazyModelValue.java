@@ -0,0 +1,269 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An {@link ModelType#OBJECT} or {@link ModelType#LIST} value which is decoded on first access.
+ * <p>
+ * Until then the value only keeps a reference to its source. All methods delegate to the decoded value. Decoding one
+ * level creates lazy values for the nested objects and lists, so only the parts of a response which are actually
+ * reached get materialized.
+ *
+ * @see EncodedModelValue
+ * @see JsonModelValue
+ */
+abstract class LazyModelValue extends ModelValue {
+
+    private boolean protect;
+    private ModelValue delegate;
+
+    LazyModelValue(final ModelType type) {
+        super(type);
+    }
+
+    /**
+     * Decodes one level of the source.
+     */
+    abstract ModelValue decode();
+
+    /**
+     * Releases the source once this value is decoded.
+     */
+    abstract void release();
+
+    /**
+     * Returns a new undecoded value sharing the source of this value.
+     */
+    abstract LazyModelValue share();
+
+    /**
+     * Returns whether both values are backed by the same source.
+     */
+    abstract boolean sameSource(LazyModelValue other);
+
+    boolean isDecoded() {
+        return delegate != null;
+    }
+
+    private ModelValue delegate() {
+        if (delegate == null) {
+            ModelValue decoded = decode();
+            delegate = protect ? decoded.protect() : decoded;
+            release();
+        }
+        return delegate;
+    }
+
+    @Override
+    ModelValue protect() {
+        if (delegate == null) {
+            protect = true;
+            return this;
+        }
+        delegate = delegate.protect();
+        return this;
+    }
+
+    @Override
+    ModelValue copy() {
+        if (delegate == null) {
+            // the source is never modified, so an undecoded value can be shared
+            return share();
+        }
+        return delegate.copy();
+    }
+
+    @Override
+    ModelValue resolve() {
+        return delegate().resolve();
+    }
+
+    @Override
+    long asLong() {
+        return delegate().asLong();
+    }
+
+    @Override
+    long asLong(final long defVal) {
+        return delegate().asLong(defVal);
+    }
+
+    @Override
+    int asInt() {
+        return delegate().asInt();
+    }
+
+    @Override
+    int asInt(final int defVal) {
+        return delegate().asInt(defVal);
+    }
+
+    @Override
+    boolean asBoolean() {
+        return delegate().asBoolean();
+    }
+
+    @Override
+    boolean asBoolean(final boolean defVal) {
+        return delegate().asBoolean(defVal);
+    }
+
+    @Override
+    double asDouble() {
+        return delegate().asDouble();
+    }
+
+    @Override
+    double asDouble(final double defVal) {
+        return delegate().asDouble(defVal);
+    }
+
+    @Override
+    byte[] asBytes() {
+        return delegate().asBytes();
+    }
+
+    @Override
+    BigDecimal asBigDecimal() {
+        return delegate().asBigDecimal();
+    }
+
+    @Override
+    BigInteger asBigInteger() {
+        return delegate().asBigInteger();
+    }
+
+    @Override
+    String asString() {
+        return delegate().asString();
+    }
+
+    @Override
+    Property asProperty() {
+        return delegate().asProperty();
+    }
+
+    @Override
+    List<Property> asPropertyList() {
+        return delegate().asPropertyList();
+    }
+
+    @Override
+    ModelNode asObject() {
+        return delegate().asObject();
+    }
+
+    @Override
+    ModelNode getChild(final String name) {
+        return delegate().getChild(name);
+    }
+
+    @Override
+    ModelNode removeChild(final String name) {
+        return delegate().removeChild(name);
+    }
+
+    @Override
+    ModelNode getChild(final int index) {
+        return delegate().getChild(index);
+    }
+
+    @Override
+    ModelNode addChild() {
+        return delegate().addChild();
+    }
+
+    @Override
+    Set<String> getKeys() {
+        return delegate().getKeys();
+    }
+
+    @Override
+    List<ModelNode> asList() {
+        return delegate().asList();
+    }
+
+    @Override
+    ModelType asType() {
+        return delegate().asType();
+    }
+
+    @Override
+    void format(final StringBuilder builder, final int indent, final boolean multiLine) {
+        delegate().format(builder, indent, multiLine);
+    }
+
+    @Override
+    void formatAsJSON(final StringBuilder builder, final int indent, final boolean multiLine) {
+        delegate().formatAsJSON(builder, indent, multiLine);
+    }
+
+    @Override
+    void writeExternal(final DataOutput out) throws IOException {
+        delegate().writeExternal(out);
+    }
+
+    @Override
+    boolean has(final int index) {
+        return delegate().has(index);
+    }
+
+    @Override
+    boolean has(final String key) {
+        return delegate().has(key);
+    }
+
+    @Override
+    ModelNode requireChild(final String name) throws NoSuchElementException {
+        return delegate().requireChild(name);
+    }
+
+    @Override
+    ModelNode requireChild(final int index) throws NoSuchElementException {
+        return delegate().requireChild(index);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (other instanceof LazyModelValue) {
+            LazyModelValue that = (LazyModelValue) other;
+            if (delegate == null && that.delegate == null && sameSource(that)) {
+                return true;
+            }
+            return delegate().equals(that.delegate());
+        }
+        return delegate().equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate().hashCode();
+    }
+}
@@ -33,17 +33,14 @@ final class ListModelValue extends ModelValue {
 
     public static final ModelNode[] NO_NODES = new ModelNode[0];
     private final List<ModelNode> list;
+    private int hash;
+    private boolean hashed;
 
     ListModelValue() {
         super(ModelType.LIST);
         list = new ArrayList<ModelNode>();
     }
 
-    private ListModelValue(final ListModelValue orig) {
-        super(ModelType.LIST);
-        list = new ArrayList<ModelNode>(orig.list);
-    }
-
     ListModelValue(final List<ModelNode> list) {
         super(ModelType.LIST);
         this.list = list;
@@ -179,7 +176,28 @@ final class ListModelValue extends ModelValue {
 
     @Override
     ModelValue copy() {
-        return new ListModelValue(this);
+        if (isProtected()) {
+            // copy on write
+            return new SharedModelValue(this);
+        }
+        // shares the element nodes with the original
+        return new ListModelValue(new ArrayList<ModelNode>(list));
+    }
+
+    /**
+     * Clones the elements. Used to materialize a copy on write list: its elements are protected, so cloning them is
+     * cheap.
+     */
+    ModelValue copyElements() {
+        final ArrayList<ModelNode> copy = new ArrayList<ModelNode>(list.size());
+        for (final ModelNode node : list) {
+            copy.add(node.clone());
+        }
+        return new ListModelValue(copy);
+    }
+
+    boolean isProtected() {
+        return list.getClass() != ArrayList.class;
     }
 
     @Override
@@ -258,6 +276,9 @@ final class ListModelValue extends ModelValue {
      */
     @Override
     public boolean equals(final Object other) {
+        if (other instanceof LazyModelValue) {
+            return other.equals(this);
+        }
         return other instanceof ListModelValue && equals((ListModelValue)other);
     }
 
@@ -268,12 +289,27 @@ final class ListModelValue extends ModelValue {
      * @return {@code true} if they are equal, {@code false} otherwise
      */
     public boolean equals(final ListModelValue other) {
-        return this == other || other != null && list.equals(other.list);
+        if (this == other) {
+            return true;
+        }
+        if (other == null || hashed && other.hashed && hash != other.hash) {
+            return false;
+        }
+        return list.equals(other.list);
     }
 
     @Override
     public int hashCode() {
-        return list.hashCode();
+        if (hashed) {
+            return hash;
+        }
+        final int hashCode = list.hashCode();
+        if (isProtected()) {
+            // a protected value doesn't change anymore
+            hash = hashCode;
+            hashed = true;
+        }
+        return hashCode;
     }
 
     @Override
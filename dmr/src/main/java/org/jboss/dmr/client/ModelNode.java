@@ -1230,8 +1230,26 @@ public class ModelNode implements Cloneable, Exportable {
     }
 
 
+    /**
+     * Decodes a base64 encoded DMR payload.
+     * <p>
+     * If typed arrays are supported, an invalid or truncated payload is reported as {@link IllegalArgumentException}.
+     * The {@linkplain #fromBase64Legacy(String) legacy decoder} reports a truncated payload as {@code
+     * RuntimeException("EOF")}. Both are runtime exceptions, so catch {@link RuntimeException} to handle either.
+     */
     @ExportStaticMethod()
     public static ModelNode fromBase64(String encoded) {
+        if (ModelNodeDecoder.isSupported()) {
+            return ModelNodeDecoder.decode(encoded);
+        }
+        return fromBase64Legacy(encoded);
+    }
+
+    /**
+     * Decodes the payload using {@link DataInput}. Used as fallback if typed arrays are not supported.
+     */
+    @NoExport
+    public static ModelNode fromBase64Legacy(String encoded) {
         ModelNode node = new ModelNode();
         try {
 
@@ -1250,6 +1268,19 @@ public class ModelNode implements Cloneable, Exportable {
         return node;
     }
 
+    /**
+     * Parses a JSON representation of a model node using the browser's native {@code JSON.parse()}. Nested objects
+     * and lists are converted into model nodes when they're accessed for the first time.
+     * <p>
+     * Please note that the JSON representation is lossy: The type of numbers is derived from their value and
+     * longs beyond 2^53 or big decimals lose their precision. Use {@link #fromBase64(String)} if you need the exact
+     * types.
+     */
+    @ExportStaticMethod()
+    public static ModelNode fromJSONString(String json) {
+        return JsonModelValue.parse(json);
+    }
+
     @Export()
     public String toBase64String() {
         DataOutput out = new DataOutput();
@@ -1393,9 +1424,84 @@ public class ModelNode implements Cloneable, Exportable {
         return this == other || other != null && other.value.equals(value);
     }
 
+    /**
+     * Compares this node with another node and returns the paths of all values which were added, removed or changed.
+     * <p>
+     * Path segments are object keys or list indices separated by {@code /}. Slashes, equal signs, asterisks and
+     * backslashes inside keys are escaped with a backslash, so the paths can be read using {@link ModelPath}. An empty path means that the nodes differ in type or are different primitive values.
+     * An empty list is returned if both nodes are equal.
+     * <p>
+     * Subtrees of {@linkplain #protect() protected} nodes cache their hash code, so unchanged subtrees of two protected
+     * nodes (like {@link org.jboss.dmr.client.dispatch.impl.DMRResponse#getShared() shared responses}) are skipped
+     * quickly.
+     *
+     * @param other the node to compare with
+     * @return the changed paths
+     */
+    @NoExport
+    public List<String> diff(final ModelNode other) {
+        final List<String> changes = new ArrayList<String>();
+        diff(this, other, "", changes);
+        return changes;
+    }
+
+    private static void diff(final ModelNode left, final ModelNode right, final String path, final List<String> changes) {
+        if (left == right) {
+            return;
+        }
+        if (left.protect && right.protect && left.hashCode() == right.hashCode() && left.equals(right)) {
+            return;
+        }
+        final ModelType type = left.getType();
+        if (type != right.getType()) {
+            changes.add(path);
+
+        } else if (type == ModelType.OBJECT) {
+            for (final String key : left.keys()) {
+                if (right.has(key)) {
+                    diff(left.require(key), right.require(key), childPath(path, key), changes);
+                } else {
+                    changes.add(childPath(path, key));
+                }
+            }
+            for (final String key : right.keys()) {
+                if (!left.has(key)) {
+                    changes.add(childPath(path, key));
+                }
+            }
+
+        } else if (type == ModelType.LIST) {
+            final List<ModelNode> leftList = left.asList();
+            final List<ModelNode> rightList = right.asList();
+            final int common = Math.min(leftList.size(), rightList.size());
+            for (int i = 0; i < common; i++) {
+                diff(leftList.get(i), rightList.get(i), childPath(path, String.valueOf(i)), changes);
+            }
+            for (int i = common; i < Math.max(leftList.size(), rightList.size()); i++) {
+                changes.add(childPath(path, String.valueOf(i)));
+            }
+
+        } else if (!left.equals(right)) {
+            changes.add(path);
+        }
+    }
+
+    private static String childPath(final String path, final String segment) {
+        String escaped = segment;
+        if (segment.indexOf('/') != -1 || segment.indexOf('\\') != -1 || segment.indexOf('=') != -1
+                || segment.equals("*")) {
+            escaped = segment.replace("\\", "\\\\").replace("/", "\\/").replace("=", "\\=");
+            if (escaped.equals("*")) {
+                escaped = "\\*";
+            }
+        }
+        return path.length() == 0 ? escaped : path + "/" + escaped;
+    }
+
     /**
      * Get the hash code of this node object.  Note that unless the value is {@link #protect()}ed, the hash code may
-     * change over time, thus making unprotected nodes unsuitable for use as hash table keys.
+     * change over time, thus making unprotected nodes unsuitable for use as hash table keys. The hash code of
+     * protected objects and lists is computed only once.
      *
      * @return the hash code
      */
@@ -1407,6 +1513,9 @@ public class ModelNode implements Cloneable, Exportable {
 
     /**
      * Clone this model node.
+     * <p>
+     * Objects and lists of {@linkplain #protect() protected} nodes are not copied right away, but shared with the clone
+     * until they're accessed. So protect nodes which are cloned over and over, e.g. prototypes or cached models.
      *
      * @return the clone
      */
@@ -0,0 +1,529 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import com.google.gwt.typedarrays.shared.DataView;
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+import com.google.gwt.typedarrays.shared.Uint8Array;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+/**
+ * Decodes the binary DMR format straight from a typed array.
+ * <p>
+ * In contrast to {@link DataInput} the payload is decoded into a single {@link Uint8Array} (which maps to a native
+ * {@code Uint8Array} in script mode) and numbers are read using a {@link DataView} on the same buffer. Strings are
+ * assembled in a reusable char buffer. Apart from the decoded values themselves, no objects are allocated per value.
+ * <p>
+ * Use {@link #isSupported()} to check whether typed arrays are available. If not, {@link ModelNode#fromBase64(String)}
+ * falls back to {@link DataInput}.
+ * <p>
+ * In lazy mode objects and lists are not decoded up front. Instead they keep the offset into the buffer and are
+ * decoded when they're accessed for the first time (see {@link LazyModelValue}). This is useful for large responses
+ * where only a small part is actually used. Please note that the buffer is retained as long as there are undecoded
+ * values.
+ * <p>
+ * Keys and short string values are interned using a {@link StringTable}. By default the table is scoped to one
+ * decode (including the lazily decoded values). Pass {@link StringTable#session()} to share strings across decodes.
+ */
+public class ModelNodeDecoder {
+
+    private static final int INITIAL_CHAR_BUFFER = 256;
+
+    private final Buffer buffer;
+    private final Uint8Array bytes;
+    private final DataView view;
+    private final int limit;
+    private final boolean lazy;
+    private final StringTable strings;
+    private int pos;
+    private char[] chars;
+
+    public ModelNodeDecoder(Uint8Array bytes) {
+        this(bytes, false);
+    }
+
+    public ModelNodeDecoder(Uint8Array bytes, boolean lazy) {
+        this(bytes, lazy, new StringTable());
+    }
+
+    /**
+     * @param bytes   the encoded model node
+     * @param lazy    whether to decode objects and lists on first access
+     * @param strings the table used to intern keys and short values, {@code null} to disable interning
+     */
+    public ModelNodeDecoder(Uint8Array bytes, boolean lazy, StringTable strings) {
+        this(new Buffer(bytes, null, strings), 0, lazy);
+    }
+
+    /**
+     * Creates a lazy decoder which uses an index of the containers to skip them without scanning their content.
+     *
+     * @param bytes   the encoded model node
+     * @param index   pairs of content and end offsets of (large) objects and lists ordered by offset, see {@link
+     *                DecodeWorker}
+     * @param strings the table used to intern keys and short values, {@code null} to disable interning
+     */
+    public ModelNodeDecoder(Uint8Array bytes, Int32Array index, StringTable strings) {
+        this(new Buffer(bytes, index, strings), 0, true);
+    }
+
+    /**
+     * Creates an eager decoder which starts at the given position. Used by {@link StreamingDecoder} to resume
+     * decoding when more bytes are available.
+     */
+    ModelNodeDecoder(Uint8Array bytes, int pos, StringTable strings) {
+        this(new Buffer(bytes, null, strings), pos, false);
+    }
+
+    private ModelNodeDecoder(Buffer buffer, int pos, boolean lazy) {
+        this.buffer = buffer;
+        this.bytes = buffer.bytes;
+        this.view = buffer.view;
+        this.limit = buffer.bytes.length();
+        this.lazy = lazy;
+        this.strings = buffer.strings;
+        this.pos = pos;
+        this.chars = new char[INITIAL_CHAR_BUFFER];
+    }
+
+    public static boolean isSupported() {
+        return TypedArrays.isSupported();
+    }
+
+    /**
+     * Decodes a base64 encoded DMR payload.
+     *
+     * @param encoded the base64 encoded payload
+     * @return the decoded model node
+     * @throws IllegalArgumentException if the payload is not valid
+     */
+    public static ModelNode decode(String encoded) {
+        return decode(encoded, false);
+    }
+
+    /**
+     * Decodes a base64 encoded DMR payload.
+     *
+     * @param encoded the base64 encoded payload
+     * @param lazy    whether to decode objects and lists on first access
+     * @return the decoded model node
+     * @throws IllegalArgumentException if the payload is not valid
+     */
+    public static ModelNode decode(String encoded, boolean lazy) {
+        return new ModelNodeDecoder(toUint8Array(encoded), lazy).readNode();
+    }
+
+    /**
+     * Decodes a base64 encoded DMR payload.
+     *
+     * @param encoded the base64 encoded payload
+     * @param lazy    whether to decode objects and lists on first access
+     * @param strings the table used to intern keys and short values, {@code null} to disable interning
+     * @return the decoded model node
+     * @throws IllegalArgumentException if the payload is not valid
+     */
+    public static ModelNode decode(String encoded, boolean lazy, StringTable strings) {
+        return new ModelNodeDecoder(toUint8Array(encoded), lazy, strings).readNode();
+    }
+
+    static Uint8Array toUint8Array(String encoded) {
+        if (ModelNode.hasNativeBase64Support()) {
+            return nativeDecode(encoded);
+        } else {
+            byte[] decoded;
+            try {
+                decoded = Base64.decode(encoded);
+            } catch (java.io.IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+            Uint8Array array = TypedArrays.createUint8Array(decoded.length);
+            for (int i = 0; i < decoded.length; i++) {
+                array.set(i, decoded[i] & 0xff);
+            }
+            return array;
+        }
+    }
+
+    private static native Uint8Array nativeDecode(String encoded) /*-{
+        var plain = atob(encoded.replace(/\s/g, ''));
+        var length = plain.length;
+        var bytes = new Uint8Array(length);
+        for (var i = 0; i < length; i++) {
+            bytes[i] = plain.charCodeAt(i);
+        }
+        return bytes;
+    }-*/;
+
+    /**
+     * Reads the next node. Can be called repeatedly if the buffer contains several nodes.
+     *
+     * @return the decoded node
+     * @throws IllegalArgumentException if the payload is not valid
+     */
+    public ModelNode readNode() {
+        return new ModelNode(readValue());
+    }
+
+    public int position() {
+        return pos;
+    }
+
+    ModelValue readValue() {
+        byte[] b;
+        final char typeChar = (char) readUnsignedByte();
+        final ModelType type;
+        try {
+            type = ModelType.forChar(typeChar);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getMessage() + " at position " + (pos - 1));
+        }
+        switch (type) {
+            case UNDEFINED:
+                return ModelValue.UNDEFINED;
+            case BIG_DECIMAL:
+                return new BigDecimalModelValue(new BigDecimal(readUTF()));
+            case BIG_INTEGER:
+                b = readBytes(readInt());
+                return new BigIntegerModelValue(new BigInteger(b));
+            case BOOLEAN:
+                return BooleanModelValue.valueOf(readUnsignedByte() != 0);
+            case BYTES:
+                b = readBytes(readInt());
+                return new BytesModelValue(b);
+            case DOUBLE:
+                return new DoubleModelValue(readDouble());
+            case EXPRESSION:
+                return new ExpressionValue(readUTF());
+            case INT:
+                return new IntModelValue(readInt());
+            case LIST:
+                return lazy ? lazyContainer(type) : readList();
+            case LONG:
+                return new LongModelValue(readLong());
+            case OBJECT:
+                return lazy ? lazyContainer(type) : readObject();
+            case PROPERTY:
+                final String name = readKey();
+                return new PropertyModelValue(name, readNode());
+            case STRING:
+                return new StringModelValue(readStringValue());
+            case TYPE:
+                return TypeModelValue.of(ModelType.forChar((char) readUnsignedByte()));
+            default:
+                throw new IllegalArgumentException("Invalid type read: " + type);
+        }
+    }
+
+    private ModelValue readObject() {
+        final int count = readInt();
+        final LinkedHashMap<String, ModelNode> map = new LinkedHashMap<String, ModelNode>();
+        for (int i = 0; i < count; i++) {
+            final String key = readKey();
+            map.put(key, readNode());
+        }
+        return new ObjectModelValue(map);
+    }
+
+    private ModelValue readList() {
+        final int count = readInt();
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid list size " + count + " at position " + (pos - 4));
+        }
+        // each element takes at least one byte: don't trust the count of a corrupt payload
+        final ArrayList<ModelNode> list = new ArrayList<ModelNode>(Math.min(count, limit - pos));
+        for (int i = 0; i < count; i++) {
+            list.add(readNode());
+        }
+        return new ListModelValue(list);
+    }
+
+
+    // ------------------------------------------------------ lazy mode
+
+    private ModelValue lazyContainer(ModelType type) {
+        final int offset = pos;
+        final int end = buffer.endOf(offset);
+        if (end != -1) {
+            pos = end;
+        } else if (type == ModelType.OBJECT) {
+            skipObject();
+        } else {
+            skipList();
+        }
+        return new EncodedModelValue(type, buffer, offset);
+    }
+
+    private void skipValue() {
+        final char typeChar = (char) readUnsignedByte();
+        switch (typeChar) {
+            case 'u': // UNDEFINED
+                break;
+            case 'Z': // BOOLEAN
+            case 't': // TYPE
+                skip(1);
+                break;
+            case 'I': // INT
+                skip(4);
+                break;
+            case 'J': // LONG
+            case 'D': // DOUBLE
+                skip(8);
+                break;
+            case 'd': // BIG_DECIMAL
+            case 'e': // EXPRESSION
+            case 's': // STRING
+                skipUTF();
+                break;
+            case 'i': // BIG_INTEGER
+            case 'b': // BYTES
+                skip(readInt());
+                break;
+            case 'l': // LIST
+                skipList();
+                break;
+            case 'o': // OBJECT
+                skipObject();
+                break;
+            case 'p': // PROPERTY
+                skipUTF();
+                skipValue();
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid type character '" + typeChar + "' at position " + (pos - 1));
+        }
+    }
+
+    private void skipObject() {
+        final int count = readInt();
+        for (int i = 0; i < count; i++) {
+            skipUTF();
+            skipValue();
+        }
+    }
+
+    private void skipList() {
+        final int count = readInt();
+        for (int i = 0; i < count; i++) {
+            skipValue();
+        }
+    }
+
+    private void skipUTF() {
+        require(2);
+        final int length = view.getUint16(pos);
+        pos += 2;
+        skip(length);
+    }
+
+    private void skip(int length) {
+        require(length);
+        pos += length;
+    }
+
+
+    /**
+     * Thrown if the buffer ends before the value is complete.
+     */
+    static final class EndOfBufferException extends IllegalArgumentException {
+
+        EndOfBufferException(String message) {
+            super(message);
+        }
+    }
+
+
+    /**
+     * The decoded payload shared by all lazy values of one response.
+     */
+    static final class Buffer {
+
+        final Uint8Array bytes;
+        final DataView view;
+        final Int32Array index;
+        final StringTable strings;
+
+        Buffer(Uint8Array bytes, Int32Array index, StringTable strings) {
+            this.bytes = bytes;
+            this.index = index;
+            this.strings = strings;
+            this.view = TypedArrays.createDataView(bytes.buffer(), bytes.byteOffset(), bytes.byteLength());
+        }
+
+        /**
+         * Returns the end of the container whose content starts at {@code offset} or -1 if it's not indexed.
+         */
+        int endOf(int offset) {
+            if (index == null) {
+                return -1;
+            }
+            int low = 0;
+            int high = index.length() / 2 - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = index.get(2 * mid);
+                if (value < offset) {
+                    low = mid + 1;
+                } else if (value > offset) {
+                    high = mid - 1;
+                } else {
+                    return index.get(2 * mid + 1);
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Decodes one level of the object or list whose content starts at {@code offset}.
+         */
+        ModelValue decodeContainer(ModelType type, int offset) {
+            ModelNodeDecoder decoder = new ModelNodeDecoder(this, offset, true);
+            return type == ModelType.OBJECT ? decoder.readObject() : decoder.readList();
+        }
+    }
+
+
+    // ------------------------------------------------------ primitives
+
+    private void require(int length) {
+        if (length < 0 || pos + length > limit) {
+            throw new EndOfBufferException("EOF: " + length + " byte(s) required at position " + pos + ", but only " + (limit - pos) + " available");
+        }
+    }
+
+    int readUnsignedByte() {
+        require(1);
+        return bytes.get(pos++);
+    }
+
+    int readInt() {
+        require(4);
+        final int value = view.getInt32(pos);
+        pos += 4;
+        return value;
+    }
+
+    private long readLong() {
+        require(8);
+        final long high = view.getInt32(pos);
+        final long low = view.getInt32(pos + 4) & 0xffffffffL;
+        pos += 8;
+        return (high << 32) | low;
+    }
+
+    private double readDouble() {
+        require(8);
+        final double value = view.getFloat64(pos);
+        pos += 8;
+        return value;
+    }
+
+    private byte[] readBytes(int length) {
+        require(length);
+        final byte[] b = new byte[length];
+        for (int i = 0; i < length; i++) {
+            b[i] = (byte) bytes.get(pos++);
+        }
+        return b;
+    }
+
+    String readKey() {
+        return readUTF(strings != null ? StringTable.MAX_KEY_LENGTH : -1);
+    }
+
+    private String readStringValue() {
+        return readUTF(strings != null ? strings.getMaxValueLength() : -1);
+    }
+
+    String readUTF() {
+        return readUTF(-1);
+    }
+
+    /**
+     * Reads a string in modified UTF-8. Malformed sequences are handled the same way as in {@link DataInput#readUTF()}.
+     *
+     * @param maxInternLength strings up to this length are looked up in the string table
+     */
+    private String readUTF(int maxInternLength) {
+        require(2);
+        final int length = view.getUint16(pos);
+        pos += 2;
+        require(length);
+
+        if (length <= maxInternLength) {
+            final String interned = strings.intern(bytes, pos, length);
+            if (interned != null) {
+                pos += length;
+                return interned;
+            }
+        }
+
+        // a modified UTF-8 string never decodes to more chars than it has bytes, plus two chars for a malformed
+        // multi-byte sequence at the very end
+        char[] chars = this.chars;
+        if (chars.length < length + 2) {
+            chars = this.chars = new char[Math.max(length + 2, chars.length * 2)];
+        }
+
+        final Uint8Array bytes = this.bytes;
+        final int end = pos + length;
+        int count = 0;
+        while (pos < end) {
+            final int a = bytes.get(pos++);
+            if (a < 0x80) {
+                chars[count++] = (char) a;
+            } else if (a < 0xc0) {
+                chars[count++] = '?';
+            } else if (a < 0xe0) {
+                final int b = readUnsignedByte();
+                if ((b & 0xc0) != 0x80) {
+                    // probably a US-ASCII char after a Latin-1 char
+                    chars[count++] = '?';
+                    chars[count++] = (char) b;
+                } else {
+                    chars[count++] = (char) ((a & 0x1F) << 6 | b & 0x3F);
+                }
+            } else if (a < 0xf0) {
+                final int b = readUnsignedByte();
+                if ((b & 0xc0) != 0x80) {
+                    chars[count++] = '?';
+                    chars[count++] = (char) b;
+                    continue;
+                }
+                final int c = readUnsignedByte();
+                if ((c & 0xc0) != 0x80) {
+                    // probably a US-ASCII char after two Latin-1 chars?
+                    chars[count++] = '?';
+                    chars[count++] = '?';
+                    chars[count++] = (char) c;
+                } else {
+                    chars[count++] = (char) ((a & 0x0F) << 12 | (b & 0x3F) << 6 | c & 0x3F);
+                }
+            } else {
+                chars[count++] = '?';
+            }
+        }
+        return String.valueOf(chars, 0, count);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A precompiled path to a nested value of a model node. The path is parsed once and can be evaluated against any
+ * number of model nodes without splitting strings or creating intermediate nodes:
+ * <pre>
+ * ModelPath keystore = ModelPath.of("ssl/keystore/path");
+ * String path = keystore.read(payload).asString();
+ * </pre>
+ * <p>
+ * Segments are separated by {@code /} or {@code =}, so {@code server-group=main-server-group/host=master} and
+ * {@code server-group/main-server-group/host/master} are the same path. A segment is used as key for objects, as
+ * index for lists and as name for properties. The segment {@code *} matches all keys of an object resp. all elements of
+ * a list. Paths containing wildcards are evaluated using {@link #readAll(ModelNode)}:
+ * <pre>
+ * List&lt;ModelNode&gt; servers = ModelPath.of("server-group=*&#47;host=*&#47;server=*").readAll(result);
+ * </pre>
+ * <p>
+ * Use a backslash to escape {@code /}, {@code =}, {@code *} and the backslash itself inside a segment. This is the
+ * same syntax as used by {@link ModelNode#diff(ModelNode)}.
+ * <p>
+ * The evaluation returns the nodes of the evaluated model node, not copies. Modifying them modifies the model node.
+ */
+public final class ModelPath {
+
+    private static final String WILDCARD = "*";
+
+    private final String path;
+    private final String[] segments;
+    private final int[] indices;
+    private final boolean[] wildcards;
+    private final boolean multiMatch;
+
+    private ModelPath(final String path) {
+        final List<String> segments = new ArrayList<String>();
+        final List<Boolean> wildcards = new ArrayList<Boolean>();
+        final StringBuilder segment = new StringBuilder();
+        boolean escaped = false;
+        boolean literal = false;
+        for (int i = 0; i < path.length(); i++) {
+            final char c = path.charAt(i);
+            if (escaped) {
+                segment.append(c);
+                literal = true;
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '/' || c == '=') {
+                add(segment, literal, segments, wildcards);
+                literal = false;
+            } else {
+                segment.append(c);
+            }
+        }
+        if (escaped) {
+            throw new IllegalArgumentException("Invalid path '" + path + "': Trailing escape character");
+        }
+        add(segment, literal, segments, wildcards);
+
+        this.path = path;
+        this.segments = segments.toArray(new String[segments.size()]);
+        this.indices = new int[this.segments.length];
+        this.wildcards = new boolean[this.segments.length];
+        boolean multiMatch = false;
+        for (int i = 0; i < this.segments.length; i++) {
+            this.indices[i] = index(this.segments[i]);
+            this.wildcards[i] = wildcards.get(i);
+            multiMatch |= this.wildcards[i];
+        }
+        this.multiMatch = multiMatch;
+    }
+
+    private static void add(final StringBuilder segment, final boolean literal, final List<String> segments,
+            final List<Boolean> wildcards) {
+        if (segment.length() != 0 || literal) {
+            final String value = segment.toString();
+            segments.add(value);
+            wildcards.add(!literal && WILDCARD.equals(value));
+            segment.setLength(0);
+        }
+    }
+
+    private static int index(final String segment) {
+        if (segment.length() == 0 || segment.length() > 9) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            final char c = segment.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    /**
+     * Parses the path.
+     *
+     * @param path the path, {@code /} or an empty string for the model node itself
+     * @return the compiled path
+     */
+    public static ModelPath of(final String path) {
+        if (path == null) {
+            throw new IllegalArgumentException("path is null");
+        }
+        return new ModelPath(path);
+    }
+
+    /**
+     * Returns the node at this path. Unlike {@link ModelNode#get(String...)} missing children are not created.
+     *
+     * @param node the node to evaluate this path against
+     * @return the matching node or an undefined node if there's no such node
+     * @throws IllegalStateException if this path contains wildcards
+     */
+    public ModelNode read(final ModelNode node) {
+        final ModelNode match = find(node);
+        return match != null ? match : new ModelNode();
+    }
+
+    /**
+     * @return {@code true} if there's a defined node at this path, {@code false} otherwise
+     * @throws IllegalStateException if this path contains wildcards
+     */
+    public boolean isDefined(final ModelNode node) {
+        final ModelNode match = find(node);
+        return match != null && match.isDefined();
+    }
+
+    /**
+     * Returns all nodes matching this path.
+     *
+     * @param node the node to evaluate this path against
+     * @return the matching nodes in the order of the keys and elements of the evaluated node. An empty list if
+     * nothing matches.
+     */
+    public List<ModelNode> readAll(final ModelNode node) {
+        if (!multiMatch) {
+            final ModelNode match = find(node);
+            return match != null ? Collections.singletonList(match) : Collections.<ModelNode>emptyList();
+        }
+        final List<ModelNode> matches = new ArrayList<ModelNode>();
+        collect(node, 0, matches);
+        return matches;
+    }
+
+    private ModelNode find(final ModelNode node) {
+        if (multiMatch) {
+            throw new IllegalStateException("Path '" + path + "' contains wildcards. Use readAll() instead.");
+        }
+        ModelNode current = node;
+        for (int i = 0; i < segments.length && current != null; i++) {
+            current = child(current, i);
+        }
+        return current;
+    }
+
+    private void collect(final ModelNode node, final int level, final List<ModelNode> matches) {
+        if (level == segments.length) {
+            matches.add(node);
+
+        } else if (wildcards[level]) {
+            final ModelType type = node.getType();
+            if (type == ModelType.OBJECT) {
+                for (final String key : node.keys()) {
+                    collect(node.require(key), level + 1, matches);
+                }
+            } else if (type == ModelType.LIST) {
+                for (final ModelNode element : node.asList()) {
+                    collect(element, level + 1, matches);
+                }
+            } else if (type == ModelType.PROPERTY) {
+                collect(node.asProperty().getValue(), level + 1, matches);
+            }
+
+        } else {
+            final ModelNode child = child(node, level);
+            if (child != null) {
+                collect(child, level + 1, matches);
+            }
+        }
+    }
+
+    private ModelNode child(final ModelNode node, final int level) {
+        final String segment = segments[level];
+        switch (node.getType()) {
+            case OBJECT:
+                return node.has(segment) ? node.require(segment) : null;
+            case LIST:
+                final int index = indices[level];
+                return index != -1 && node.has(index) ? node.require(index) : null;
+            case PROPERTY:
+                final Property property = node.asProperty();
+                return segment.equals(property.getName()) ? property.getValue() : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return whether this path contains wildcards
+     */
+    public boolean isMultiMatch() {
+        return multiMatch;
+    }
+
+    /**
+     * @return the number of segments
+     */
+    public int size() {
+        return segments.length;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ModelPath)) {
+            return false;
+        }
+        final ModelPath that = (ModelPath) o;
+        if (segments.length != that.segments.length) {
+            return false;
+        }
+        for (int i = 0; i < segments.length; i++) {
+            if (wildcards[i] != that.wildcards[i] || !segments[i].equals(that.segments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < segments.length; i++) {
+            result = 31 * result + segments[i].hashCode() + (wildcards[i] ? 1 : 0);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -34,13 +34,15 @@ import java.util.Set;
  */
 final class ObjectModelValue extends ModelValue {
     private final Map<String, ModelNode> map;
+    private int hash;
+    private boolean hashed;
 
     protected ObjectModelValue() {
         super(ModelType.OBJECT);
         map = new LinkedHashMap<String, ModelNode>();
     }
 
-    private ObjectModelValue(final Map<String, ModelNode> map) {
+    ObjectModelValue(final Map<String, ModelNode> map) {
         super(ModelType.OBJECT);
         this.map = map;
     }
@@ -78,6 +80,10 @@ final class ObjectModelValue extends ModelValue {
         return map.getClass() == LinkedHashMap.class ? new ObjectModelValue(Collections.unmodifiableMap(map)) : this;
     }
 
+    boolean isProtected() {
+        return map.getClass() != LinkedHashMap.class;
+    }
+
     @Override
     ModelNode asObject() {
         return new ModelNode(copy());
@@ -155,6 +161,10 @@ final class ObjectModelValue extends ModelValue {
 
     @Override
     ModelValue copy() {
+        if (isProtected()) {
+            // copy on write
+            return new SharedModelValue(this);
+        }
         return copy(false);
     }
 
@@ -258,6 +268,9 @@ final class ObjectModelValue extends ModelValue {
      */
     @Override
     public boolean equals(final Object other) {
+        if (other instanceof LazyModelValue) {
+            return other.equals(this);
+        }
         return other instanceof ObjectModelValue && equals((ObjectModelValue)other);
     }
 
@@ -268,12 +281,27 @@ final class ObjectModelValue extends ModelValue {
      * @return {@code true} if they are equal, {@code false} otherwise
      */
     public boolean equals(final ObjectModelValue other) {
-        return this == other || other != null && other.map.equals(map);
+        if (this == other) {
+            return true;
+        }
+        if (other == null || hashed && other.hashed && hash != other.hash) {
+            return false;
+        }
+        return other.map.equals(map);
     }
 
     @Override
     public int hashCode() {
-        return map.hashCode();
+        if (hashed) {
+            return hash;
+        }
+        final int hashCode = map.hashCode();
+        if (isProtected()) {
+            // a protected value doesn't change anymore
+            hash = hashCode;
+            hashed = true;
+        }
+        return hashCode;
     }
 
     @Override
@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+/**
+ * A copy of a {@linkplain ModelNode#protect() protected} object or list which shares the protected value until it's
+ * accessed.
+ * <p>
+ * A protected value cannot change anymore, so there's no need to copy it as a whole. On first access only one level
+ * is copied: The nested nodes are cloned, which again shares their protected values. Modifying a deeply nested
+ * attribute of a clone therefore only copies the objects and lists along the path to this attribute.
+ */
+final class SharedModelValue extends LazyModelValue {
+
+    private ModelValue source;
+
+    SharedModelValue(final ModelValue source) {
+        super(source.getType());
+        this.source = source;
+    }
+
+    @Override
+    ModelValue decode() {
+        if (source instanceof ObjectModelValue) {
+            return ((ObjectModelValue) source).copy(false);
+        }
+        return ((ListModelValue) source).copyElements();
+    }
+
+    @Override
+    void release() {
+        source = null;
+    }
+
+    @Override
+    LazyModelValue share() {
+        return new SharedModelValue(source);
+    }
+
+    @Override
+    boolean sameSource(final LazyModelValue other) {
+        return other instanceof SharedModelValue && source == ((SharedModelValue) other).source;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!isDecoded()) {
+            // compare the source, which has a cached hash code
+            return other instanceof SharedModelValue ? other.equals(source) : source.equals(other);
+        }
+        return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return isDecoded() ? super.hashCode() : source.hashCode();
+    }
+
+    @Override
+    ModelValue protect() {
+        if (!isDecoded()) {
+            // the source is protected already
+            return source;
+        }
+        return super.protect();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.google.gwt.typedarrays.shared.TypedArrays;
+import com.google.gwt.typedarrays.shared.Uint8Array;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+
+/**
+ * Decodes a DMR payload while it's received. Chunks are {@linkplain #append(Uint8Array) appended} as they arrive
+ * and decoded as far as possible. Objects and lists are built up entry by entry, other values are decoded once
+ * they're complete. Consumed bytes are dropped from time to time, so the buffer holds roughly one chunk plus the
+ * incomplete value.
+ * <p>
+ * If the payload is a management response whose result is a list, {@link #append(Uint8Array)} returns the list
+ * elements which were completed by the chunk. This allows processing results like log file lines before the
+ * whole response arrived.
+ */
+public final class StreamingDecoder {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final StringTable strings;
+    private final LinkedList<Frame> stack;
+    private Uint8Array buffer;
+    private int length;
+    private int pos;
+    private int size;
+    private ModelNode root;
+
+    public StreamingDecoder(StringTable strings) {
+        this.strings = strings;
+        this.stack = new LinkedList<Frame>();
+        this.buffer = TypedArrays.createUint8Array(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Appends a chunk and decodes as much as possible.
+     *
+     * @return the completed elements of the result list, if any
+     * @throws IllegalArgumentException if the payload is not valid
+     */
+    public List<ModelNode> append(Uint8Array chunk) {
+        ensureCapacity(chunk.length());
+        buffer.set(chunk, length);
+        length += chunk.length();
+        size += chunk.length();
+
+        List<ModelNode> elements = new ArrayList<ModelNode>();
+        decode(elements);
+        compact();
+        return elements.isEmpty() ? Collections.<ModelNode>emptyList() : elements;
+    }
+
+    /**
+     * Returns the decoded payload after the last chunk was appended.
+     *
+     * @throws IllegalArgumentException if the payload is incomplete
+     */
+    public ModelNode finish() {
+        if (root == null || !stack.isEmpty()) {
+            throw new IllegalArgumentException("Incomplete payload: " + (length - pos) + " byte(s) left");
+        }
+        return root;
+    }
+
+    /**
+     * The number of bytes received so far.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void decode(List<ModelNode> elements) {
+        ModelNodeDecoder decoder = new ModelNodeDecoder(buffer.subarray(0, length), pos, strings);
+        while (true) {
+            int mark = decoder.position();
+            try {
+                if (stack.isEmpty()) {
+                    if (root != null) {
+                        break;
+                    }
+                    root = readValue(decoder, null, null);
+                } else {
+                    Frame frame = stack.getFirst();
+                    if (frame.remaining == 0) {
+                        stack.removeFirst();
+                        if (!stack.isEmpty() && stack.getFirst().partial) {
+                            elements.add(frame.node);
+                        }
+                        continue;
+                    }
+                    if (frame.map != null && frame.key == null) {
+                        frame.key = decoder.readKey();
+                        mark = decoder.position();
+                    }
+                    ModelNode child = readValue(decoder, frame, frame.key);
+                    if (frame.map != null) {
+                        frame.map.put(frame.key, child);
+                        frame.key = null;
+                    } else {
+                        frame.list.add(child);
+                    }
+                    frame.remaining--;
+                    if (frame.partial && (child.getType() != ModelType.OBJECT && child.getType() != ModelType.LIST)) {
+                        elements.add(child);
+                    }
+                }
+                pos = decoder.position();
+            } catch (ModelNodeDecoder.EndOfBufferException e) {
+                // wait for the next chunk
+                pos = mark;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Reads the next value. Objects and lists are created empty and pushed on the stack, their content is read
+     * entry by entry.
+     */
+    private ModelNode readValue(ModelNodeDecoder decoder, Frame parent, String key) {
+        int start = decoder.position();
+        if (start >= length) {
+            throw new ModelNodeDecoder.EndOfBufferException("EOF at position " + start);
+        }
+        char type = (char) buffer.get(start);
+        if (type != 'o' && type != 'l') {
+            return decoder.readNode();
+        }
+
+        decoder.readUnsignedByte();
+        int count = decoder.readInt();
+        Frame frame;
+        if (type == 'o') {
+            LinkedHashMap<String, ModelNode> map = new LinkedHashMap<String, ModelNode>();
+            frame = new Frame(new ModelNode(new ObjectModelValue(map)), map, null, count);
+        } else {
+            ArrayList<ModelNode> list = new ArrayList<ModelNode>();
+            frame = new Frame(new ModelNode(new ListModelValue(list)), null, list, count);
+            // the result list of a management response
+            frame.partial = parent != null && parent.map != null && stack.size() == 1 && RESULT.equals(key);
+        }
+        stack.addFirst(frame);
+        return frame.node;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buffer.length()) {
+            int capacity = buffer.length();
+            while (length + additional > capacity) {
+                capacity *= 2;
+            }
+            Uint8Array grown = TypedArrays.createUint8Array(capacity);
+            grown.set(buffer.subarray(0, length), 0);
+            buffer = grown;
+        }
+    }
+
+    /**
+     * Drops the consumed bytes once they make up more than half of the buffer.
+     */
+    private void compact() {
+        if (pos > 0 && pos >= length / 2) {
+            Uint8Array remaining = buffer.subarray(pos, length);
+            Uint8Array compacted = TypedArrays.createUint8Array(Math.max(INITIAL_CAPACITY, remaining.length()));
+            compacted.set(remaining, 0);
+            buffer = compacted;
+            length -= pos;
+            pos = 0;
+        }
+    }
+
+
+    private static class Frame {
+
+        final ModelNode node;
+        final LinkedHashMap<String, ModelNode> map;
+        final ArrayList<ModelNode> list;
+        int remaining;
+        String key;
+        boolean partial;
+
+        Frame(ModelNode node, LinkedHashMap<String, ModelNode> map, ArrayList<ModelNode> list, int remaining) {
+            this.node = node;
+            this.map = map;
+            this.list = list;
+            this.remaining = remaining;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import com.google.gwt.typedarrays.shared.Uint8Array;
+
+/**
+ * Interning table used by the {@link ModelNodeDecoder} to share repeated keys and short values like
+ * "name", "enabled" or "read-write" as one string instance.
+ * <p>
+ * Lookups work directly on the encoded bytes, so a repeated string is neither decoded nor allocated again. Only
+ * US-ASCII strings are interned, which covers virtually all keys of the management model.
+ * <p>
+ * A table is either scoped to one decode (the default) or shared across several decodes. Use {@link #session()} for
+ * the latter. Shared tables are bounded and keep two generations of half of {@link #getMaxEntries()} each: when the
+ * current generation is full, it becomes the old generation and the previous old generation is dropped. Strings
+ * found in the old generation are moved to the current one, so strings which are used over and over stay in the table,
+ * while the strings of a single large response (e.g. thousands of queue names) are evicted eventually.
+ */
+public class StringTable {
+
+    /**
+     * Keys longer than this are not interned.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final int DEFAULT_MAX_VALUE_LENGTH = 32;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int SESSION_MAX_ENTRIES = 8192;
+    private static final int SESSION_MAX_VALUE_LENGTH = 16;
+
+    /**
+     * Rough estimate for the overhead of a string instance in bytes.
+     */
+    private static final int STRING_OVERHEAD = 40;
+
+    private static StringTable session;
+
+    /**
+     * @return a bounded table which can be shared across decodes
+     */
+    public static StringTable session() {
+        if (session == null) {
+            session = new StringTable(SESSION_MAX_ENTRIES, SESSION_MAX_VALUE_LENGTH);
+        }
+        return session;
+    }
+
+    private final int maxEntries;
+    private final int maxValueLength;
+    private String[] entries;
+    private int[] hashes;
+    private int size;
+    private String[] oldEntries;
+    private int[] oldHashes;
+    private int oldSize;
+    private char[] chars;
+
+    private int hits;
+    private int misses;
+    private long savedBytes;
+
+    /**
+     * Creates an unbounded table which is meant to be used for one decode.
+     */
+    public StringTable() {
+        this(Integer.MAX_VALUE, DEFAULT_MAX_VALUE_LENGTH);
+    }
+
+    /**
+     * @param maxEntries     the maximum number of entries
+     * @param maxValueLength values whose encoded length exceeds this limit are not interned. Keys are interned up to
+     *                       {@link #MAX_KEY_LENGTH}.
+     */
+    public StringTable(int maxEntries, int maxValueLength) {
+        this.maxEntries = maxEntries;
+        this.maxValueLength = maxValueLength;
+        this.entries = new String[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.chars = new char[MAX_KEY_LENGTH];
+    }
+
+    /**
+     * Returns the interned string for the US-ASCII encoded bytes in {@code [offset, offset + length)}.
+     *
+     * @return the interned string or {@code null} if the bytes contain non US-ASCII characters
+     */
+    String intern(final Uint8Array bytes, final int offset, final int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            final int b = bytes.get(offset + i);
+            if (b == 0 || b >= 0x80) {
+                return null;
+            }
+            hash = 31 * hash + b;
+        }
+
+        String entry = find(entries, hashes, hash, bytes, offset, length);
+        if (entry != null) {
+            hits++;
+            savedBytes += STRING_OVERHEAD + 2 * length;
+            return entry;
+        }
+        if (oldEntries != null) {
+            entry = find(oldEntries, oldHashes, hash, bytes, offset, length);
+            if (entry != null) {
+                hits++;
+                savedBytes += STRING_OVERHEAD + 2 * length;
+                add(entry, hash);
+                return entry;
+            }
+        }
+
+        misses++;
+        final char[] chars = this.chars.length >= length ? this.chars : (this.chars = new char[length]);
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) bytes.get(offset + i);
+        }
+        final String value = String.valueOf(chars, 0, length);
+        add(value, hash);
+        return value;
+    }
+
+    private static String find(final String[] entries, final int[] hashes, final int hash, final Uint8Array bytes,
+            final int offset, final int length) {
+        final int mask = entries.length - 1;
+        int index = hash & mask;
+        String entry;
+        while ((entry = entries[index]) != null) {
+            if (hashes[index] == hash && matches(entry, bytes, offset, length)) {
+                return entry;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    private void add(final String value, final int hash) {
+        if (maxEntries != Integer.MAX_VALUE && size >= maxEntries / 2) {
+            // start a new generation
+            oldEntries = entries;
+            oldHashes = hashes;
+            oldSize = size;
+            entries = new String[INITIAL_CAPACITY];
+            hashes = new int[INITIAL_CAPACITY];
+            size = 0;
+        }
+        final int mask = entries.length - 1;
+        int index = hash & mask;
+        while (entries[index] != null) {
+            index = (index + 1) & mask;
+        }
+        entries[index] = value;
+        hashes[index] = hash;
+        size++;
+        if (size * 2 > entries.length) {
+            rehash();
+        }
+    }
+
+    private static boolean matches(final String entry, final Uint8Array bytes, final int offset, final int length) {
+        if (entry.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (entry.charAt(i) != bytes.get(offset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        final String[] oldEntries = entries;
+        final int[] oldHashes = hashes;
+        final String[] newEntries = new String[oldEntries.length * 2];
+        final int[] newHashes = new int[oldEntries.length * 2];
+        final int mask = newEntries.length - 1;
+        for (int i = 0; i < oldEntries.length; i++) {
+            if (oldEntries[i] != null) {
+                int index = oldHashes[i] & mask;
+                while (newEntries[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                newEntries[index] = oldEntries[i];
+                newHashes[index] = oldHashes[i];
+            }
+        }
+        entries = newEntries;
+        hashes = newHashes;
+    }
+
+    /**
+     * @return the number of entries in both generations
+     */
+    public int size() {
+        return size + oldSize;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public int getMaxValueLength() {
+        return maxValueLength;
+    }
+
+    /**
+     * @return the number of strings which were found in the table
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of strings which had to be created
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return an estimate of the heap which was saved by returning interned strings (in bytes)
+     */
+    public long getSavedBytes() {
+        return savedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "StringTable(" + size() + " entries, " + hits + " hits, " + misses + " misses, ~" + (savedBytes / 1024) + " KB saved)";
+    }
+}
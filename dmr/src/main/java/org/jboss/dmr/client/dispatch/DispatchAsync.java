@@ -35,4 +35,19 @@ public interface DispatchAsync {
     public void setProperty(String key, String value);
     public void clearProperty(String key);
 
+    /**
+     * Tags the requests dispatched from now on with the name token of the place the user navigates to. Called as soon
+     * as the navigation starts, so the requests of the new place are not considered stale.
+     */
+    void setPlace(String nameToken);
+
+    /**
+     * Cancels queued and running read-only requests which were dispatched for another place than {@code nameToken}.
+     * Called when the user navigated to that place. Background and {@linkplain
+     * org.jboss.dmr.client.dispatch.impl.DMRAction#setGlobal(boolean) global} requests and requests which modify the
+     * model are not cancelled. The callbacks of cancelled requests are not notified, unless they are {@link
+     * CancellationAware}.
+     */
+    void cancelStaleRequests(String nameToken);
+
 }
@@ -0,0 +1,171 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.Property;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Latency and payload metrics of the management operations sent by the dispatcher. The metrics are grouped by
+ * operation name and address template (the address with wildcards instead of resource names, except for
+ * subsystems) and kept in fixed-size {@linkplain Histogram histograms}.
+ */
+public class DispatchMetrics {
+
+    public enum Metric {
+        /** Time between dispatching an action and sending its request */
+        QUEUE("queue-time"),
+        /** Time between sending the request and receiving the response */
+        NETWORK("network-time"),
+        /** Number of characters of the response */
+        SIZE("response-size"),
+        /** Time to decode the response */
+        DECODE("decode-time"),
+        /** Time spent in the callbacks */
+        CALLBACK("callback-time");
+
+        private final String label;
+
+        Metric(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Operations beyond this number of groups are collected in {@link #OTHER}.
+     */
+    static final int MAX_GROUPS = 256;
+    static final String OTHER = "other";
+
+    public static final DispatchMetrics INSTANCE = new DispatchMetrics();
+
+    private final Map<String, Group> groups = new TreeMap<String, Group>();
+    private final Set<Listener> listeners = new HashSet<Listener>();
+
+    /**
+     * Returns the group of the operation, e.g. {@code read-resource /subsystem=datasources/data-source=*}.
+     */
+    public static String group(ModelNode operation) {
+        StringBuilder group = new StringBuilder(operation.get(OP).asString()).append(" ");
+        if (operation.hasDefined(ADDRESS)) {
+            for (Property segment : operation.get(ADDRESS).asPropertyList()) {
+                group.append("/").append(segment.getName()).append("=");
+                group.append(SUBSYSTEM.equals(segment.getName()) ? segment.getValue().asString() : "*");
+            }
+        } else {
+            group.append("/");
+        }
+        return group.toString();
+    }
+
+    public void record(String group, Metric metric, double value) {
+        Group g = groups.get(group);
+        if (g == null) {
+            if (groups.size() >= MAX_GROUPS) {
+                group = OTHER;
+                g = groups.get(OTHER);
+            }
+            if (g == null) {
+                g = new Group(group);
+                groups.put(group, g);
+            }
+        }
+        g.histograms[metric.ordinal()].record(value);
+        fireChange();
+    }
+
+    public Collection<Group> getGroups() {
+        return groups.values();
+    }
+
+    public ModelNode toModelNode() {
+        ModelNode node = new ModelNode();
+        node.setEmptyObject();
+        for (Group group : groups.values()) {
+            ModelNode metrics = node.get(group.getName());
+            for (Metric metric : Metric.values()) {
+                metrics.get(metric.getLabel()).set(group.get(metric).toModelNode());
+            }
+        }
+        return node;
+    }
+
+    public String toJSONString() {
+        return toModelNode().toJSONString(false);
+    }
+
+    public void flush() {
+        groups.clear();
+        fireChange();
+    }
+
+    private void fireChange() {
+        for (Listener l : listeners) {
+            l.onChange();
+        }
+    }
+
+    public void addListener(Listener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        this.listeners.remove(listener);
+    }
+
+    public interface Listener {
+        void onChange();
+    }
+
+
+    public static class Group {
+
+        private final String name;
+        private final Histogram[] histograms;
+
+        Group(String name) {
+            this.name = name;
+            this.histograms = new Histogram[Metric.values().length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new Histogram();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Histogram get(Metric metric) {
+            return histograms[metric.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch;
+
+import org.jboss.dmr.client.ModelNode;
+
+/**
+ * Histogram with a fixed number of exponential buckets. Bucket {@code i} counts the values less than {@code 2^i},
+ * the last bucket counts all remaining values. Percentiles are therefore estimates which are accurate to a factor
+ * of two.
+ */
+public class Histogram {
+
+    static final int BUCKETS = 24;
+
+    private final long[] buckets;
+    private long count;
+    private double sum;
+    private double max;
+
+    public Histogram() {
+        this.buckets = new long[BUCKETS];
+    }
+
+    public void record(double value) {
+        int bucket = 0;
+        double bound = 1;
+        while (value >= bound && bucket < BUCKETS - 1) {
+            bucket++;
+            bound *= 2;
+        }
+        buckets[bucket]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the upper bound of the bucket which contains the given percentile, but not more than the maximum.
+     *
+     * @param percentile a value between 0 and 1
+     */
+    public double getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        double bound = 1;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            seen += buckets[i];
+            if (seen >= threshold) {
+                return Math.min(bound, max);
+            }
+            bound *= 2;
+        }
+        return max;
+    }
+
+    public ModelNode toModelNode() {
+        ModelNode node = new ModelNode();
+        node.get("count").set(count);
+        node.get("mean").set(getMean());
+        node.get("p50").set(getPercentile(0.5));
+        node.get("p90").set(getPercentile(0.9));
+        node.get("p99").set(getPercentile(0.99));
+        node.get("max").set(max);
+        ModelNode counts = node.get("buckets").setEmptyList();
+        for (long bucket : buckets) {
+            counts.add(bucket);
+        }
+        return node;
+    }
+}
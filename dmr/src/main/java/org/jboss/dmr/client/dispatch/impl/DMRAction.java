@@ -21,6 +21,7 @@ package org.jboss.dmr.client.dispatch.impl;
 
 import org.jboss.dmr.client.dispatch.Action;
 import org.jboss.dmr.client.dispatch.ActionType;
+import org.jboss.dmr.client.dispatch.Priority;
 import org.jboss.dmr.client.ModelNode;
 
 /**
@@ -31,6 +32,13 @@ public class DMRAction implements Action<DMRResponse> {
 
     private ModelNode operation;
     private boolean cachable = true;
+    private boolean cacheConfiguration;
+    private boolean refresh;
+    private Priority priority;
+    private boolean global;
+    private boolean yielding;
+    private boolean streaming;
+    private PartialResultCallback partialResultCallback;
 
     public DMRAction(ModelNode operation) {
         this.operation = operation;
@@ -68,6 +76,98 @@ public class DMRAction implements Action<DMRResponse> {
     public boolean isCachable() {
         return cachable;
     }
-}
 
+    /**
+     * Opts in to caching the response of configuration reads (read-resource and read-children-* without runtime
+     * values) for a few seconds, e.g. for data which is read by several components of the same place. Descriptions
+     * and {@code whoami} are cached regardless, unless the action is not {@linkplain #setCachable(boolean)
+     * cachable}.
+     */
+    public void setCacheConfiguration(boolean cacheConfiguration) {
+        this.cacheConfiguration = cacheConfiguration;
+    }
+
+    public boolean isCacheConfiguration() {
+        return cacheConfiguration;
+    }
+
+    /**
+     * Bypasses cached responses, e.g. for a refresh triggered by the user. The fresh response replaces the cached
+     * one.
+     */
+    public void setRefresh(boolean refresh) {
+        this.refresh = refresh;
+    }
+
+    public boolean isRefresh() {
+        return refresh;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the priority of this action. Unless set explicitly, read-only operations use {@link
+     * Priority#NAVIGATION} and all other operations {@link Priority#INTERACTIVE}.
+     */
+    public Priority getPriority() {
+        if (priority != null) {
+            return priority;
+        }
+        return isReadOnly() ? Priority.NAVIGATION : Priority.INTERACTIVE;
+    }
+
+    public boolean isReadOnly() {
+        return Operations.isReadOnly(operation);
+    }
+
+    /**
+     * Global actions don't belong to a place, e.g. the actions of the header, and are not cancelled when the user
+     * navigates to another place.
+     */
+    public void setGlobal(boolean global) {
+        this.global = global;
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    /**
+     * Yielding actions are cancelled as soon as an action which is not {@link Priority#BACKGROUND} is dispatched,
+     * e.g. prefetching which must not compete with the requests of the user.
+     */
+    public void setYielding(boolean yielding) {
+        this.yielding = yielding;
+    }
+
+    public boolean isYielding() {
+        return yielding;
+    }
 
+    /**
+     * Read-only operations of streaming actions are decoded while the response is received, if the browser
+     * supports it. This reduces the time to the first result and the memory needed for large responses. Streaming
+     * actions bypass the response cache.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Registers a callback for the elements of a list result. Implies {@link #setStreaming(boolean)}.
+     */
+    public void setPartialResultCallback(PartialResultCallback partialResultCallback) {
+        this.partialResultCallback = partialResultCallback;
+        this.streaming = partialResultCallback != null || streaming;
+    }
+
+    public PartialResultCallback getPartialResultCallback() {
+        return partialResultCallback;
+    }
+}
@@ -7,4 +7,23 @@ package org.jboss.dmr.client.dispatch.impl;
 public interface DMREndpointConfig {
     String getUrl();
     String getUploadUrl();
+
+    /**
+     * Whether to exchange operations as {@code application/json} instead of {@code application/dmr-encoded}.
+     * JSON responses are parsed natively, but lose some type information (expressions, big decimals and longs
+     * beyond 2^53), so the binary format remains the default.
+     */
+    boolean isJsonTransport();
+
+    /**
+     * The maximum number of read-only operations which are sent as one composite operation. Operations dispatched
+     * within the same event loop turn are batched. Values less than two disable batching.
+     */
+    int getBatchSize();
+
+    /**
+     * The maximum number of concurrent requests. Further requests are queued by priority. Values less than one
+     * disable the limit.
+     */
+    int getMaxRequests();
 }
@@ -19,6 +19,8 @@
 
 package org.jboss.dmr.client.dispatch.impl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,14 +30,20 @@ import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.http.client.Request;
 import com.google.gwt.http.client.RequestBuilder;
 import com.google.gwt.http.client.RequestCallback;
+import com.google.gwt.http.client.RequestException;
 import com.google.gwt.http.client.Response;
+import com.google.gwt.typedarrays.shared.Uint8Array;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import org.jboss.as.console.client.rbac.ResourceAccessLog;
+import org.jboss.dmr.client.DecodeWorker;
 import org.jboss.dmr.client.ModelNode;
 import org.jboss.dmr.client.Property;
+import org.jboss.dmr.client.StreamingDecoder;
+import org.jboss.dmr.client.StringTable;
 import org.jboss.dmr.client.dispatch.ActionHandler;
 import org.jboss.dmr.client.dispatch.Diagnostics;
+import org.jboss.dmr.client.dispatch.DispatchMetrics;
 import org.jboss.dmr.client.dispatch.DispatchError;
 import org.jboss.dmr.client.dispatch.DispatchRequest;
 
@@ -51,17 +59,29 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
     private static final String HEADER_CONTENT_TYPE = "Content-Type";
     private static final String HEADER_ACCEPT = "Accept";
     private static final String DMR_ENCODED = "application/dmr-encoded";
+    private static final String APPLICATION_JSON = "application/json";
     private static final String HEADER_CONNECTION = "Connection";
     private static final String KEEP_ALIVE = "Keep-Alive";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
 
     /**
-     * The read resource description supports the following parameters:
-     * recursive, proxies, operations, inherited plus one not documented: locale.
-     * See https://docs.jboss.org/author/display/AS72/Global+operations#Globaloperations-readresourcedescription
-     * for a more detailed description
+     * Encoded responses bigger than this (number of base64 characters) are decoded in a web worker if supported.
      */
-    private static final String[] READ_RESOURCE_DESCRIPTION_OPTIONAL_PARAMETERS = new String[] {
-            RECURSIVE, PROXIES, OPERATIONS, INHERITED, LOCALE};
+    private static final int WORKER_DECODE_THRESHOLD = 256 * 1024;
+
+    /**
+     * Operations which are sent as GET requests and the value of the {@code operation} query parameter
+     * understood by the HTTP management endpoint. GET responses contain the result only and lack the response
+     * headers (e.g. the process state), so other reads are sent as POST requests. Only GET responses are revalidated
+     * with entity tags, steps of composites are not.
+     */
+    private static final Map<String, String> GET_OPERATIONS = new HashMap<String, String>();
+
+    static
+    {
+        GET_OPERATIONS.put(READ_RESOURCE_DESCRIPTION_OPERATION, "resource-description");
+    }
 
     private static long idCounter = 0;
 
@@ -70,17 +90,32 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
     private boolean trackInvocations = diagnostics.isEnabled();
     private DMREndpointConfig endpointConfig = GWT.create(DMREndpointConfig.class);
     private ResourceAccessLog resourceLog = ResourceAccessLog.INSTANCE;
+    private DispatchMetrics metrics = DispatchMetrics.INSTANCE;
+
+    /**
+     * Read-only operations which are currently in flight, keyed by {@link Operations#canonicalKey(ModelNode)}.
+     */
+    private final Map<String, PendingRead> pendingReads = new HashMap<String, PendingRead>();
+    private final ResponseCache responseCache = new ResponseCache(ResponseCache.MAX_ENTRIES, ResponseCache.MAX_SIZE);
+
+    /**
+     * Read-only operations collected during the current event loop turn, keyed by the canonical operation headers.
+     */
+    private final Map<String, ReadBatch> batches = new HashMap<String, ReadBatch>();
+    private final ValidatorStore validators = new ValidatorStore(ValidatorStore.MAX_ENTRIES);
     
     private RequestBuilder postRequestBuilder() {
         // lazy init, because endpointConfig.getUrl() is not initialized at construction time
         if (prb == null) {
             prb = new RequestBuilder(RequestBuilder.POST, endpointConfig.getUrl());
-            prb.setHeader(HEADER_ACCEPT, DMR_ENCODED);
-            prb.setHeader(HEADER_CONTENT_TYPE, DMR_ENCODED);
             prb.setIncludeCredentials(true);
         }
         return prb;
     }
+
+    private String mediaType() {
+        return endpointConfig.isJsonTransport() ? APPLICATION_JSON : DMR_ENCODED;
+    }
     
     private static native void redirect(String url)/*-{
         $wnd.location = url;
@@ -158,10 +193,168 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
 
         //Request request = executeRequest(resultCallback, GWT.isScript() ? operation : runAsRole(operation));
         // TODO: https://issues.jboss.org/browse/HAL-100
-        Request request = executeRequest(resultCallback, runAsRole(operation, properties));
+        final ModelNode prepared = runAsRole(operation, properties);
+        if (action.isStreaming() && Operations.isReadOnly(prepared) && StreamingRequest.isSupported())
+        {
+            return executeStreaming(resultCallback, action.getPartialResultCallback(), prepared);
+        }
+        if (Operations.isReadOnly(prepared))
+        {
+            return joinRead(resultCallback, prepared, action);
+        }
+
+        // invalidate now and once the write is done: reads sent in between may still see the old state
+        responseCache.invalidate(prepared);
+        Request request = executeRequest(new AsyncCallback<DMRResponse>()
+        {
+            @Override
+            public void onSuccess(DMRResponse result)
+            {
+                responseCache.invalidate(prepared);
+                resultCallback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Throwable caught)
+            {
+                responseCache.invalidate(prepared);
+                resultCallback.onFailure(caught);
+            }
+        }, prepared);
         return new DispatchRequestHandle(request);
     }
 
+    /**
+     * Identical read-only operations which are in flight at the same time are sent only once. Later callers are
+     * attached to the pending request and get the same response. Since {@link DMRResponse#get()} returns a copy of
+     * the decoded payload, callers can't see each others modifications.
+     * <p>
+     * Successful responses of {@linkplain DMRAction#isCachable() cachable} actions are kept in the
+     * {@link ResponseCache} and served from there as long as they're valid, unless the action asks for a {@linkplain
+     * DMRAction#setRefresh(boolean) refresh}.
+     */
+    private DispatchRequest joinRead(final AsyncCallback<DMRResponse> resultCallback, final ModelNode operation,
+            final DMRAction action)
+    {
+        final String key = Operations.canonicalKey(operation);
+        final long ttl = action.isCachable() ? ResponseCache.ttl(operation, action.isCacheConfiguration()) : 0;
+        if (ttl > 0 && !action.isRefresh())
+        {
+            DMRResponse cached = responseCache.get(key);
+            if (cached != null)
+            {
+                return new CachedResponseHandle(resultCallback, cached);
+            }
+        }
+
+        PendingRead pending = pendingReads.get(key);
+        if (pending == null || pending.isStale())
+        {
+            pending = new PendingRead(key, ttl > 0 ? operation : null, ttl, responseCache.generation());
+            pendingReads.put(key, pending);
+            pending.callbacks.add(resultCallback);
+            if (isBatchable(operation))
+            {
+                pending.batched = true;
+                batch(pending, operation);
+            }
+            else
+            {
+                pending.request = executeRequest(pending, operation);
+            }
+        }
+        else
+        {
+            pending.callbacks.add(resultCallback);
+        }
+        return new PendingReadHandle(pending, resultCallback);
+    }
+
+    /**
+     * Batching is enabled by {@link DMREndpointConfig#getBatchSize()}. Composites and descriptions, which are
+     * read using GET requests, are sent as they are.
+     */
+    private boolean isBatchable(final ModelNode operation)
+    {
+        final String op = operation.get(OP).asString();
+        return endpointConfig.getBatchSize() > 1
+                && !COMPOSITE.equals(op)
+                && !READ_RESOURCE_DESCRIPTION_OPERATION.equals(op);
+    }
+
+    /**
+     * Collects the operation into the batch of the current event loop turn. Operations with different headers
+     * (e.g. run as role) go into different batches. A batch is sent when it's full or at the end of the turn.
+     */
+    private void batch(final AsyncCallback<DMRResponse> callback, final ModelNode operation)
+    {
+        final ModelNode headers = operation.hasDefined(OPERATION_HEADERS) ?
+                operation.get(OPERATION_HEADERS) : new ModelNode();
+        final String key = Operations.canonicalKey(headers);
+
+        ReadBatch batch = batches.get(key);
+        if (batch == null)
+        {
+            final ReadBatch created = new ReadBatch(headers)
+            {
+                @Override
+                void resend(ModelNode operation, AsyncCallback<DMRResponse> callback)
+                {
+                    track(callback, executeRequest(callback, operation));
+                }
+            };
+            batches.put(key, created);
+            Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand()
+            {
+                @Override
+                public void execute()
+                {
+                    flush(key, created);
+                }
+            });
+            batch = created;
+        }
+
+        batch.add(operation, callback);
+        if (batch.size() >= endpointConfig.getBatchSize())
+        {
+            flush(key, batch);
+        }
+    }
+
+    private void flush(final String key, final ReadBatch batch)
+    {
+        if (batches.get(key) != batch)
+        {
+            return; // already sent
+        }
+        batches.remove(key);
+        if (batch.size() == 1)
+        {
+            track(batch.callback(0), executeRequest(batch.callback(0), batch.operation(0)));
+        }
+        else if (batch.size() > 1)
+        {
+            Request request = executeRequest(batch, batch.composite());
+            for (int i = 0; i < batch.size(); i++)
+            {
+                track(batch.callback(i), request);
+            }
+        }
+    }
+
+    /**
+     * Remembers the request which carries a batched read, so that the read becomes stale if the request ends
+     * without calling back.
+     */
+    private static void track(final AsyncCallback<DMRResponse> callback, final Request request)
+    {
+        if (callback instanceof PendingRead)
+        {
+            ((PendingRead) callback).request = request;
+        }
+    }
+
     private ModelNode runAsRole(final ModelNode operation, final Map<String, String> properties) {
 
         String role = properties.get("run_as");
@@ -222,7 +415,16 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
             trace(Type.BEGIN, id, operation);
 
             final RequestBuilder requestBuilder = chooseRequestBuilder(operation);
+            // keep the validator until the response arrives, even if it's evicted from the store meanwhile
+            final ValidatorStore.Validator validator = "GET".equals(requestBuilder.getHTTPMethod()) ?
+                    validators.get(requestBuilder.getUrl()) : null;
+            if (validator != null)
+            {
+                requestBuilder.setHeader(HEADER_IF_NONE_MATCH, validator.etag);
+            }
             trace(Type.SERIALIZED, id, operation);
+            final String group = DispatchMetrics.group(operation);
+            final long sent = System.currentTimeMillis();
 
             final RequestCallback requestCallback = new RequestCallback()
             {
@@ -230,25 +432,42 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
                 public void onResponseReceived(Request request, Response response)
                 {
                     trace(Type.RECEIVE, id, operation);
+                    long received = System.currentTimeMillis();
+                    metrics.record(group, DispatchMetrics.Metric.NETWORK, received - sent);
 
                     int statusCode = response.getStatusCode();
-                    if (200 == statusCode)
+                    String text = response.getText();
+                    String contentType = response.getHeader(HEADER_CONTENT_TYPE);
+                    if (304 == statusCode && validator != null)
                     {
-                        resultCallback.onSuccess(
-                                new DMRResponse(
-                                        requestBuilder.getHTTPMethod(),
-                                        response.getText(),
-                                        response.getHeader(HEADER_CONTENT_TYPE)
-                                )
-                        );
+                        // not modified: answer with the stored payload
+                        deliver(resultCallback, new DMRResponse(validator.payload, validator.size), group,
+                                received);
                     }
-                    else if (401 == statusCode || 0 == statusCode)
+                    else if (200 == statusCode)
                     {
-                        resultCallback.onFailure(new DispatchError("Authentication required.", statusCode));
+                        final String method = requestBuilder.getHTTPMethod();
+                        AsyncCallback<DMRResponse> callback = resultCallback;
+                        if ("GET".equals(method))
+                        {
+                            callback = rememberValidator(requestBuilder.getUrl(), response.getHeader(HEADER_ETAG),
+                                    resultCallback);
+                        }
+                        if (isWorkerDecode(text, contentType))
+                        {
+                            decodeInWorker(callback, method, text, contentType, group, received);
+                        }
+                        else
+                        {
+                            deliver(callback, new DMRResponse(method, text, contentType), group, received);
+                        }
                     }
-                    else if (403 == statusCode)
+                    else if (500 == statusCode && resultCallback instanceof ReadBatch && text != null
+                            && !text.isEmpty())
                     {
-                        resultCallback.onFailure(new DispatchError("Authentication required.", statusCode));
+                        // a failed step fails the composite, the batch hands out the successful steps
+                        // and resends the others on their own
+                        resultCallback.onSuccess(new DMRResponse(requestBuilder.getHTTPMethod(), text, contentType));
                     }
                     else if (307 == statusCode)
                     {
@@ -256,24 +475,10 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
                         Log.error("Redirect '" + location + "'. Could not execute " + operation.toString());
                         redirect(location);
                     }
-                    else if (503 == statusCode)
-                    {
-                        resultCallback.onFailure(
-                                new DispatchError("Service temporarily unavailable. Is the server still booting?", statusCode));
-                    }
                     else
                     {
-                        StringBuilder sb = new StringBuilder();
-                        sb.append("Unexpected HTTP response").append(": ").append(statusCode);
-                        sb.append("\n\n");
-                        sb.append("Request\n");
-                        sb.append(operation.toString());
-                        sb.append("\n\nResponse\n\n");
-                        sb.append(response.getStatusText()).append("\n");
-                        String payload = response.getText().equals("") ? "No details" :
-                                ModelNode.fromBase64(response.getText()).toString();
-                        sb.append(payload);
-                        resultCallback.onFailure(new DispatchError(sb.toString(), statusCode));
+                        resultCallback.onFailure(failure(statusCode, response.getStatusText(), response.getText(),
+                                response.getHeader(HEADER_CONTENT_TYPE), operation));
                     }
                     trace(Type.END, id, operation);
                 }
@@ -298,6 +503,152 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
     }
 
 
+    private static DispatchError failure(final int statusCode, final String statusText, final String text,
+            final String contentType, final ModelNode operation)
+    {
+        if (401 == statusCode || 0 == statusCode || 403 == statusCode)
+        {
+            return new DispatchError("Authentication required.", statusCode);
+        }
+        else if (503 == statusCode)
+        {
+            return new DispatchError("Service temporarily unavailable. Is the server still booting?", statusCode);
+        }
+        else
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Unexpected HTTP response").append(": ").append(statusCode);
+            sb.append("\n\n");
+            sb.append("Request\n");
+            sb.append(operation.toString());
+            sb.append("\n\nResponse\n\n");
+            sb.append(statusText).append("\n");
+            String payload = text == null || text.equals("") ? "No details" :
+                    DMRResponse.decode(text, contentType).toString();
+            sb.append(payload);
+            return new DispatchError(sb.toString(), statusCode);
+        }
+    }
+
+    /**
+     * Sends the operation using a {@link StreamingRequest} and decodes the response while it's received. Elements
+     * of a list result are passed to the partial result callback as soon as they're complete. Streaming requests
+     * are neither joined, batched nor cached.
+     */
+    private DispatchRequest executeStreaming(final AsyncCallback<DMRResponse> resultCallback,
+            final PartialResultCallback partialResultCallback, final ModelNode operation)
+    {
+        final String group = DispatchMetrics.group(operation);
+        final long sent = System.currentTimeMillis();
+        final StreamingDecoder decoder = new StreamingDecoder(StringTable.session());
+        final StreamingRequest[] request = new StreamingRequest[1];
+
+        request[0] = new StreamingRequest(new StreamingRequest.Handler()
+        {
+            @Override
+            public void onChunk(Uint8Array chunk)
+            {
+                List<ModelNode> elements;
+                try
+                {
+                    elements = decoder.append(chunk);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    request[0].cancel();
+                    resultCallback.onFailure(e);
+                    return;
+                }
+                if (partialResultCallback != null && !elements.isEmpty())
+                {
+                    try
+                    {
+                        partialResultCallback.onPartialResult(elements);
+                    }
+                    catch (Throwable e)
+                    {
+                        Log.error("Failed to process partial result of " + group, e);
+                    }
+                }
+            }
+
+            @Override
+            public void onComplete()
+            {
+                long received = System.currentTimeMillis();
+                metrics.record(group, DispatchMetrics.Metric.NETWORK, received - sent);
+                ModelNode payload;
+                try
+                {
+                    payload = decoder.finish();
+                }
+                catch (IllegalArgumentException e)
+                {
+                    resultCallback.onFailure(e);
+                    return;
+                }
+                // the size in base64 characters like the other responses
+                int size = (decoder.size() + 2) / 3 * 4;
+                deliver(resultCallback, DMRResponse.decoded("POST", payload, size), group, received);
+            }
+
+            @Override
+            public void onFailure(int statusCode, String statusText, String text, String contentType)
+            {
+                resultCallback.onFailure(failure(statusCode, statusText, text, contentType, operation));
+            }
+
+            @Override
+            public void onError(String message)
+            {
+                resultCallback.onFailure(new RequestException(message));
+            }
+        });
+        request[0].send(endpointConfig.getUrl(), operation.toBase64String(), getBearerToken());
+        return request[0];
+    }
+
+    private static boolean isWorkerDecode(final String text, final String contentType)
+    {
+        return text.length() >= WORKER_DECODE_THRESHOLD
+                && (contentType == null || !contentType.startsWith(APPLICATION_JSON))
+                && DecodeWorker.isSupported();
+    }
+
+    private void decodeInWorker(final AsyncCallback<DMRResponse> resultCallback, final String method,
+            final String text, final String contentType, final String group, final long received)
+    {
+        DecodeWorker.get().decode(text, new DecodeWorker.Callback()
+        {
+            @Override
+            public void onDecoded(ModelNode node)
+            {
+                deliver(resultCallback, DMRResponse.decoded(method, node, text.length()), group, received);
+            }
+
+            @Override
+            public void onFailure(String message)
+            {
+                Log.error("Failed to decode response in worker: " + message);
+                deliver(resultCallback, new DMRResponse(method, text, contentType), group, received);
+            }
+        });
+    }
+
+    private void deliver(final AsyncCallback<DMRResponse> resultCallback, final DMRResponse result,
+            final String group, final long received)
+    {
+        metrics.record(group, DispatchMetrics.Metric.SIZE, result.size());
+
+        // decode here to tell decoding and processing in the callback apart
+        result.decodeNow();
+        long decoded = System.currentTimeMillis();
+        metrics.record(group, DispatchMetrics.Metric.DECODE, decoded - received);
+
+        resultCallback.onSuccess(result);
+        metrics.record(group, DispatchMetrics.Metric.CALLBACK, System.currentTimeMillis() - decoded);
+    }
+
     final static String[] COLLECTION_OPS = {
             READ_CHILDREN_RESOURCES_OPERATION
     };
@@ -316,26 +667,29 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
     private RequestBuilder chooseRequestBuilder(final ModelNode operation)
     {
         RequestBuilder requestBuilder;
-        final String op = operation.get(OP).asString();
-        if (READ_RESOURCE_DESCRIPTION_OPERATION.equals(op))
+        if (isGetOperation(operation))
         {
             String endpoint = endpointConfig.getUrl();
             if (endpoint.endsWith("/"))
             {
                 endpoint = endpoint.substring(0, endpoint.length() - 1);
             }
-            String descriptionUrl = endpoint + descriptionOperationToUrl(operation);
-            requestBuilder = new RequestBuilder(RequestBuilder.GET,
-                    com.google.gwt.http.client.URL.encode(descriptionUrl));
-            requestBuilder.setHeader(HEADER_ACCEPT, DMR_ENCODED);
-            requestBuilder.setHeader(HEADER_CONTENT_TYPE, DMR_ENCODED);
+            String url = endpoint + operationToUrl(operation);
+            requestBuilder = new RequestBuilder(RequestBuilder.GET, url);
+            requestBuilder.setHeader(HEADER_ACCEPT, mediaType());
+            requestBuilder.setHeader(HEADER_CONTENT_TYPE, mediaType());
             requestBuilder.setIncludeCredentials(true);
             requestBuilder.setRequestData(null);
         }
         else
         {
+            // the transport can be changed at runtime: headers and body must use the same media type
+            String mediaType = mediaType();
             requestBuilder = postRequestBuilder();
-            requestBuilder.setRequestData(operation.toBase64String());
+            requestBuilder.setHeader(HEADER_ACCEPT, mediaType);
+            requestBuilder.setHeader(HEADER_CONTENT_TYPE, mediaType);
+            requestBuilder.setRequestData(APPLICATION_JSON.equals(mediaType) ?
+                    toJsonRequest(operation) : operation.toBase64String());
         }
 
         // obtain the bearer token and use it to set an Authorization "Bearer" header
@@ -347,26 +701,148 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
         return requestBuilder;
     }
 
-    private String descriptionOperationToUrl(final ModelNode operation)
+    /**
+     * Operations can be sent as GET request if the endpoint supports them, if they don't have operation headers
+     * (e.g. run as role), if all parameters are simple values and if the address doesn't contain slashes, which the
+     * endpoint doesn't accept in path segments.
+     */
+    private static boolean isGetOperation(final ModelNode operation)
+    {
+        if (!GET_OPERATIONS.containsKey(operation.get(OP).asString()) || operation.hasDefined(OPERATION_HEADERS))
+        {
+            return false;
+        }
+        if (operation.hasDefined(ADDRESS))
+        {
+            for (Property segment : operation.get(ADDRESS).asPropertyList())
+            {
+                if (segment.getValue().asString().indexOf('/') != -1)
+                {
+                    return false;
+                }
+            }
+        }
+        for (String key : operation.keys())
+        {
+            switch (operation.get(key).getType())
+            {
+                case LIST:
+                case OBJECT:
+                case PROPERTY:
+                    if (!ADDRESS.equals(key) && !OPERATION_HEADERS.equals(key))
+                    {
+                        return false;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    private static String operationToUrl(final ModelNode operation)
     {
         StringBuilder url = new StringBuilder();
-        final List<Property> address = operation.get(ADDRESS).asPropertyList();
-        for (Property property : address)
+        if (operation.hasDefined(ADDRESS))
         {
-            url.append("/").append(property.getName()).append("/").append(property.getValue().asString());
+            for (Property property : operation.get(ADDRESS).asPropertyList())
+            {
+                url.append("/").append(encodePathSegment(property.getName()))
+                        .append("/").append(encodePathSegment(property.getValue().asString()));
+            }
         }
 
-        url.append("?operation=").append("resource-description");
-        for (String parameter : READ_RESOURCE_DESCRIPTION_OPTIONAL_PARAMETERS)
+        url.append("?operation=").append(GET_OPERATIONS.get(operation.get(OP).asString()));
+        for (String parameter : operation.keys())
         {
-            if (operation.has(parameter))
+            if (!OP.equals(parameter) && !ADDRESS.equals(parameter) && !OPERATION_HEADERS.equals(parameter)
+                    && operation.hasDefined(parameter))
             {
-                url.append("&").append(parameter).append("=").append(operation.get(parameter).asString());
+                url.append("&").append(encodeQueryString(parameter))
+                        .append("=").append(encodeQueryString(operation.get(parameter).asString()));
             }
         }
         return url.toString();
     }
 
+    private static String encodePathSegment(String segment)
+    {
+        return com.google.gwt.http.client.URL.encodePathSegment(segment);
+    }
+
+    private static String encodeQueryString(String value)
+    {
+        return com.google.gwt.http.client.URL.encodeQueryString(value);
+    }
+
+    /**
+     * Returns a callback which stores the entity tag and the decoded payload of a GET response before the result
+     * is passed on.
+     */
+    private AsyncCallback<DMRResponse> rememberValidator(final String url, final String etag,
+            final AsyncCallback<DMRResponse> resultCallback)
+    {
+        if (etag == null || etag.length() == 0)
+        {
+            validators.remove(url);
+            return resultCallback;
+        }
+        return new AsyncCallback<DMRResponse>()
+        {
+            @Override
+            public void onFailure(Throwable caught)
+            {
+                resultCallback.onFailure(caught);
+            }
+
+            @Override
+            public void onSuccess(DMRResponse result)
+            {
+                validators.put(url, etag, result.getShared(), result.size());
+                resultCallback.onSuccess(result);
+            }
+        };
+    }
+
+    /**
+     * The management endpoint expects addresses as a list of objects rather than properties
+     * (<code>[{"subsystem" : "logging"}]</code>), so properties are converted before the operation is serialized.
+     */
+    private static String toJsonRequest(final ModelNode operation)
+    {
+        ModelNode request = operation.clone();
+        propertiesToObjects(request);
+        return request.toJSONString(true);
+    }
+
+    private static void propertiesToObjects(final ModelNode node)
+    {
+        switch (node.getType())
+        {
+            case PROPERTY:
+                Property property = node.asProperty();
+                node.setEmptyObject();
+                node.get(property.getName()).set(property.getValue());
+                propertiesToObjects(node.get(property.getName()));
+                break;
+            case OBJECT:
+                for (String key : node.keys())
+                {
+                    propertiesToObjects(node.get(key));
+                }
+                break;
+            case LIST:
+                for (ModelNode element : node.asList())
+                {
+                    propertiesToObjects(element);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
     private void trace(Type type, String id, ModelNode operation)
     {
         if(!trackInvocations) return;
@@ -402,6 +878,174 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
     }
 
 
+    class PendingRead implements AsyncCallback<DMRResponse>
+    {
+        private final String key;
+        private final ModelNode cacheOperation;
+        private final long ttl;
+        private final long generation;
+        private final List<AsyncCallback<DMRResponse>> callbacks = new ArrayList<AsyncCallback<DMRResponse>>();
+        private Request request;
+        private boolean batched;
+
+        /**
+         * @param cacheOperation the operation used to cache the response or {@code null} if the response must not be
+         *                       cached
+         * @param ttl            the time to live of the cached response
+         * @param generation     the generation of the response cache when the request was sent
+         */
+        PendingRead(String key, ModelNode cacheOperation, long ttl, long generation)
+        {
+            this.key = key;
+            this.cacheOperation = cacheOperation;
+            this.ttl = ttl;
+            this.generation = generation;
+        }
+
+        /**
+         * A request which is not pending anymore without having called back (e.g. a redirect) must not be joined.
+         */
+        boolean isStale()
+        {
+            return request != null && !request.isPending();
+        }
+
+        @Override
+        public void onSuccess(DMRResponse result)
+        {
+            if (cacheOperation != null)
+            {
+                responseCache.put(key, cacheOperation, ttl, result, generation);
+            }
+            for (AsyncCallback<DMRResponse> callback : complete())
+            {
+                try
+                {
+                    callback.onSuccess(result);
+                }
+                catch (Throwable e)
+                {
+                    Log.error("Failed to process response of " + key, e);
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable caught)
+        {
+            for (AsyncCallback<DMRResponse> callback : complete())
+            {
+                try
+                {
+                    callback.onFailure(caught);
+                }
+                catch (Throwable e)
+                {
+                    Log.error("Failed to process failure of " + key, e);
+                }
+            }
+        }
+
+        private List<AsyncCallback<DMRResponse>> complete()
+        {
+            // callbacks which dispatch the same operation again must not join this request
+            if (pendingReads.get(key) == this)
+            {
+                pendingReads.remove(key);
+            }
+            List<AsyncCallback<DMRResponse>> waiting = new ArrayList<AsyncCallback<DMRResponse>>(callbacks);
+            callbacks.clear();
+            return waiting;
+        }
+    }
+
+
+    class PendingReadHandle implements DispatchRequest
+    {
+        private final PendingRead pending;
+        private final AsyncCallback<DMRResponse> callback;
+
+        PendingReadHandle(PendingRead pending, AsyncCallback<DMRResponse> callback)
+        {
+            this.pending = pending;
+            this.callback = callback;
+        }
+
+        /**
+         * Detaches this caller. The underlying request is cancelled when no other caller is waiting for it.
+         */
+        @Override
+        public void cancel()
+        {
+            if (pending.callbacks.remove(callback) && pending.callbacks.isEmpty())
+            {
+                if (pendingReads.get(pending.key) == pending)
+                {
+                    pendingReads.remove(pending.key);
+                }
+                if (pending.batched)
+                {
+                    // a sent batch is shared with other operations and is not cancelled
+                    for (ReadBatch batch : batches.values())
+                    {
+                        batch.remove(pending);
+                    }
+                }
+                else if (pending.request != null)
+                {
+                    pending.request.cancel();
+                }
+            }
+        }
+
+        @Override
+        public boolean isPending()
+        {
+            return pending.callbacks.contains(callback) && !pending.isStale();
+        }
+    }
+
+
+    /**
+     * Delivers a cached response asynchronously like a response received from the server.
+     */
+    class CachedResponseHandle implements DispatchRequest, Scheduler.ScheduledCommand
+    {
+        private final AsyncCallback<DMRResponse> callback;
+        private final DMRResponse response;
+        private boolean pending = true;
+
+        CachedResponseHandle(AsyncCallback<DMRResponse> callback, DMRResponse response)
+        {
+            this.callback = callback;
+            this.response = response;
+            Scheduler.get().scheduleDeferred(this);
+        }
+
+        @Override
+        public void execute()
+        {
+            if (pending)
+            {
+                pending = false;
+                callback.onSuccess(response);
+            }
+        }
+
+        @Override
+        public void cancel()
+        {
+            pending = false;
+        }
+
+        @Override
+        public boolean isPending()
+        {
+            return pending;
+        }
+    }
+
+
     class DispatchRequestHandle implements DispatchRequest
     {
         private Request delegate;
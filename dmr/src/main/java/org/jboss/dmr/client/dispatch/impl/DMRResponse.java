@@ -22,6 +22,8 @@ package org.jboss.dmr.client.dispatch.impl;
 
 import org.jboss.as.console.client.shared.state.ResponseProcessorDelegate;
 import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelNodeDecoder;
+import org.jboss.dmr.client.StringTable;
 import org.jboss.dmr.client.dispatch.Result;
 
 import static org.jboss.dmr.client.ModelDescriptionConstants.*;
@@ -36,10 +38,22 @@ public class DMRResponse implements Result<ModelNode> {
     private static final String FILTERED_ATTRIBUTES = "filtered-attributes";
     private static final String ABSOLUTE_ADDRESS = "absolute-address";
     private static final String RELATIVE_ADDRESS = "relative-address";
+    private static final String APPLICATION_JSON = "application/json";
+
+    /**
+     * Responses bigger than this (number of base64 characters) are decoded lazily.
+     */
+    private static final int LAZY_DECODE_THRESHOLD = 512 * 1024;
 
     private String method;
     private String responseText;
     private String contentType;
+    private ModelNode payload;
+    private ModelNode decoded;
+    private ModelNode pending;
+    private boolean processed;
+    private boolean handedOut;
+    private int size;
 
     private ResponseProcessorDelegate processor;
 
@@ -47,16 +61,110 @@ public class DMRResponse implements Result<ModelNode> {
         this.method = method;
         this.responseText = responseText;
         this.contentType = contentType;
+        this.size = responseText != null ? responseText.length() : 0;
+
+        this.processor = new ResponseProcessorDelegate();
+    }
+
+    /**
+     * Creates a response for an already decoded payload, e.g. a step of a composite response.
+     *
+     * @param size the (estimated) size of the payload's response text
+     */
+    DMRResponse(ModelNode payload, int size) {
+        this.method = "POST";
+        this.size = size;
+        this.payload = payload;
+        this.payload.protect();
 
         this.processor = new ResponseProcessorDelegate();
     }
 
+    /**
+     * Creates a response for a payload which was decoded, but not yet processed, e.g. by the {@link
+     * org.jboss.dmr.client.DecodeWorker}.
+     */
+    static DMRResponse decoded(String method, ModelNode decoded, int size) {
+        DMRResponse response = new DMRResponse(method, null, null);
+        response.decoded = decoded;
+        response.size = size;
+        return response;
+    }
+
+    /**
+     * Returns the decoded payload, which can be modified by the caller. As long as the payload was not {@linkplain
+     * #getShared() shared}, the first caller gets the decoded payload itself. Later callers get a copy of the shared
+     * payload, which is decoded from the response text at most once more.
+     */
     @Override
     public ModelNode get() {
+        if (payload == null && responseText != null && !handedOut) {
+            ModelNode node = pending != null ? pending : process(decode());
+            // hand out the payload itself, the text is kept to decode the shared payload
+            handedOut = true;
+            pending = null;
+            return node;
+        }
+        return payload().clone();
+    }
+
+    /**
+     * Returns the decoded payload which is shared by all callers of this method. The payload is {@linkplain
+     * ModelNode#protect() protected}, so check for existing children using {@link ModelNode#hasDefined(String)} and
+     * use {@link #get()} if you need to modify the payload.
+     */
+    public ModelNode getShared() {
+        return payload();
+    }
+
+    /**
+     * The length of the response text as received from the server.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes and processes the payload, but doesn't share it yet, so that the first call of {@link #get()} doesn't
+     * need to copy it.
+     */
+    void decodeNow() {
+        if (payload == null && pending == null) {
+            if (responseText != null) {
+                pending = process(decode());
+            } else {
+                payload();
+            }
+        }
+    }
+
+    private ModelNode payload() {
+        if (payload == null) {
+            ModelNode node = pending != null ? pending : process(decode());
+            node.protect();
+            payload = node;
+            // not needed anymore
+            responseText = null;
+            decoded = null;
+            pending = null;
+        }
+        return payload;
+    }
+
+    private ModelNode process(ModelNode response) {
+        // the response processors must see each response only once
+        if (!processed) {
+            processed = true;
+            processor.process(response);
+        }
+        return response;
+    }
+
+    private ModelNode decode() {
 
         ModelNode response = null;
         try {
-            response = ModelNode.fromBase64(responseText);
+            response = responseText != null ? decode(responseText, contentType) : decoded;
 
             /*if(response.hasDefined("response-headers"))
             {
@@ -112,12 +220,25 @@ public class DMRResponse implements Result<ModelNode> {
                             e.getClass().getName() +": "+e.getMessage());
             response = err;
         }
-
-        processor.process(response);
-
         return response;
     }
 
+    /**
+     * Decodes the response text according to its content type. JSON responses are parsed natively and converted
+     * into model nodes on access, everything else is treated as {@code application/dmr-encoded}.
+     */
+    static ModelNode decode(String responseText, String contentType) {
+        if (contentType != null && contentType.startsWith(APPLICATION_JSON)) {
+            return ModelNode.fromJSONString(responseText);
+        }
+        if (ModelNodeDecoder.isSupported()) {
+            // share keys and enum-like values across responses
+            return ModelNodeDecoder.decode(responseText, responseText.length() > LAZY_DECODE_THRESHOLD,
+                    StringTable.session());
+        }
+        return ModelNode.fromBase64(responseText);
+    }
+
     /*private void inlineAccessControlMetaData(List<ModelNode> accessHeader, ModelNode payload) {
 
         if(accessHeader.isEmpty())
@@ -19,13 +19,18 @@
 
 package org.jboss.dmr.client.dispatch.impl;
 
+import com.google.gwt.core.client.GWT;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.inject.Inject;
 import org.jboss.dmr.client.dispatch.Action;
 import org.jboss.dmr.client.dispatch.ActionHandler;
+import org.jboss.dmr.client.dispatch.CancellationAware;
+import org.jboss.dmr.client.dispatch.CancelledException;
 import org.jboss.dmr.client.dispatch.DispatchAsync;
+import org.jboss.dmr.client.dispatch.DispatchMetrics;
 import org.jboss.dmr.client.dispatch.DispatchRequest;
 import org.jboss.dmr.client.dispatch.HandlerMapping;
+import org.jboss.dmr.client.dispatch.Priority;
 import org.jboss.dmr.client.dispatch.Result;
 
 import java.util.Collections;
@@ -40,6 +45,7 @@ public class DispatchAsyncImpl implements DispatchAsync {
 
     private static HandlerMapping registry;
     private static Map<String, String> properties = new HashMap<String,String>();
+    private final DispatchQueue queue = new DispatchQueue(GWT.<DMREndpointConfig>create(DMREndpointConfig.class));
 
     @Inject
     public DispatchAsyncImpl(HandlerMapping registry) {
@@ -47,14 +53,68 @@ public class DispatchAsyncImpl implements DispatchAsync {
     }
 
     @Override
-    public <A extends Action<R>, R extends Result> DispatchRequest execute(A action, AsyncCallback<R> callback) {
+    public <A extends Action<R>, R extends Result> DispatchRequest execute(final A action, final AsyncCallback<R> callback) {
 
-        ActionHandler<A,R> handler = registry.resolve(action);
+        final ActionHandler<A,R> handler = registry.resolve(action);
 
         if(null==handler)
             callback.onFailure(new IllegalStateException("No handler for type "+action.getType()));
 
-        return handler.execute(action, callback, Collections.unmodifiableMap(properties));
+        // the properties at dispatch time apply, even if the request is queued
+        final Map<String, String> snapshot = Collections.unmodifiableMap(new HashMap<String, String>(properties));
+        Priority priority = Priority.INTERACTIVE;
+        boolean readOnly = false;
+        boolean global = false;
+        boolean yielding = false;
+        if (action instanceof DMRAction) {
+            priority = ((DMRAction) action).getPriority();
+            readOnly = ((DMRAction) action).isReadOnly();
+            global = ((DMRAction) action).isGlobal();
+            yielding = ((DMRAction) action).isYielding();
+        }
+
+        return queue.submit(queue.new Queued(priority, readOnly, global, yielding) {
+            @Override
+            DispatchRequest start() {
+                final DispatchQueue.Queued queued = this;
+                if (action instanceof DMRAction) {
+                    DispatchMetrics.INSTANCE.record(DispatchMetrics.group(((DMRAction) action).getOperation()),
+                            DispatchMetrics.Metric.QUEUE, age());
+                }
+                return handler.execute(action, new AsyncCallback<R>() {
+                    @Override
+                    public void onFailure(Throwable caught) {
+                        if (queued.complete()) {
+                            callback.onFailure(caught);
+                        }
+                    }
+
+                    @Override
+                    public void onSuccess(R result) {
+                        if (queued.complete()) {
+                            callback.onSuccess(result);
+                        }
+                    }
+                }, snapshot);
+            }
+
+            @Override
+            void cancelled() {
+                if (callback instanceof CancellationAware) {
+                    callback.onFailure(new CancelledException());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void setPlace(String nameToken) {
+        queue.setPlace(nameToken);
+    }
+
+    @Override
+    public void cancelStaleRequests(String nameToken) {
+        queue.cancelStaleRequests(nameToken);
     }
 
     @Override
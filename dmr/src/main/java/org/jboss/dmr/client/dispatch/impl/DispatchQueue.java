@@ -0,0 +1,252 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.jboss.dmr.client.dispatch.DispatchRequest;
+import org.jboss.dmr.client.dispatch.Priority;
+
+/**
+ * Limits the number of concurrent requests. Requests beyond the limit are queued per {@link Priority} and started as
+ * soon as running requests complete.
+ * <p>
+ * Each request is tagged with the name token of the place it was dispatched for. {@link #cancelStaleRequests(String)}
+ * cancels the read-only requests of other places, so the requests of a new place are kept, while the requests of the
+ * previous place are dropped. Background and global requests are never cancelled.
+ * <p>
+ * Yielding requests are cancelled as soon as a request which is not {@link Priority#BACKGROUND} is submitted.
+ */
+class DispatchQueue {
+
+    private final DMREndpointConfig endpointConfig;
+    private final List<LinkedList<Queued>> queues;
+    private final List<Queued> running;
+    private String place;
+
+    DispatchQueue(DMREndpointConfig endpointConfig) {
+        this.endpointConfig = endpointConfig;
+        this.queues = new ArrayList<LinkedList<Queued>>();
+        for (int i = 0; i < Priority.values().length; i++) {
+            queues.add(new LinkedList<Queued>());
+        }
+        this.running = new ArrayList<Queued>();
+    }
+
+    /**
+     * Starts or queues the request.
+     */
+    DispatchRequest submit(Queued request) {
+        if (request.priority != Priority.BACKGROUND) {
+            cancelYielding();
+        }
+        request.place = place;
+        request.submitted = System.currentTimeMillis();
+        queues.get(request.priority.ordinal()).add(request);
+        drain();
+        return request;
+    }
+
+    /**
+     * Sets the name token of the place, which is used to tag the requests submitted from now on.
+     */
+    void setPlace(String place) {
+        this.place = place;
+    }
+
+    /**
+     * Cancels queued and running read-only requests which were submitted for another place than {@code current}.
+     * Background and global requests and requests which modify the model are never cancelled.
+     */
+    void cancelStaleRequests(String current) {
+        List<Queued> stale = new ArrayList<Queued>();
+        for (List<Queued> queue : queues) {
+            collectStale(queue, current, stale);
+        }
+        collectStale(running, current, stale);
+        for (Queued request : stale) {
+            request.cancel();
+        }
+    }
+
+    private void cancelYielding() {
+        List<Queued> yielding = new ArrayList<Queued>();
+        for (List<Queued> queue : queues) {
+            collectYielding(queue, yielding);
+        }
+        collectYielding(running, yielding);
+        for (Queued request : yielding) {
+            request.cancel();
+        }
+    }
+
+    int queued() {
+        int queued = 0;
+        for (List<Queued> queue : queues) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+
+    int running() {
+        return running.size();
+    }
+
+    private void collectStale(List<Queued> requests, String current, List<Queued> stale) {
+        for (Queued request : requests) {
+            if (request.isStale(current)) {
+                stale.add(request);
+            }
+        }
+    }
+
+    private void collectYielding(List<Queued> requests, List<Queued> yielding) {
+        for (Queued request : requests) {
+            if (request.yielding) {
+                yielding.add(request);
+            }
+        }
+    }
+
+    private void drain() {
+        int max = endpointConfig.getMaxRequests();
+        while (true) {
+            Queued next = null;
+            for (LinkedList<Queued> queue : queues) {
+                if (!queue.isEmpty()) {
+                    next = queue.getFirst();
+                    break;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            if (max > 0) {
+                // keep the last slot for interactive and navigation requests
+                int limit = next.priority == Priority.BACKGROUND && max > 1 ? max - 1 : max;
+                if (running.size() >= limit) {
+                    break;
+                }
+            }
+            queues.get(next.priority.ordinal()).removeFirst();
+            next.state = State.RUNNING;
+            running.add(next);
+            DispatchRequest delegate = next.start();
+            if (next.state == State.RUNNING) {
+                next.delegate = delegate;
+            } else if (next.state == State.CANCELLED && delegate != null) {
+                delegate.cancel();
+            }
+        }
+    }
+
+    private void finished(Queued request) {
+        running.remove(request);
+        drain();
+    }
+
+
+    enum State {QUEUED, RUNNING, DONE, CANCELLED}
+
+
+    /**
+     * A request managed by the queue. Implementations start the actual request and have to call {@link #complete()}
+     * before they hand out the result. If the request is cancelled, {@link #cancelled()} has to finish the callback.
+     */
+    abstract class Queued implements DispatchRequest {
+
+        private final Priority priority;
+        private final boolean readOnly;
+        private final boolean global;
+        private final boolean yielding;
+        private State state;
+        private String place;
+        private long submitted;
+        private DispatchRequest delegate;
+
+        Queued(Priority priority, boolean readOnly, boolean global, boolean yielding) {
+            this.priority = priority;
+            this.readOnly = readOnly;
+            this.global = global;
+            this.yielding = yielding;
+            this.state = State.QUEUED;
+        }
+
+        abstract DispatchRequest start();
+
+        /**
+         * Called once the request was cancelled.
+         */
+        abstract void cancelled();
+
+        /**
+         * Requests submitted before the first place was set (e.g. during bootstrap) are global.
+         */
+        boolean isStale(String current) {
+            return readOnly && !global && priority != Priority.BACKGROUND && place != null && !place.equals(current);
+        }
+
+        /**
+         * The time in milliseconds since the request was submitted.
+         */
+        long age() {
+            return System.currentTimeMillis() - submitted;
+        }
+
+        /**
+         * Marks the request as completed and starts the next one.
+         *
+         * @return {@code false} if the request was cancelled and the result must be dropped
+         */
+        boolean complete() {
+            if (state == State.CANCELLED) {
+                return false;
+            }
+            if (state == State.RUNNING) {
+                state = State.DONE;
+                finished(this);
+            }
+            return true;
+        }
+
+        @Override
+        public void cancel() {
+            if (state == State.QUEUED) {
+                state = State.CANCELLED;
+                queues.get(priority.ordinal()).remove(this);
+                cancelled();
+            } else if (state == State.RUNNING) {
+                state = State.CANCELLED;
+                if (delegate != null) {
+                    delegate.cancel();
+                }
+                finished(this);
+                cancelled();
+            }
+        }
+
+        @Override
+        public boolean isPending() {
+            return state == State.QUEUED || state == State.RUNNING;
+        }
+    }
+}
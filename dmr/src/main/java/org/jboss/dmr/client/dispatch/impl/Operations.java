@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelType;
+import org.jboss.dmr.client.Property;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Classification and canonical keys of management operations as used by the dispatcher to share responses.
+ */
+public final class Operations {
+
+    private static final String READ_PREFIX = "read-";
+
+    private Operations() {}
+
+    /**
+     * An operation is read-only if its name starts with {@code read-}, if it's {@code whoami} or if it's a
+     * composite operation with read-only steps only.
+     */
+    public static boolean isReadOnly(ModelNode operation) {
+        final String name = operation.get(OP).asString();
+        if (COMPOSITE.equals(name)) {
+            if (!operation.hasDefined(STEPS)) {
+                return false;
+            }
+            for (ModelNode step : operation.get(STEPS).asList()) {
+                if (!isReadOnly(step)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return name.startsWith(READ_PREFIX) || WHOAMI.equals(name);
+    }
+
+    /**
+     * Returns a key which is equal for operations with the same name, address, parameters and headers regardless
+     * of the order of the parameters.
+     */
+    public static String canonicalKey(ModelNode operation) {
+        final StringBuilder builder = new StringBuilder();
+        canonical(operation, builder);
+        return builder.toString();
+    }
+
+    private static void canonical(ModelNode node, StringBuilder builder) {
+        final ModelType type = node.getType();
+        switch (type) {
+            case OBJECT:
+                final List<String> keys = new ArrayList<String>(node.keys());
+                Collections.sort(keys);
+                builder.append('{');
+                for (String key : keys) {
+                    append(key, builder).append("=>");
+                    canonical(node.get(key), builder);
+                    builder.append(',');
+                }
+                builder.append('}');
+                break;
+            case LIST:
+                builder.append('[');
+                for (ModelNode element : node.asList()) {
+                    canonical(element, builder);
+                    builder.append(',');
+                }
+                builder.append(']');
+                break;
+            case PROPERTY:
+                final Property property = node.asProperty();
+                builder.append('(');
+                append(property.getName(), builder).append("=>");
+                canonical(property.getValue(), builder);
+                builder.append(')');
+                break;
+            case UNDEFINED:
+                builder.append("undefined");
+                break;
+            default:
+                // the type distinguishes e.g. "1" from 1
+                builder.append(type.name()).append(':');
+                append(node.asString(), builder);
+                break;
+        }
+    }
+
+    /**
+     * Appends the string with a length prefix, so that keys and values containing separators can't make two
+     * different operations look the same.
+     */
+    private static StringBuilder append(String value, StringBuilder builder) {
+        return builder.append(value.length()).append('#').append(value);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import java.util.List;
+
+import org.jboss.dmr.client.ModelNode;
+
+/**
+ * Receives the elements of a list result while the response is still being received. Register the callback using
+ * {@link DMRAction#setPartialResultCallback(PartialResultCallback)}.
+ * <p>
+ * The regular callback is called once the whole response was received. If the browser doesn't support streaming,
+ * this callback is not called at all.
+ */
+public interface PartialResultCallback {
+
+    /**
+     * @param elements the elements decoded since the last call, in order. They're part of the final result and must
+     *                 not be modified.
+     */
+    void onPartialResult(List<ModelNode> elements);
+}
@@ -0,0 +1,126 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.dmr.client.ModelNode;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Read-only operations which are sent as one composite operation. The results of the steps are handed out to the
+ * callbacks of the individual operations. Since a failed step fails the whole composite, the operations of all
+ * unsuccessful steps are {@linkplain #resend(ModelNode, AsyncCallback) resent} on their own, so that a failure in
+ * one step doesn't affect the others. The server answers such a composite with HTTP 500, whose body is passed to
+ * {@link #onSuccess(DMRResponse)} as well. {@link #onFailure(Throwable)} is meant for errors which affect all
+ * operations, like a lost connection.
+ */
+abstract class ReadBatch implements AsyncCallback<DMRResponse> {
+
+    private final ModelNode headers;
+    private final List<ModelNode> operations;
+    private final List<AsyncCallback<DMRResponse>> callbacks;
+
+    /**
+     * @param headers the operation headers shared by all operations of this batch, might be undefined
+     */
+    ReadBatch(ModelNode headers) {
+        this.headers = headers;
+        this.operations = new ArrayList<ModelNode>();
+        this.callbacks = new ArrayList<AsyncCallback<DMRResponse>>();
+    }
+
+    /**
+     * Sends the operation of an unsuccessful step on its own.
+     */
+    abstract void resend(ModelNode operation, AsyncCallback<DMRResponse> callback);
+
+    void add(ModelNode operation, AsyncCallback<DMRResponse> callback) {
+        operations.add(operation);
+        callbacks.add(callback);
+    }
+
+    boolean remove(AsyncCallback<DMRResponse> callback) {
+        int index = callbacks.indexOf(callback);
+        if (index != -1) {
+            operations.remove(index);
+            callbacks.remove(index);
+            return true;
+        }
+        return false;
+    }
+
+    int size() {
+        return operations.size();
+    }
+
+    ModelNode operation(int index) {
+        return operations.get(index);
+    }
+
+    AsyncCallback<DMRResponse> callback(int index) {
+        return callbacks.get(index);
+    }
+
+    ModelNode composite() {
+        ModelNode composite = new ModelNode();
+        composite.get(OP).set(COMPOSITE);
+        composite.get(ADDRESS).setEmptyList();
+        ModelNode steps = composite.get(STEPS);
+        for (ModelNode operation : operations) {
+            ModelNode step = operation.clone();
+            if (step.has(OPERATION_HEADERS)) {
+                step.remove(OPERATION_HEADERS);
+            }
+            steps.add(step);
+        }
+        if (headers.isDefined()) {
+            composite.get(OPERATION_HEADERS).set(headers);
+        }
+        return composite;
+    }
+
+    @Override
+    public void onSuccess(DMRResponse response) {
+        ModelNode payload = response.getShared();
+        ModelNode result = payload.hasDefined(RESULT) ? payload.get(RESULT) : null;
+        int stepSize = response.size() / operations.size();
+
+        for (int i = 0; i < operations.size(); i++) {
+            String step = "step-" + (i + 1);
+            if (result != null && result.hasDefined(step)
+                    && SUCCESS.equals(result.get(step).get(OUTCOME).asString())) {
+                callbacks.get(i).onSuccess(new DMRResponse(result.get(step), stepSize));
+            } else {
+                resend(operations.get(i), callbacks.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void onFailure(Throwable caught) {
+        for (AsyncCallback<DMRResponse> callback : callbacks) {
+            callback.onFailure(caught);
+        }
+    }
+}
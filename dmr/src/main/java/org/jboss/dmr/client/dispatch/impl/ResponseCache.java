@@ -0,0 +1,233 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.Property;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Client side cache of successful read-only responses. The cache is bounded by the number of entries and the size
+ * of the response texts and evicts the least recently used entries first. Each entry expires according to the
+ * {@linkplain #ttl(ModelNode, boolean) time to live} of its operation and is invalidated as soon as a write operation
+ * touches the address of the read operation, one of its parents or one of its children.
+ * <p>
+ * Descriptions and {@code whoami} are cached by default. Configuration reads are only cached if the action {@linkplain
+ * DMRAction#setCacheConfiguration(boolean) opts in}, since other clients (e.g. the CLI) can change the configuration
+ * at any time.
+ */
+class ResponseCache {
+
+    static final int MAX_ENTRIES = 256;
+    static final int MAX_SIZE = 4 * 1024 * 1024;
+
+    private static final long DESCRIPTION_TTL = 5 * 60 * 1000;
+    private static final long WHOAMI_TTL = 60 * 1000;
+    private static final long CONFIGURATION_TTL = 10 * 1000;
+
+    private final int maxEntries;
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> entries;
+    private int size;
+    private long generation;
+
+    ResponseCache(int maxEntries, int maxSize) {
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns how long the response of the specified operation may be cached in milliseconds. Runtime values and
+     * single attributes (which are often metrics) are not cached at all, composite operations use the smallest time
+     * to live of their steps.
+     *
+     * @param configuration whether configuration reads may be cached
+     */
+    static long ttl(ModelNode operation, boolean configuration) {
+        final String name = operation.get(OP).asString();
+        if (COMPOSITE.equals(name)) {
+            if (!operation.hasDefined(STEPS)) {
+                return 0;
+            }
+            long ttl = Long.MAX_VALUE;
+            for (ModelNode step : operation.get(STEPS).asList()) {
+                ttl = Math.min(ttl, ttl(step, configuration));
+            }
+            return ttl == Long.MAX_VALUE ? 0 : ttl;
+        }
+        if (operation.hasDefined(INCLUDE_RUNTIME) && operation.get(INCLUDE_RUNTIME).asBoolean()) {
+            return 0;
+        }
+        if (READ_RESOURCE_DESCRIPTION_OPERATION.equals(name)
+                || READ_OPERATION_DESCRIPTION_OPERATION.equals(name)
+                || READ_OPERATION_NAMES_OPERATION.equals(name)) {
+            return DESCRIPTION_TTL;
+        }
+        if (WHOAMI.equals(name)) {
+            return WHOAMI_TTL;
+        }
+        if (configuration && (READ_RESOURCE_OPERATION.equals(name)
+                || READ_CHILDREN_NAMES_OPERATION.equals(name)
+                || READ_CHILDREN_TYPES_OPERATION.equals(name)
+                || READ_CHILDREN_RESOURCES_OPERATION.equals(name))) {
+            return CONFIGURATION_TTL;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the cached response or {@code null} if there's none or if it has expired.
+     */
+    DMRResponse get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expires < System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return entry.response;
+    }
+
+    /**
+     * The current generation which has to be passed to {@link #put(String, ModelNode, long, DMRResponse, long)}. Read
+     * before sending the operation.
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Caches a successful response. The response is ignored if a write operation was seen since {@code generation}
+     * was obtained, since it might reflect the state before the write.
+     *
+     * @param ttl the time to live as returned by {@link #ttl(ModelNode, boolean)}
+     */
+    void put(String key, ModelNode operation, long ttl, DMRResponse response, long generation) {
+        int responseSize = response.size();
+        if (ttl <= 0 || generation != this.generation || responseSize > maxSize
+                || !SUCCESS.equals(response.getShared().get(OUTCOME).asString())) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(response, responseSize, System.currentTimeMillis() + ttl, addresses(operation)));
+        size += responseSize;
+
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || size > maxSize) && iterator.hasNext()) {
+            size -= iterator.next().getValue().size;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all entries which read the address of the write operation, one of its parents or one of its children.
+     * For composite operations all steps are considered.
+     */
+    void invalidate(ModelNode writeOperation) {
+        generation++;
+        List<List<String>> written = addresses(writeOperation);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (overlaps(entry.addresses, written)) {
+                size -= entry.size;
+                iterator.remove();
+            }
+        }
+    }
+
+    void clear() {
+        generation++;
+        entries.clear();
+        size = 0;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.size;
+        }
+    }
+
+    private static List<List<String>> addresses(ModelNode operation) {
+        if (COMPOSITE.equals(operation.get(OP).asString())) {
+            List<List<String>> addresses = new ArrayList<List<String>>();
+            if (operation.hasDefined(STEPS)) {
+                for (ModelNode step : operation.get(STEPS).asList()) {
+                    addresses.addAll(addresses(step));
+                }
+            }
+            return addresses;
+        }
+        List<String> segments = new ArrayList<String>();
+        if (operation.hasDefined(ADDRESS)) {
+            for (Property segment : operation.get(ADDRESS).asPropertyList()) {
+                segments.add(segment.getName() + "=" + segment.getValue().asString());
+            }
+        }
+        return Collections.singletonList(segments);
+    }
+
+    private static boolean overlaps(List<List<String>> read, List<List<String>> written) {
+        for (List<String> r : read) {
+            for (List<String> w : written) {
+                if (startsWith(r, w) || startsWith(w, r)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(List<String> address, List<String> prefix) {
+        return address.size() >= prefix.size() && address.subList(0, prefix.size()).equals(prefix);
+    }
+
+
+    private static class Entry {
+
+        final DMRResponse response;
+        final int size;
+        final long expires;
+        final List<List<String>> addresses;
+
+        Entry(DMRResponse response, int size, long expires, List<List<String>> addresses) {
+            this.response = response;
+            this.size = size;
+            this.expires = expires;
+            this.addresses = addresses;
+        }
+    }
+}
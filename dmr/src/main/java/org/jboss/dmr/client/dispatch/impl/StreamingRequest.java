@@ -0,0 +1,203 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.typedarrays.shared.Uint8Array;
+import org.jboss.dmr.client.dispatch.DispatchRequest;
+
+/**
+ * Posts a DMR encoded operation using {@code fetch()} and hands the decoded bytes of the response to a {@link
+ * Handler} chunk by chunk as they're received. In contrast to {@link com.google.gwt.http.client.RequestBuilder} the
+ * response is never held as one big string.
+ * <p>
+ * The base64 text is decoded incrementally. Characters which don't make up a complete quantum are kept until the
+ * next chunk arrives.
+ */
+final class StreamingRequest implements DispatchRequest {
+
+    interface Handler {
+
+        void onChunk(Uint8Array chunk);
+
+        void onComplete();
+
+        /**
+         * The server answered with a status other than 200.
+         */
+        void onFailure(int statusCode, String statusText, String text, String contentType);
+
+        /**
+         * The request failed on the network level or the response could not be processed.
+         */
+        void onError(String message);
+    }
+
+
+    private static final String DMR_ENCODED = "application/dmr-encoded";
+
+    private final Handler handler;
+    private JavaScriptObject controller;
+    private boolean pending;
+
+    StreamingRequest(Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Streaming requests are used in script mode only and if the browser supports fetch, readable streams,
+     * aborting requests and typed arrays.
+     */
+    static boolean isSupported() {
+        return GWT.isScript() && hasStreamingSupport();
+    }
+
+    void send(String url, String body, String bearerToken) {
+        pending = true;
+        controller = fetch(url, body, DMR_ENCODED, bearerToken);
+    }
+
+    @Override
+    public void cancel() {
+        if (pending) {
+            pending = false;
+            abort(controller);
+        }
+    }
+
+    @Override
+    public boolean isPending() {
+        return pending;
+    }
+
+    private void chunk(Uint8Array chunk) {
+        if (pending) {
+            handler.onChunk(chunk);
+        }
+    }
+
+    private void complete() {
+        if (pending) {
+            pending = false;
+            handler.onComplete();
+        }
+    }
+
+    private void failure(int statusCode, String statusText, String text, String contentType) {
+        if (pending) {
+            pending = false;
+            handler.onFailure(statusCode, statusText, text, contentType);
+        }
+    }
+
+    private void error(String message) {
+        if (pending) {
+            pending = false;
+            abort(controller);
+            handler.onError(message);
+        }
+    }
+
+    private static native boolean hasStreamingSupport() /*-{
+        return typeof $wnd.fetch === 'function'
+            && typeof $wnd.ReadableStream === 'function'
+            && typeof $wnd.AbortController === 'function'
+            && typeof $wnd.TextDecoder === 'function'
+            && typeof $wnd.Uint8Array === 'function';
+    }-*/;
+
+    private native JavaScriptObject fetch(String url, String body, String mediaType, String bearerToken) /*-{
+        var that = this;
+        var chunk = $entry(function (bytes) {
+            that.@org.jboss.dmr.client.dispatch.impl.StreamingRequest::chunk(Lcom/google/gwt/typedarrays/shared/Uint8Array;)(bytes);
+        });
+        var complete = $entry(function () {
+            that.@org.jboss.dmr.client.dispatch.impl.StreamingRequest::complete()();
+        });
+        var failure = $entry(function (status, statusText, text, contentType) {
+            that.@org.jboss.dmr.client.dispatch.impl.StreamingRequest::failure(ILjava/lang/String;Ljava/lang/String;Ljava/lang/String;)(status, statusText, text, contentType);
+        });
+        var error = $entry(function (message) {
+            that.@org.jboss.dmr.client.dispatch.impl.StreamingRequest::error(Ljava/lang/String;)(message);
+        });
+        var decode = function (text) {
+            var plain = $wnd.atob(text);
+            var length = plain.length;
+            var bytes = new $wnd.Uint8Array(length);
+            for (var i = 0; i < length; i++) {
+                bytes[i] = plain.charCodeAt(i);
+            }
+            return bytes;
+        };
+
+        var controller = new $wnd.AbortController();
+        var headers = {'Accept': mediaType, 'Content-Type': mediaType};
+        if (bearerToken != null) {
+            headers['Authorization'] = 'Bearer ' + bearerToken;
+        }
+        $wnd.fetch(url, {
+            method: 'POST',
+            body: body,
+            headers: headers,
+            credentials: 'include',
+            signal: controller.signal
+        }).then(function (response) {
+            if (response.status !== 200) {
+                return response.text().then(function (text) {
+                    failure(response.status, response.statusText, text, response.headers.get('Content-Type'));
+                });
+            }
+            var reader = response.body.getReader();
+            var text = new $wnd.TextDecoder('ascii');
+            var rest = '';
+            var pump = function () {
+                return reader.read().then(function (result) {
+                    if (result.done) {
+                        rest += text.decode().replace(/\s/g, '');
+                        if (rest.length !== 0) {
+                            error('Incomplete response: ' + rest.length + ' character(s) left');
+                        } else {
+                            complete();
+                        }
+                        return;
+                    }
+                    var received = rest + text.decode(result.value, {stream: true}).replace(/\s/g, '');
+                    var usable = received.length - received.length % 4;
+                    rest = received.substring(usable);
+                    if (usable !== 0) {
+                        chunk(decode(received.substring(0, usable)));
+                    }
+                    return pump();
+                });
+            };
+            return pump();
+        })['catch'](function (e) {
+            error(e && e.message ? e.message : String(e));
+        });
+        return controller;
+    }-*/;
+
+    private static native void abort(JavaScriptObject controller) /*-{
+        if (controller != null) {
+            controller.abort();
+        }
+    }-*/;
+}
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jboss.dmr.client.ModelNode;
+
+/**
+ * Keeps the entity tags and decoded payloads of GET responses, so that requests can be sent with {@code
+ * If-None-Match} and a {@code 304 Not Modified} response can be answered with the stored payload.
+ * <p>
+ * Only single {@code read-resource-description} operations are sent as GET requests. The descriptions the console
+ * reads in composites on POST (see {@code ReadRequiredResources}) get no validators, they're kept by the resource
+ * description cache of the console instead. So the store just keeps the {@link #MAX_ENTRIES} least recently used
+ * validators.
+ */
+class ValidatorStore {
+
+    static final int MAX_ENTRIES = 32;
+
+    private final LinkedHashMap<String, Validator> validators;
+
+    ValidatorStore(final int maxEntries) {
+        this.validators = new LinkedHashMap<String, Validator>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Validator> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    Validator get(String url) {
+        return validators.get(url);
+    }
+
+    /**
+     * Stores the validator of a response. The payload is {@linkplain ModelNode#protect() protected}, since it's
+     * shared by all responses answered from this validator.
+     *
+     * @param size the size of the response text
+     */
+    void put(String url, String etag, ModelNode payload, int size) {
+        payload.protect();
+        validators.put(url, new Validator(etag, payload, size));
+    }
+
+    void remove(String url) {
+        validators.remove(url);
+    }
+
+
+    static class Validator {
+
+        final String etag;
+        final ModelNode payload;
+        final int size;
+
+        Validator(String etag, ModelNode payload, int size) {
+            this.etag = etag;
+            this.payload = payload;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+/*
+ * Web worker used by org.jboss.dmr.client.DecodeWorker.
+ *
+ * Receives {id, encoded} with a base64 encoded DMR payload, decodes the base64 text and indexes all objects and
+ * lists of at least MIN_INDEXED bytes. Replies with {id, bytes, index}: the decoded payload and an Int32Array of
+ * [content offset, end offset] pairs ordered by offset. Both buffers are transferred, not copied. The model nodes
+ * are created lazily on the main thread (see ModelNodeDecoder), which uses the index to skip containers without
+ * scanning them. On errors the reply is {id, error}.
+ */
+
+var MIN_INDEXED = 256;
+
+var bytes;
+var view;
+var pos;
+var index;
+
+function readInt() {
+    var value = view.getInt32(pos);
+    pos += 4;
+    return value;
+}
+
+function skip(length) {
+    if (length < 0 || pos + length > bytes.length) {
+        throw new Error("EOF: " + length + " byte(s) required at position " + pos);
+    }
+    pos += length;
+}
+
+function skipUTF() {
+    var length = view.getUint16(pos);
+    pos += 2;
+    skip(length);
+}
+
+function skipContainer(object) {
+    var start = pos;
+    var slot = index.length;
+    index.push(start, 0);
+
+    var count = readInt();
+    for (var i = 0; i < count; i++) {
+        if (object) {
+            skipUTF();
+        }
+        skipValue();
+    }
+
+    if (pos - start >= MIN_INDEXED) {
+        index[slot + 1] = pos;
+    } else {
+        // nested containers are even smaller
+        index.length = slot;
+    }
+}
+
+function skipValue() {
+    var type = String.fromCharCode(bytes[pos++]);
+    switch (type) {
+        case 'u':
+            break;
+        case 'Z':
+        case 't':
+            skip(1);
+            break;
+        case 'I':
+            skip(4);
+            break;
+        case 'J':
+        case 'D':
+            skip(8);
+            break;
+        case 'd':
+        case 'e':
+        case 's':
+            skipUTF();
+            break;
+        case 'i':
+        case 'b':
+            skip(readInt());
+            break;
+        case 'l':
+            skipContainer(false);
+            break;
+        case 'o':
+            skipContainer(true);
+            break;
+        case 'p':
+            skipUTF();
+            skipValue();
+            break;
+        default:
+            throw new Error("Invalid type character '" + type + "' at position " + (pos - 1));
+    }
+}
+
+function decodeBase64(encoded) {
+    var plain = atob(encoded.replace(/\s/g, ''));
+    var length = plain.length;
+    var decoded = new Uint8Array(length);
+    for (var i = 0; i < length; i++) {
+        decoded[i] = plain.charCodeAt(i);
+    }
+    return decoded;
+}
+
+self.onmessage = function (event) {
+    var id = event.data.id;
+    try {
+        bytes = decodeBase64(event.data.encoded);
+        view = new DataView(bytes.buffer);
+        pos = 0;
+        index = [];
+        skipValue();
+
+        var offsets = new Int32Array(index);
+        self.postMessage({id: id, bytes: bytes.buffer, index: offsets.buffer}, [bytes.buffer, offsets.buffer]);
+    } catch (e) {
+        self.postMessage({id: id, error: String(e.message || e)});
+    } finally {
+        bytes = view = index = null;
+    }
+};
@@ -0,0 +1,190 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.google.gwt.typedarrays.shared.TypedArrays;
+import com.google.gwt.typedarrays.shared.Uint8Array;
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ModelNodeDecoderTest {
+
+    @Test
+    public void allTypes() throws IOException {
+        ModelNode node = sample();
+
+        assertEquals(node, decoder(encode(node), false).readNode());
+        assertEquals(node, ModelNodeDecoder.decode(node.toBase64String()));
+    }
+
+    @Test
+    public void sameAsLegacyDecoder() throws IOException {
+        ModelNode node = sample();
+        String encoded = node.toBase64String();
+
+        assertEquals(ModelNode.fromBase64Legacy(encoded), ModelNodeDecoder.decode(encoded));
+    }
+
+    @Test
+    public void lazy() throws IOException {
+        ModelNode node = sample();
+        ModelNode lazy = decoder(encode(node), true).readNode();
+
+        assertEquals(node.get(RESULT, "list").asList(), lazy.get(RESULT, "list").asList());
+        assertEquals(node, lazy);
+        assertEquals(node.toString(), lazy.toString());
+    }
+
+    @Test
+    public void lazyCopiesAreIndependent() throws IOException {
+        ModelNode lazy = decoder(encode(sample()), true).readNode();
+        ModelNode copy = lazy.clone();
+
+        copy.get(RESULT, "object", "added").set(true);
+        copy.get(RESULT, "list").add("four");
+
+        assertFalse(lazy.get(RESULT, "object").hasDefined("added"));
+        assertEquals(3, lazy.get(RESULT, "list").asList().size());
+        assertNotEquals(lazy, copy);
+    }
+
+    @Test
+    public void lazyProtected() throws IOException {
+        ModelNode lazy = decoder(encode(sample()), true).readNode();
+        lazy.protect();
+
+        try {
+            lazy.get(RESULT).get("object").get("added").set(true);
+            fail("Protected lazy node must not be modified");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        assertEquals(sample(), lazy);
+    }
+
+    @Test
+    public void severalNodes() throws IOException {
+        byte[] first = encode(new ModelNode().set("first"));
+        byte[] second = encode(sample());
+        byte[] both = new byte[first.length + second.length];
+        System.arraycopy(first, 0, both, 0, first.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+
+        ModelNodeDecoder decoder = decoder(both, false);
+        assertEquals("first", decoder.readNode().asString());
+        assertEquals(first.length, decoder.position());
+        assertEquals(sample(), decoder.readNode());
+        assertEquals(both.length, decoder.position());
+    }
+
+    @Test
+    public void invalidType() {
+        invalid(new byte[]{'x'});
+    }
+
+    @Test
+    public void truncated() throws IOException {
+        byte[] bytes = encode(sample());
+        for (int length = 1; length < bytes.length; length++) {
+            byte[] truncated = new byte[length];
+            System.arraycopy(bytes, 0, truncated, 0, length);
+            invalid(truncated);
+        }
+    }
+
+    @Test
+    public void corruptListSize() {
+        // a list of Integer.MAX_VALUE elements must not be preallocated
+        invalid(new byte[]{'l', 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, 'u'});
+        invalid(new byte[]{'l', (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff});
+    }
+
+    @Test
+    public void internKeys() throws IOException {
+        ModelNode node = new ModelNode();
+        node.get("step-1", OUTCOME).set(SUCCESS);
+        node.get("step-2", OUTCOME).set(SUCCESS);
+        StringTable strings = new StringTable();
+
+        ModelNode decoded = decoder(encode(node), false, strings).readNode();
+
+        String first = decoded.get("step-1").keys().iterator().next();
+        String second = decoded.get("step-2").keys().iterator().next();
+        assertTrue(first == second);
+        assertTrue(decoded.get("step-1", OUTCOME).asString() == decoded.get("step-2", OUTCOME).asString());
+        assertEquals(node, decoded);
+    }
+
+    static ModelNode sample() {
+        ModelNode node = new ModelNode();
+        node.get(OUTCOME).set(SUCCESS);
+        node.get(RESULT, "int").set(42);
+        node.get(RESULT, "long").set(Long.MAX_VALUE);
+        node.get(RESULT, "boolean").set(true);
+        node.get(RESULT, "decimal").set(new BigDecimal("1.5"));
+        node.get(RESULT, "expression").setExpression("${foo:bar}");
+        node.get(RESULT, "type").set(ModelType.STRING);
+        node.get(RESULT, "property").set("name", "value");
+        node.get(RESULT, "undefined");
+        node.get(RESULT, "unicode").set("äöü €");
+        node.get(RESULT, "list").add(1).add("two").add(new ModelNode().set("three", 3));
+        node.get(RESULT, "object", "nested", "deep").set("value");
+        node.get(RESULT, "empty").setEmptyList();
+        return node;
+    }
+
+    static byte[] encode(ModelNode node) throws IOException {
+        DataOutput out = new DataOutput();
+        node.writeExternal(out);
+        return out.getBytes();
+    }
+
+    private static ModelNodeDecoder decoder(byte[] bytes, boolean lazy) {
+        return decoder(bytes, lazy, null);
+    }
+
+    private static ModelNodeDecoder decoder(byte[] bytes, boolean lazy, StringTable strings) {
+        Uint8Array array = TypedArrays.createUint8Array(bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            array.set(i, bytes[i] & 0xff);
+        }
+        return new ModelNodeDecoder(array, lazy, strings);
+    }
+
+    private static void invalid(byte[] bytes) {
+        try {
+            decoder(bytes, false).readNode();
+            fail("Invalid payload must be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
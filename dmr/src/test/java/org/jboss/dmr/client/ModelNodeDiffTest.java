@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ModelNodeDiffTest {
+
+    @Test
+    public void equal() {
+        assertTrue(server().diff(server()).isEmpty());
+    }
+
+    @Test
+    public void changedAttribute() {
+        ModelNode changed = server();
+        changed.get("server", "s1", "status").set("stopped");
+        assertEquals(Collections.singletonList("server/s1/status"), server().diff(changed));
+    }
+
+    @Test
+    public void addedAndRemovedKeys() {
+        ModelNode changed = server();
+        changed.get("server").remove("s2");
+        changed.get("server", "s3", "status").set("running");
+        assertEquals(Arrays.asList("server/s2", "server/s3"), server().diff(changed));
+    }
+
+    @Test
+    public void listElements() {
+        ModelNode left = new ModelNode();
+        left.get("list").add("a").add("b");
+        ModelNode right = new ModelNode();
+        right.get("list").add("a").add("c").add("d");
+        assertEquals(Arrays.asList("list/1", "list/2"), left.diff(right));
+        assertEquals(Arrays.asList("list/1", "list/2"), right.diff(left));
+    }
+
+    @Test
+    public void typeChange() {
+        ModelNode left = new ModelNode();
+        left.get("value").set(1);
+        ModelNode right = new ModelNode();
+        right.get("value").set("1");
+        assertEquals(Collections.singletonList("value"), left.diff(right));
+    }
+
+    @Test
+    public void rootChange() {
+        assertEquals(Collections.singletonList(""), new ModelNode().set(1).diff(new ModelNode().set(2)));
+    }
+
+    @Test
+    public void escapedKeys() {
+        ModelNode left = new ModelNode();
+        left.get("jndi", "java:/jboss\\ds").set(true);
+        ModelNode right = new ModelNode();
+        right.get("jndi", "java:/jboss\\ds").set(false);
+        assertEquals(Collections.singletonList("jndi/java:\\/jboss\\\\ds"), left.diff(right));
+    }
+
+    @Test
+    public void protectedNodes() {
+        ModelNode left = server();
+        left.protect();
+        ModelNode right = server();
+        right.get("server", "s2", "status").set("stopped");
+        right.protect();
+        assertEquals(Collections.singletonList("server/s2/status"), left.diff(right));
+        assertTrue(left.diff(left.clone()).isEmpty());
+    }
+
+    @Test
+    public void pathsCanBeRead() {
+        ModelNode left = server();
+        ModelNode right = server();
+        right.get("server", "s1", "status").set("stopped");
+        String path = left.diff(right).get(0);
+        assertEquals("stopped", ModelPath.of(path).read(right).asString());
+    }
+
+    @Test
+    public void escapedPathsCanBeRead() {
+        ModelNode left = new ModelNode();
+        left.get("a=b/c").set(1);
+        left.get("*").set(1);
+        ModelNode right = new ModelNode();
+        right.get("a=b/c").set(2);
+        right.get("*").set(2);
+        for (String path : left.diff(right)) {
+            assertEquals(2, ModelPath.of(path).read(right).asInt());
+        }
+        assertEquals(2, left.diff(right).size());
+    }
+
+    private ModelNode server() {
+        ModelNode node = new ModelNode();
+        node.get("server", "s1", "status").set("running");
+        node.get("server", "s2", "status").set("running");
+        return node;
+    }
+}
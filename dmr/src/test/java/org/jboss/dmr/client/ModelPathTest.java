@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModelPathTest {
+
+    @Test
+    public void separators() {
+        assertEquals(ModelPath.of("server-group=main/host=master"), ModelPath.of("server-group/main/host/master"));
+        assertEquals(4, ModelPath.of("/server-group=main/host=master/").size());
+    }
+
+    @Test
+    public void root() {
+        ModelNode node = new ModelNode();
+        node.get("a").set(1);
+        assertSame(node, ModelPath.of("").read(node));
+        assertSame(node, ModelPath.of("/").read(node));
+    }
+
+    @Test
+    public void read() {
+        ModelNode node = model();
+        assertEquals("running", ModelPath.of("server/s1/status").read(node).asString());
+        assertEquals("b", ModelPath.of("list/1").read(node).asString());
+        assertEquals("v", ModelPath.of("property/k").read(node).asString());
+    }
+
+    @Test
+    public void readReturnsNodeOfModel() {
+        ModelNode node = model();
+        ModelPath.of("server/s1/status").read(node).set("stopped");
+        assertEquals("stopped", node.get("server", "s1", "status").asString());
+    }
+
+    @Test
+    public void missing() {
+        ModelNode node = model();
+        assertFalse(ModelPath.of("server/s9/status").read(node).isDefined());
+        assertFalse(ModelPath.of("list/5").read(node).isDefined());
+        assertFalse(ModelPath.of("list/x").read(node).isDefined());
+        assertFalse(ModelPath.of("server/s1/status/deeper").read(node).isDefined());
+        assertFalse(ModelPath.of("server/s9").isDefined(node));
+        // no children are created
+        assertFalse(node.get("server").has("s9"));
+    }
+
+    @Test
+    public void escaping() {
+        ModelNode node = new ModelNode();
+        node.get("jndi", "java:/jboss\\ds=1").set(true);
+        node.get("*").set("star");
+        ModelPath path = ModelPath.of("jndi/java:\\/jboss\\\\ds\\=1");
+        assertEquals(2, path.size());
+        assertTrue(path.read(node).asBoolean());
+        assertFalse(ModelPath.of("\\*").isMultiMatch());
+        assertEquals("star", ModelPath.of("\\*").read(node).asString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void trailingEscape() {
+        ModelPath.of("a/b\\");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nil() {
+        ModelPath.of(null);
+    }
+
+    @Test
+    public void wildcards() {
+        ModelNode node = model();
+        ModelPath path = ModelPath.of("server=*/status");
+        assertTrue(path.isMultiMatch());
+        List<ModelNode> matches = path.readAll(node);
+        assertEquals(2, matches.size());
+        assertEquals("running", matches.get(0).asString());
+        assertEquals("stopped", matches.get(1).asString());
+
+        List<ModelNode> elements = ModelPath.of("list/*").readAll(node);
+        assertEquals(3, elements.size());
+        assertEquals("c", elements.get(2).asString());
+        assertTrue(ModelPath.of("server/*/missing").readAll(node).isEmpty());
+    }
+
+    @Test
+    public void readAllWithoutWildcards() {
+        ModelNode node = model();
+        assertEquals(1, ModelPath.of("server/s1").readAll(node).size());
+        assertTrue(ModelPath.of("server/s9").readAll(node).isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void readWithWildcards() {
+        ModelPath.of("server/*").read(model());
+    }
+
+    @Test
+    public void equality() {
+        assertEquals(ModelPath.of("a=*").hashCode(), ModelPath.of("a/*").hashCode());
+        assertNotEquals(ModelPath.of("a/*"), ModelPath.of("a/\\*"));
+        assertNotEquals(ModelPath.of("a/b"), ModelPath.of("a/b/c"));
+    }
+
+    private ModelNode model() {
+        ModelNode node = new ModelNode();
+        node.get("server", "s1", "status").set("running");
+        node.get("server", "s2", "status").set("stopped");
+        node.get("list").add("a").add("b").add("c");
+        node.get("property").set("k", "v");
+        return node;
+    }
+}
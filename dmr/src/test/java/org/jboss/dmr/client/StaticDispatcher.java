@@ -94,4 +94,14 @@ public class StaticDispatcher implements DispatchAsync {
     public void clearProperty(String key) {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public void setPlace(String nameToken) {
+        // results are delivered synchronously, nothing to tag
+    }
+
+    @Override
+    public void cancelStaleRequests(String nameToken) {
+        // results are delivered synchronously, nothing to cancel
+    }
 }
@@ -81,4 +81,9 @@ public class StaticDmrResponse extends DMRResponse {
     public ModelNode get() {
         return result;
     }
+
+    @Override
+    public ModelNode getShared() {
+        return result;
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.typedarrays.shared.TypedArrays;
+import com.google.gwt.typedarrays.shared.Uint8Array;
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StreamingDecoderTest {
+
+    @Test
+    public void singleChunk() throws IOException {
+        ModelNode node = response(3);
+        byte[] bytes = encode(node);
+
+        StreamingDecoder decoder = new StreamingDecoder(new StringTable());
+        List<ModelNode> elements = decoder.append(chunk(bytes, 0, bytes.length));
+
+        assertEquals(3, elements.size());
+        assertEquals(node, decoder.finish());
+        assertEquals(bytes.length, decoder.size());
+    }
+
+    @Test
+    public void everyChunkBoundary() throws IOException {
+        ModelNode node = response(5);
+        byte[] bytes = encode(node);
+
+        for (int split = 1; split < bytes.length; split++) {
+            StreamingDecoder decoder = new StreamingDecoder(new StringTable());
+            List<ModelNode> elements = new ArrayList<ModelNode>();
+            elements.addAll(decoder.append(chunk(bytes, 0, split)));
+            elements.addAll(decoder.append(chunk(bytes, split, bytes.length)));
+
+            assertEquals("split at " + split, node, decoder.finish());
+            assertEquals("split at " + split, node.get(RESULT).asList(), elements);
+        }
+    }
+
+    @Test
+    public void singleByteChunks() throws IOException {
+        ModelNode node = response(4);
+        byte[] bytes = encode(node);
+
+        StreamingDecoder decoder = new StreamingDecoder(new StringTable());
+        List<ModelNode> elements = new ArrayList<ModelNode>();
+        for (int i = 0; i < bytes.length; i++) {
+            elements.addAll(decoder.append(chunk(bytes, i, i + 1)));
+        }
+
+        assertEquals(node, decoder.finish());
+        assertEquals(node.get(RESULT).asList(), elements);
+    }
+
+    @Test
+    public void partialResults() throws IOException {
+        ModelNode node = response(3);
+        byte[] bytes = encode(node);
+        String first = node.get(RESULT).get(0).asString();
+        int end = indexOf(bytes, first) + first.length();
+
+        StreamingDecoder decoder = new StreamingDecoder(new StringTable());
+        List<ModelNode> elements = decoder.append(chunk(bytes, 0, end));
+        assertEquals(1, elements.size());
+        assertEquals(first, elements.get(0).asString());
+
+        elements = decoder.append(chunk(bytes, end, bytes.length));
+        assertEquals(2, elements.size());
+    }
+
+    @Test
+    public void nestedValues() throws IOException {
+        ModelNode node = new ModelNode();
+        node.get(OUTCOME).set(SUCCESS);
+        node.get(RESULT, "object", "list").add(1).add("two").add(3L);
+        node.get(RESULT, "object", "decimal").set(new BigDecimal("1.5"));
+        node.get(RESULT, "empty").setEmptyList();
+        node.get(RESULT, "property").set("name", true);
+        node.get(RESULT, "expression").setExpression("${foo:bar}");
+        byte[] bytes = encode(node);
+
+        for (int split = 1; split < bytes.length; split++) {
+            StreamingDecoder decoder = new StreamingDecoder(new StringTable());
+            assertTrue(decoder.append(chunk(bytes, 0, split)).isEmpty());
+            assertTrue(decoder.append(chunk(bytes, split, bytes.length)).isEmpty());
+            assertEquals("split at " + split, node, decoder.finish());
+        }
+    }
+
+    @Test
+    public void compactLargePayload() throws IOException {
+        ModelNode node = response(5000);
+        byte[] bytes = encode(node);
+        assertTrue(bytes.length > 128 * 1024);
+
+        StreamingDecoder decoder = new StreamingDecoder(new StringTable());
+        int count = 0;
+        for (int i = 0; i < bytes.length; i += 1000) {
+            count += decoder.append(chunk(bytes, i, Math.min(i + 1000, bytes.length))).size();
+        }
+
+        assertEquals(5000, count);
+        assertEquals(node, decoder.finish());
+    }
+
+    @Test
+    public void incomplete() throws IOException {
+        byte[] bytes = encode(response(2));
+
+        StreamingDecoder decoder = new StreamingDecoder(new StringTable());
+        decoder.append(chunk(bytes, 0, bytes.length - 1));
+        try {
+            decoder.finish();
+            fail("Incomplete payload must be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static ModelNode response(int lines) {
+        ModelNode node = new ModelNode();
+        node.get(OUTCOME).set(SUCCESS);
+        node.get(RESULT).setEmptyList();
+        for (int i = 0; i < lines; i++) {
+            node.get(RESULT).add("2014-01-01 12:00:00,000 INFO  [org.jboss.as] line " + i + " of the log file");
+        }
+        return node;
+    }
+
+    private static byte[] encode(ModelNode node) throws IOException {
+        DataOutput out = new DataOutput();
+        node.writeExternal(out);
+        return out.getBytes();
+    }
+
+    private static Uint8Array chunk(byte[] bytes, int from, int to) {
+        Uint8Array chunk = TypedArrays.createUint8Array(to - from);
+        for (int i = from; i < to; i++) {
+            chunk.set(i - from, bytes[i] & 0xff);
+        }
+        return chunk;
+    }
+
+    private static int indexOf(byte[] bytes, String value) {
+        byte[] pattern = value.getBytes();
+        outer:
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
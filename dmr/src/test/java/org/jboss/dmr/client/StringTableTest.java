@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client;
+
+import com.google.gwt.typedarrays.shared.TypedArrays;
+import com.google.gwt.typedarrays.shared.Uint8Array;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StringTableTest {
+
+    @Test
+    public void intern() {
+        StringTable strings = new StringTable();
+
+        String first = intern(strings, "outcome");
+        String second = intern(strings, "outcome");
+
+        assertEquals("outcome", first);
+        assertSame(first, second);
+        assertEquals(1, strings.getHits());
+        assertEquals(1, strings.getMisses());
+        assertEquals(1, strings.size());
+        assertTrue(strings.getSavedBytes() > 0);
+    }
+
+    @Test
+    public void offset() {
+        StringTable strings = new StringTable();
+        Uint8Array bytes = bytes("xxresultxx");
+
+        assertSame(strings.intern(bytes, 2, 6), intern(strings, "result"));
+    }
+
+    @Test
+    public void onlyAscii() {
+        StringTable strings = new StringTable();
+
+        assertNull(strings.intern(bytes("ä"), 0, 1));
+        assertNull(strings.intern(bytes("a\u0000"), 0, 2));
+        assertEquals(0, strings.size());
+    }
+
+    @Test
+    public void bounded() {
+        StringTable strings = new StringTable(8, 16);
+        String frequent = intern(strings, "frequent");
+
+        for (int i = 0; i < 100; i++) {
+            intern(strings, "name-" + i);
+            // strings used over and over stay in the table
+            assertSame(frequent, intern(strings, "frequent"));
+            assertTrue(strings.size() <= 2 * strings.getMaxEntries());
+        }
+
+        // rare strings are evicted eventually
+        int misses = strings.getMisses();
+        assertEquals("name-0", intern(strings, "name-0"));
+        assertEquals(misses + 1, strings.getMisses());
+    }
+
+    @Test
+    public void sharedAcrossDecodes() throws Exception {
+        StringTable strings = new StringTable(1024, 16);
+        ModelNode node = new ModelNode();
+        node.get("short").set("value");
+        node.get("long").set("a value longer than sixteen characters");
+        byte[] encoded = ModelNodeDecoderTest.encode(node);
+
+        ModelNode first = new ModelNodeDecoder(toArray(encoded), false, strings).readNode();
+        ModelNode second = new ModelNodeDecoder(toArray(encoded), false, strings).readNode();
+
+        assertEquals(node, second);
+        assertSame(first.keys().iterator().next(), second.keys().iterator().next());
+        assertSame(first.get("short").asString(), second.get("short").asString());
+        assertTrue(first.get("long").asString() != second.get("long").asString());
+    }
+
+    private static String intern(StringTable strings, String value) {
+        return strings.intern(bytes(value), 0, value.length());
+    }
+
+    private static Uint8Array bytes(String value) {
+        Uint8Array bytes = TypedArrays.createUint8Array(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            bytes.set(i, value.charAt(i) & 0xff);
+        }
+        return bytes;
+    }
+
+    private static Uint8Array toArray(byte[] bytes) {
+        Uint8Array array = TypedArrays.createUint8Array(bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            array.set(i, bytes[i] & 0xff);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client.dispatch.impl;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.StringTable;
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DMRResponseTest {
+
+    private static final String DMR_ENCODED = "application/dmr-encoded";
+
+    @Test
+    public void firstCallerGetsThePayload() {
+        ModelNode node = response();
+        DMRResponse response = new DMRResponse("POST", node.toBase64String(), DMR_ENCODED);
+
+        ModelNode first = response.get();
+        first.get(RESULT, "modified").set(true);
+        ModelNode second = response.get();
+
+        assertEquals(node, second);
+        second.get(RESULT, "modified").set(true);
+        assertEquals(node, response.get());
+        assertEquals(node, response.getShared());
+    }
+
+    @Test
+    public void decodedAtMostTwice() {
+        String encoded = response().toBase64String();
+        DMRResponse response = new DMRResponse("POST", encoded, DMR_ENCODED);
+
+        int first = lookups(response);
+        int second = lookups(response);
+        assertTrue(first > 0);
+        assertEquals(first, second);
+
+        // the shared payload is copied from now on
+        assertEquals(0, lookups(response));
+        assertEquals(0, lookups(response));
+        assertEquals(encoded.length(), response.size());
+    }
+
+    @Test
+    public void sharedPayloadIsProtected() {
+        DMRResponse response = new DMRResponse("POST", response().toBase64String(), DMR_ENCODED);
+        ModelNode shared = response.getShared();
+
+        try {
+            shared.get(RESULT, "modified").set(true);
+            fail("Shared payload must be protected");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        ModelNode copy = response.get();
+        copy.get(RESULT, "modified").set(true);
+        assertFalse(response.getShared().get(RESULT).hasDefined("modified"));
+    }
+
+    @Test
+    public void decodeNow() {
+        DMRResponse response = new DMRResponse("POST", response().toBase64String(), DMR_ENCODED);
+        response.decodeNow();
+
+        assertEquals(0, lookups(response));
+        assertTrue(lookups(response) > 0);
+    }
+
+    @Test
+    public void getIsRepackaged() {
+        ModelNode node = response().get(RESULT);
+        DMRResponse response = new DMRResponse("GET", node.toBase64String(), DMR_ENCODED);
+
+        assertEquals(SUCCESS, response.get().get(OUTCOME).asString());
+        assertEquals(node, response.get().get(RESULT));
+    }
+
+    @Test
+    public void decodedPayload() {
+        ModelNode node = response();
+        DMRResponse response = new DMRResponse(node.clone(), 42);
+
+        assertEquals(42, response.size());
+        assertEquals(node, response.get());
+        try {
+            response.getShared().get(RESULT, "modified").set(true);
+            fail("Shared payload must be protected");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void invalidPayload() {
+        DMRResponse response = new DMRResponse("POST", "not a payload", DMR_ENCODED);
+
+        assertEquals(FAILED, response.get().get(OUTCOME).asString());
+        assertTrue(response.get().get(FAILURE_DESCRIPTION).asString().startsWith("Failed to decode response"));
+    }
+
+    private static ModelNode response() {
+        ModelNode node = new ModelNode();
+        node.get(OUTCOME).set(SUCCESS);
+        node.get(RESULT, "name").set("default");
+        node.get(RESULT, "attributes", "enabled").set(true);
+        node.get(RESULT, "children").add("one").add("two");
+        return node;
+    }
+
+    /**
+     * The number of string table lookups of one {@link DMRResponse#get()}, which is 0 if nothing was decoded.
+     */
+    private static int lookups(DMRResponse response) {
+        StringTable strings = StringTable.session();
+        int before = strings.getHits() + strings.getMisses();
+        response.get();
+        return strings.getHits() + strings.getMisses() - before;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client.dispatch.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.dmr.client.dispatch.DispatchRequest;
+import org.jboss.dmr.client.dispatch.Priority;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DispatchQueueTest {
+
+    private int maxRequests;
+    private DispatchQueue queue;
+    private List<Request> cancelled;
+
+    @Before
+    public void setUp() {
+        maxRequests = 2;
+        queue = new DispatchQueue(new DMREndpointConfig() {
+            @Override
+            public String getUrl() {
+                return null;
+            }
+
+            @Override
+            public String getUploadUrl() {
+                return null;
+            }
+
+            @Override
+            public boolean isJsonTransport() {
+                return false;
+            }
+
+            @Override
+            public int getBatchSize() {
+                return 0;
+            }
+
+            @Override
+            public int getMaxRequests() {
+                return maxRequests;
+            }
+        });
+        cancelled = new ArrayList<Request>();
+    }
+
+    @Test
+    public void limit() {
+        Request first = submit(Priority.NAVIGATION, true, false);
+        Request second = submit(Priority.NAVIGATION, true, false);
+        Request third = submit(Priority.NAVIGATION, true, false);
+
+        assertTrue(first.started && second.started);
+        assertFalse(third.started);
+        assertEquals(1, queue.queued());
+
+        first.complete();
+        assertTrue(third.started);
+        assertEquals(2, queue.running());
+    }
+
+    @Test
+    public void priority() {
+        submit(Priority.NAVIGATION, true, false);
+        Request background = submit(Priority.BACKGROUND, true, false);
+        Request interactive = submit(Priority.INTERACTIVE, false, false);
+
+        // background requests never take the last slot
+        assertFalse(background.started);
+        assertTrue(interactive.started);
+    }
+
+    @Test
+    public void cancelOtherPlace() {
+        queue.setPlace("a");
+        Request running = submit(Priority.NAVIGATION, true, false);
+        submit(Priority.NAVIGATION, true, false);
+        Request queued = submit(Priority.NAVIGATION, true, false);
+
+        queue.setPlace("b");
+        Request current = submit(Priority.NAVIGATION, true, false);
+        queue.cancelStaleRequests("b");
+
+        assertEquals(3, cancelled.size());
+        assertTrue(cancelled.contains(running));
+        assertTrue(cancelled.contains(queued));
+        assertFalse(running.isPending());
+        assertFalse(running.complete());
+        assertTrue(current.started);
+        assertTrue(current.isPending());
+    }
+
+    @Test
+    public void keepCurrentPlace() {
+        queue.setPlace("a");
+        Request request = submit(Priority.NAVIGATION, true, false);
+        queue.cancelStaleRequests("a");
+
+        assertTrue(cancelled.isEmpty());
+        assertTrue(request.isPending());
+    }
+
+    @Test
+    public void keepExempted() {
+        queue.setPlace("a");
+        Request write = submit(Priority.INTERACTIVE, false, false);
+        Request background = submit(Priority.BACKGROUND, true, false);
+        Request global = submit(Priority.NAVIGATION, true, true);
+        queue.cancelStaleRequests("b");
+
+        assertTrue(cancelled.isEmpty());
+        assertTrue(write.isPending());
+        assertTrue(background.isPending());
+        assertTrue(global.isPending());
+    }
+
+    @Test
+    public void keepBeforeFirstPlace() {
+        Request bootstrap = submit(Priority.NAVIGATION, true, false);
+        queue.setPlace("a");
+        queue.cancelStaleRequests("a");
+
+        assertTrue(cancelled.isEmpty());
+        assertTrue(bootstrap.isPending());
+    }
+
+    @Test
+    public void cancelOnce() {
+        Request request = submit(Priority.NAVIGATION, true, false);
+        request.cancel();
+        request.cancel();
+
+        assertEquals(1, cancelled.size());
+        assertEquals(0, queue.running());
+    }
+
+    @Test
+    public void cancelYielding() {
+        Request prefetch = submit(Priority.BACKGROUND, true, false, true);
+        Request queuedPrefetch = submit(Priority.BACKGROUND, true, false, true);
+        Request harvest = submit(Priority.BACKGROUND, true, false);
+        assertTrue(prefetch.started);
+        assertTrue(cancelled.isEmpty());
+
+        Request interactive = submit(Priority.INTERACTIVE, true, false);
+
+        assertEquals(2, cancelled.size());
+        assertTrue(cancelled.contains(prefetch));
+        assertTrue(cancelled.contains(queuedPrefetch));
+        assertTrue(harvest.isPending());
+        assertTrue(interactive.started);
+    }
+
+    private Request submit(Priority priority, boolean readOnly, boolean global) {
+        return submit(priority, readOnly, global, false);
+    }
+
+    private Request submit(Priority priority, boolean readOnly, boolean global, boolean yielding) {
+        Request request = new Request(priority, readOnly, global, yielding);
+        queue.submit(request);
+        return request;
+    }
+
+
+    private class Request extends DispatchQueue.Queued {
+
+        boolean started;
+
+        Request(Priority priority, boolean readOnly, boolean global, boolean yielding) {
+            queue.super(priority, readOnly, global, yielding);
+        }
+
+        @Override
+        DispatchRequest start() {
+            started = true;
+            return null;
+        }
+
+        @Override
+        void cancelled() {
+            cancelled.add(this);
+        }
+    }
+}
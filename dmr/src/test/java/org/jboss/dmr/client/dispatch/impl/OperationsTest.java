@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client.dispatch.impl;
+
+import org.jboss.dmr.client.ModelNode;
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OperationsTest {
+
+    @Test
+    public void parameterOrder() {
+        ModelNode first = readResource("a");
+        first.get(INCLUDE_RUNTIME).set(true);
+        first.get(RECURSIVE).set(false);
+        ModelNode second = readResource("a");
+        second.get(RECURSIVE).set(false);
+        second.get(INCLUDE_RUNTIME).set(true);
+        assertEquals(Operations.canonicalKey(first), Operations.canonicalKey(second));
+    }
+
+    @Test
+    public void address() {
+        assertNotEquals(Operations.canonicalKey(readResource("a")), Operations.canonicalKey(readResource("b")));
+
+        // the order of the address segments matters
+        ModelNode first = new ModelNode();
+        first.get(OP).set(READ_RESOURCE_OPERATION);
+        first.get(ADDRESS).add("host", "master").add("server", "one");
+        ModelNode second = new ModelNode();
+        second.get(OP).set(READ_RESOURCE_OPERATION);
+        second.get(ADDRESS).add("server", "one").add("host", "master");
+        assertNotEquals(Operations.canonicalKey(first), Operations.canonicalKey(second));
+    }
+
+    @Test
+    public void types() {
+        ModelNode first = readResource("a");
+        first.get("depth").set(1);
+        ModelNode second = readResource("a");
+        second.get("depth").set("1");
+        assertNotEquals(Operations.canonicalKey(first), Operations.canonicalKey(second));
+    }
+
+    @Test
+    public void headers() {
+        ModelNode first = readResource("a");
+        ModelNode second = readResource("a");
+        second.get(OPERATION_HEADERS).get("roles").set("Monitor");
+        assertNotEquals(Operations.canonicalKey(first), Operations.canonicalKey(second));
+    }
+
+    @Test
+    public void undefinedParameter() {
+        ModelNode first = readResource("a");
+        ModelNode second = readResource("a");
+        second.get(NAME);
+        assertNotEquals(Operations.canonicalKey(first), Operations.canonicalKey(second));
+    }
+
+    @Test
+    public void separatorsInValues() {
+        ModelNode first = readResource("a");
+        first.get("x").set("1,y=>STRING:2");
+        ModelNode second = readResource("a");
+        second.get("x").set("1");
+        second.get("y").set("2");
+        assertNotEquals(Operations.canonicalKey(first), Operations.canonicalKey(second));
+    }
+
+    @Test
+    public void readOnly() {
+        assertTrue(Operations.isReadOnly(readResource("a")));
+        assertTrue(Operations.isReadOnly(operation(WHOAMI)));
+        assertFalse(Operations.isReadOnly(operation(WRITE_ATTRIBUTE_OPERATION)));
+
+        ModelNode composite = operation(COMPOSITE);
+        assertFalse(Operations.isReadOnly(composite));
+        composite.get(STEPS).add(readResource("a"));
+        assertTrue(Operations.isReadOnly(composite));
+        composite.get(STEPS).add(operation(ADD));
+        assertFalse(Operations.isReadOnly(composite));
+    }
+
+    private ModelNode readResource(String name) {
+        ModelNode operation = operation(READ_RESOURCE_OPERATION);
+        operation.get(ADDRESS).add("subsystem", name);
+        return operation;
+    }
+
+    private ModelNode operation(String name) {
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(name);
+        operation.get(ADDRESS).setEmptyList();
+        return operation;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client.dispatch.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.dmr.client.ModelNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ReadBatchTest {
+
+    private List<ModelNode> resent;
+    private ReadBatch batch;
+    private Callback first;
+    private Callback second;
+
+    @Before
+    public void setUp() {
+        resent = new ArrayList<ModelNode>();
+        batch = new ReadBatch(new ModelNode()) {
+            @Override
+            void resend(ModelNode operation, AsyncCallback<DMRResponse> callback) {
+                resent.add(operation);
+            }
+        };
+        first = new Callback();
+        second = new Callback();
+        batch.add(read("logging"), first);
+        batch.add(read("web"), second);
+    }
+
+    @Test
+    public void composite() {
+        ModelNode composite = batch.composite();
+
+        assertEquals(COMPOSITE, composite.get(OP).asString());
+        assertEquals(2, composite.get(STEPS).asList().size());
+        assertEquals(read("web"), composite.get(STEPS).get(1));
+        assertFalse(composite.hasDefined(OPERATION_HEADERS));
+    }
+
+    @Test
+    public void allSteps() {
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        response.get(RESULT, "step-1").set(step(SUCCESS, "logging"));
+        response.get(RESULT, "step-2").set(step(SUCCESS, "web"));
+
+        batch.onSuccess(new DMRResponse(response, 100));
+
+        assertEquals("logging", first.response.get().get(RESULT).asString());
+        assertEquals("web", second.response.get().get(RESULT).asString());
+        assertEquals(50, first.response.size());
+        assertEquals(0, resent.size());
+    }
+
+    @Test
+    public void failedStep() {
+        // the body of the HTTP 500 the server answers with
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(FAILED);
+        response.get(RESULT, "step-1").set(step(SUCCESS, "logging"));
+        response.get(RESULT, "step-2").set(step(FAILED, null));
+        response.get(ROLLED_BACK).set(true);
+
+        batch.onSuccess(new DMRResponse(response, 100));
+
+        assertEquals("logging", first.response.get().get(RESULT).asString());
+        assertNull(second.response);
+        assertNull(second.caught);
+        assertEquals(1, resent.size());
+        assertEquals(read("web"), resent.get(0));
+    }
+
+    @Test
+    public void noStepResults() {
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(FAILED);
+        response.get(FAILURE_DESCRIPTION).set("Failed to decode response");
+
+        batch.onSuccess(new DMRResponse(response, 100));
+
+        assertEquals(2, resent.size());
+        assertNull(first.caught);
+    }
+
+    @Test
+    public void failure() {
+        Exception caught = new Exception("Connection lost");
+        batch.onFailure(caught);
+
+        assertSame(caught, first.caught);
+        assertSame(caught, second.caught);
+        assertEquals(0, resent.size());
+    }
+
+    @Test
+    public void remove() {
+        assertEquals(2, batch.size());
+        batch.remove(first);
+
+        assertEquals(1, batch.size());
+        assertSame(second, batch.callback(0));
+    }
+
+    private static ModelNode read(String subsystem) {
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+        operation.get(ADDRESS).add(SUBSYSTEM, subsystem);
+        return operation;
+    }
+
+    private static ModelNode step(String outcome, String result) {
+        ModelNode step = new ModelNode();
+        step.get(OUTCOME).set(outcome);
+        if (result != null) {
+            step.get(RESULT).set(result);
+        } else {
+            step.get(FAILURE_DESCRIPTION).set("WFLYCTL0216: Resource not found");
+        }
+        return step;
+    }
+
+
+    private static class Callback implements AsyncCallback<DMRResponse> {
+
+        DMRResponse response;
+        Throwable caught;
+
+        @Override
+        public void onSuccess(DMRResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onFailure(Throwable caught) {
+            this.caught = caught;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client.dispatch.impl;
+
+import org.jboss.dmr.client.ModelNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ResponseCacheTest {
+
+    private ResponseCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new ResponseCache(3, 100);
+    }
+
+    @Test
+    public void ttlDefaults() {
+        assertEquals(5 * 60 * 1000, ResponseCache.ttl(operation(READ_RESOURCE_DESCRIPTION_OPERATION, "a"), false));
+        assertEquals(60 * 1000, ResponseCache.ttl(operation(WHOAMI), false));
+        assertEquals(0, ResponseCache.ttl(operation(READ_RESOURCE_OPERATION, "a"), false));
+        assertEquals(0, ResponseCache.ttl(operation(READ_CHILDREN_NAMES_OPERATION, "a"), false));
+        assertEquals(0, ResponseCache.ttl(operation(READ_ATTRIBUTE_OPERATION, "a"), true));
+    }
+
+    @Test
+    public void ttlConfigurationOptIn() {
+        assertEquals(10 * 1000, ResponseCache.ttl(operation(READ_RESOURCE_OPERATION, "a"), true));
+        assertEquals(10 * 1000, ResponseCache.ttl(operation(READ_CHILDREN_RESOURCES_OPERATION, "a"), true));
+
+        ModelNode runtime = operation(READ_RESOURCE_OPERATION, "a");
+        runtime.get(INCLUDE_RUNTIME).set(true);
+        assertEquals(0, ResponseCache.ttl(runtime, true));
+    }
+
+    @Test
+    public void ttlComposite() {
+        ModelNode composite = composite(operation(READ_RESOURCE_DESCRIPTION_OPERATION, "a"), operation(WHOAMI));
+        assertEquals(60 * 1000, ResponseCache.ttl(composite, false));
+
+        composite.get(STEPS).add(operation(READ_RESOURCE_OPERATION, "a"));
+        assertEquals(0, ResponseCache.ttl(composite, false));
+        assertEquals(10 * 1000, ResponseCache.ttl(composite, true));
+
+        assertEquals(0, ResponseCache.ttl(operation(COMPOSITE), true));
+    }
+
+    @Test
+    public void putAndGet() {
+        DMRResponse response = success(10);
+        put("a", operation(READ_RESOURCE_OPERATION, "a"), response);
+
+        assertSame(response, cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void expired() {
+        cache.put("a", operation(READ_RESOURCE_OPERATION, "a"), -1, success(10), cache.generation());
+        assertNull(cache.get("a"));
+
+        cache.put("a", operation(READ_RESOURCE_OPERATION, "a"), 1, success(10), cache.generation());
+        sleep(20);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void failureNotCached() {
+        ModelNode failed = new ModelNode();
+        failed.get(OUTCOME).set(FAILED);
+        put("a", operation(READ_RESOURCE_OPERATION, "a"), new DMRResponse(failed, 10));
+
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void lruByEntries() {
+        put("a", operation(READ_RESOURCE_OPERATION, "a"), success(10));
+        put("b", operation(READ_RESOURCE_OPERATION, "b"), success(10));
+        put("c", operation(READ_RESOURCE_OPERATION, "c"), success(10));
+        cache.get("a");
+        put("d", operation(READ_RESOURCE_OPERATION, "d"), success(10));
+
+        assertEquals(3, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+    }
+
+    @Test
+    public void lruBySize() {
+        put("a", operation(READ_RESOURCE_OPERATION, "a"), success(40));
+        put("b", operation(READ_RESOURCE_OPERATION, "b"), success(40));
+        put("c", operation(READ_RESOURCE_OPERATION, "c"), success(40));
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+
+        put("d", operation(READ_RESOURCE_OPERATION, "d"), success(101));
+        assertNull(cache.get("d"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void replaceKeepsSize() {
+        put("a", operation(READ_RESOURCE_OPERATION, "a"), success(60));
+        DMRResponse refreshed = success(60);
+        put("a", operation(READ_RESOURCE_OPERATION, "a"), refreshed);
+
+        assertEquals(1, cache.size());
+        assertSame(refreshed, cache.get("a"));
+    }
+
+    @Test
+    public void invalidatePrefix() {
+        put("parent", operation(READ_RESOURCE_OPERATION, "a"), success(10));
+        put("child", operation(READ_RESOURCE_OPERATION, "a", "b"), success(10));
+        put("sibling", operation(READ_RESOURCE_OPERATION, "c"), success(10));
+
+        cache.invalidate(operation(WRITE_ATTRIBUTE_OPERATION, "a", "b"));
+        assertNull(cache.get("parent"));
+        assertNull(cache.get("child"));
+        assertNotNull(cache.get("sibling"));
+    }
+
+    @Test
+    public void invalidateChildren() {
+        put("child", operation(READ_RESOURCE_OPERATION, "a", "b"), success(10));
+        put("other", operation(READ_RESOURCE_OPERATION, "a2", "b"), success(10));
+
+        cache.invalidate(operation(REMOVE, "a"));
+        assertNull(cache.get("child"));
+        assertNotNull(cache.get("other"));
+    }
+
+    @Test
+    public void invalidateComposite() {
+        put("a", composite(operation(READ_RESOURCE_OPERATION, "a"), operation(READ_RESOURCE_OPERATION, "b")),
+                success(10));
+        put("c", operation(READ_RESOURCE_OPERATION, "c"), success(10));
+
+        cache.invalidate(composite(operation(ADD, "x"), operation(WRITE_ATTRIBUTE_OPERATION, "b")));
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    public void generationRace() {
+        long generation = cache.generation();
+        cache.invalidate(operation(WRITE_ATTRIBUTE_OPERATION, "x"));
+        cache.put("a", operation(READ_RESOURCE_OPERATION, "a"), 1000, success(10), generation);
+
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void clear() {
+        long generation = cache.generation();
+        put("a", operation(READ_RESOURCE_OPERATION, "a"), success(10));
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        cache.put("b", operation(READ_RESOURCE_OPERATION, "b"), 1000, success(10), generation);
+        assertNull(cache.get("b"));
+    }
+
+    private void put(String key, ModelNode operation, DMRResponse response) {
+        cache.put(key, operation, 1000, response, cache.generation());
+    }
+
+    private static DMRResponse success(int size) {
+        ModelNode payload = new ModelNode();
+        payload.get(OUTCOME).set(SUCCESS);
+        return new DMRResponse(payload, size);
+    }
+
+    private static ModelNode operation(String name, String... address) {
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(name);
+        operation.get(ADDRESS).setEmptyList();
+        for (String segment : address) {
+            operation.get(ADDRESS).add("subsystem", segment);
+        }
+        return operation;
+    }
+
+    private static ModelNode composite(ModelNode... steps) {
+        ModelNode composite = operation(COMPOSITE);
+        composite.get(STEPS).setEmptyList();
+        for (ModelNode step : steps) {
+            composite.get(STEPS).add(step);
+        }
+        return composite;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.dmr.client.dispatch.impl;
+
+import org.jboss.dmr.client.ModelNode;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ValidatorStoreTest {
+
+    @Test
+    public void putAndGet() {
+        ValidatorStore store = new ValidatorStore(2);
+        ModelNode payload = new ModelNode().set("foo");
+        store.put("/a", "1", payload, 10);
+
+        ValidatorStore.Validator validator = store.get("/a");
+        assertEquals("1", validator.etag);
+        assertSame(payload, validator.payload);
+        assertNull(store.get("/b"));
+    }
+
+    @Test
+    public void payloadIsProtected() {
+        ValidatorStore store = new ValidatorStore(2);
+        ModelNode payload = new ModelNode();
+        payload.get("foo").set("bar");
+        store.put("/a", "1", payload, 10);
+
+        try {
+            store.get("/a").payload.get("foo").set("baz");
+            fail("Shared payload must not be modified");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        ValidatorStore store = new ValidatorStore(2);
+        store.put("/a", "1", new ModelNode(), 40);
+        store.put("/b", "1", new ModelNode(), 40);
+        store.get("/a");
+        store.put("/c", "1", new ModelNode(), 40);
+
+        assertNotNull(store.get("/a"));
+        assertNull(store.get("/b"));
+        assertNotNull(store.get("/c"));
+    }
+
+    @Test
+    public void replaceAndRemove() {
+        ValidatorStore store = new ValidatorStore(2);
+        store.put("/a", "1", new ModelNode(), 60);
+        store.put("/b", "1", new ModelNode(), 60);
+        store.put("/a", "2", new ModelNode(), 60);
+        assertEquals("2", store.get("/a").etag);
+        assertEquals(60, store.get("/a").size);
+        assertNotNull(store.get("/b"));
+
+        store.remove("/a");
+        assertNull(store.get("/a"));
+    }
+}
@@ -118,37 +118,21 @@ public class Async<C> {
      */
     @SuppressWarnings("unchecked")
     public void parallel(C context, final Outcome<C> outcome, final Function<C>... functions) {
+        parallel(context, outcome, functions.length, functions);
+    }
+
+    /**
+     * Like {@link #parallel(Object, Outcome, Function[])}, but runs at most {@code limit} functions at the same time.
+     * The next function is started as soon as one of the running functions has completed.
+     */
+    @SuppressWarnings("unchecked")
+    public void parallel(C context, final Outcome<C> outcome, int limit, final Function<C>... functions) {
         final C finalContext = context != null ? context : (C) EMPTY_CONTEXT;
-        final CountingControl ctrl = new CountingControl(finalContext, functions);
+        final CountingControl ctrl = new CountingControl(finalContext, outcome, Math.max(1, limit), functions);
         progress.reset(functions.length);
 
-        Scheduler.get().scheduleIncremental(new Scheduler.RepeatingCommand() {
-            @Override
-            public boolean execute() {
-                if (ctrl.isAborted() || ctrl.allFinished()) {
-                    // schedule deferred so that 'return false' executes first!
-                    Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
-                        @Override
-                        @SuppressWarnings("unchecked")
-                        public void execute() {
-                            if (ctrl.isAborted()) {
-                                progress.finish();
-                                outcome.onFailure(finalContext);
-                            } else {
-                                progress.finish();
-                                outcome.onSuccess(finalContext);
-                            }
-
-                        }
-                    });
-                    return false;
-                } else {
-                    // one after the other until all are active
-                    ctrl.next();
-                    return true;
-                }
-            }
-        });
+        // no polling: each completed function starts the next one
+        ctrl.next();
     }
 
     /**
@@ -292,14 +276,20 @@ public class Async<C> {
     private class CountingControl implements Control<C> {
 
         private final C context;
+        private final Outcome<C> outcome;
+        private final int limit;
         private final Function<C>[] functions;
         protected boolean aborted;
+        private boolean done;
+        private boolean starting;
         private int index;
         private int finished;
 
         @SafeVarargs
-        CountingControl(final C context, Function<C>... functions) {
+        CountingControl(final C context, Outcome<C> outcome, int limit, Function<C>... functions) {
             this.context = context;
+            this.outcome = outcome;
+            this.limit = limit;
             this.functions = functions;
         }
 
@@ -308,39 +298,61 @@ public class Async<C> {
             return context;
         }
 
+        /**
+         * Starts functions until the limit is reached. Functions which complete right away don't start the next one
+         * themselves, the loop does, so the stack doesn't grow with the number of functions.
+         */
         @SuppressWarnings("unchecked")
         public void next() {
-            if (index < functions.length) {
-                functions[index].execute(this);
-                index++;
+            if (starting) {
+                return;
+            }
+            starting = true;
+            try {
+                while (!aborted && index < functions.length && index - finished < limit) {
+                    // count before executing, the function might complete right away
+                    index++;
+                    functions[index - 1].execute(this);
+                }
+            } finally {
+                starting = false;
+            }
+            if (!aborted && finished >= functions.length) {
+                finish();
             }
         }
 
         @Override
         public void proceed() {
-            if (index > 0) {
-                // start ticking *after* the first function has finished
-                progress.tick();
-            }
-            increment();
-        }
-
-        private void increment() {
+            progress.tick();
             ++finished;
+            next();
         }
 
         @Override
         public void abort() {
-            increment();
+            ++finished;
             aborted = true;
+            finish();
         }
 
-        public boolean isAborted() {
-            return aborted;
-        }
-
-        public boolean allFinished() {
-            return finished >= functions.length;
+        private void finish() {
+            if (done) {
+                return;
+            }
+            done = true;
+            // deferred, so that the outcome is never called from within a function
+            Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
+                @Override
+                public void execute() {
+                    progress.finish();
+                    if (aborted) {
+                        outcome.onFailure(context);
+                    } else {
+                        outcome.onSuccess(context);
+                    }
+                }
+            });
         }
     }
 
@@ -1,6 +1,7 @@
 package org.jboss.as.console.client.core;
 
 import org.jboss.as.console.client.Console;
+import org.jboss.as.console.client.shared.Preferences;
 import org.jboss.dmr.client.dispatch.impl.DMREndpointConfig;
 
 /**
@@ -17,4 +18,27 @@ public class BootstrappedEndpointConfig implements DMREndpointConfig {
     public String getUploadUrl() {
         return Console.MODULES.getBootstrapContext().getProperty(BootstrapContext.UPLOAD_API);
     }
+
+    @Override
+    public boolean isJsonTransport() {
+        return Boolean.valueOf(Preferences.get(Preferences.Key.JSON_TRANSPORT, "false"));
+    }
+
+    @Override
+    public int getBatchSize() {
+        return intPreference(Preferences.Key.BATCH_SIZE, 0);
+    }
+
+    @Override
+    public int getMaxRequests() {
+        return intPreference(Preferences.Key.MAX_REQUESTS, 6);
+    }
+
+    private int intPreference(Preferences.Key key, int defaultValue) {
+        try {
+            return Integer.parseInt(Preferences.get(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
 }
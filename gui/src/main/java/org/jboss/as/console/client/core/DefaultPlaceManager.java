@@ -29,6 +29,7 @@ import com.gwtplatform.mvp.shared.proxy.PlaceRequest;
 import com.gwtplatform.mvp.shared.proxy.TokenFormatter;
 import org.jboss.as.console.client.Console;
 import org.jboss.as.console.client.rbac.UnauthorizedEvent;
+import org.jboss.dmr.client.dispatch.DispatchAsync;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -40,16 +41,18 @@ import java.util.List;
 public class DefaultPlaceManager extends PlaceManagerImpl {
 
     private final RequiredResourcesProcessor requiredResourcesProcessor;
+    private final DispatchAsync dispatcher;
     private BootstrapContext bootstrap;
     private EventBus eventBus;
 
     @Inject
     public DefaultPlaceManager(EventBus eventBus, TokenFormatter tokenFormatter, BootstrapContext bootstrap,
-            RequiredResourcesProcessor requiredResourcesProcessor) {
+            RequiredResourcesProcessor requiredResourcesProcessor, DispatchAsync dispatcher) {
         super(eventBus, tokenFormatter);
         this.bootstrap = bootstrap;
         this.eventBus = eventBus;
         this.requiredResourcesProcessor = requiredResourcesProcessor;
+        this.dispatcher = dispatcher;
     }
 
     @Override
@@ -65,6 +68,8 @@ public class DefaultPlaceManager extends PlaceManagerImpl {
 
     @Override
     protected void doRevealPlace(final PlaceRequest request, final boolean updateBrowserUrl) {
+        // the requests of the new place (incl. the required resources) must not be cancelled as stale
+        dispatcher.setPlace(request.getNameToken());
         requiredResourcesProcessor.process(request.getNameToken(), new AsyncCallback<Void>() {
             @Override
             public void onFailure(Throwable caught) {
@@ -104,6 +104,7 @@ public class Footer {
         if (diagnostics.isEnabled()) {
             toolReference.add(new String[]{"Diagnostics", "debug-panel"});
         }
+        toolReference.add(new String[]{"Request Metrics", "request-metrics"});
 
         // only enabled in dev mode
         if (!GWT.isScript()) {
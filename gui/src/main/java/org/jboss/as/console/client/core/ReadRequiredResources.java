@@ -34,11 +34,17 @@ import com.allen_sauer.gwt.log.client.Log;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import org.jboss.as.console.client.rbac.Constraints;
 import org.jboss.as.console.client.shared.Preferences;
+import org.jboss.as.console.client.v3.ResourceDescriptionCache;
 import org.jboss.as.console.client.v3.dmr.AddressTemplate;
+import org.jboss.as.console.client.v3.dmr.ResourceDescription;
 import org.jboss.dmr.client.ModelNode;
 import org.jboss.dmr.client.ModelType;
 import org.jboss.dmr.client.Property;
+import org.jboss.dmr.client.dispatch.CancellationAware;
+import org.jboss.dmr.client.dispatch.CancelledException;
 import org.jboss.dmr.client.dispatch.DispatchAsync;
+import org.jboss.dmr.client.dispatch.DispatchRequest;
+import org.jboss.dmr.client.dispatch.Priority;
 import org.jboss.dmr.client.dispatch.impl.DMRAction;
 import org.jboss.dmr.client.dispatch.impl.DMRResponse;
 import org.jboss.gwt.flow.client.Control;
@@ -59,26 +65,44 @@ public class ReadRequiredResources implements Function<RequiredResourcesContext>
     private static final String EXCEPTIONS = "exceptions";
     private static final String ACCESS_CONTROL = "access-control";
     private static final String COMBINED_DESCRIPTIONS = "combined-descriptions";
+    private static final String TRIM_DESCRIPTIONS = "trim-descriptions";
 
     private final DispatchAsync dispatcher;
     private final StatementContext statementContext;
+    private final ResourceDescriptionCache cache;
     private final List<Input> input;
+    private Priority priority;
+    private boolean yielding;
+    private DispatchRequest request;
     private String locale = Preferences.get(Preferences.Key.LOCALE, "en");
 
     public ReadRequiredResources(DispatchAsync dispatcher, StatementContext statementContext) {
+        this(dispatcher, statementContext, null);
+    }
+
+    /**
+     * @param cache Descriptions found in the cache are not read again, only their access control meta data is
+     *              read. Descriptions which are read are put into the cache.
+     */
+    public ReadRequiredResources(DispatchAsync dispatcher, StatementContext statementContext,
+            ResourceDescriptionCache cache) {
         this.dispatcher = dispatcher;
         this.statementContext = statementContext;
+        this.cache = cache;
         this.input = new ArrayList<>();
     }
 
     public void add(AddressTemplate addressTemplate, boolean recursive) {
 
+        ModelNode address = addressTemplate.resolve(statementContext);
+        String key = ResourceDescriptionCache.key(address, recursive);
+        ResourceDescription cached = cache != null ? cache.get(key) : null;
 
         ModelNode operation = new ModelNode();
-        operation.get(ADDRESS).set(addressTemplate.resolve(statementContext));
+        operation.get(ADDRESS).set(address);
         operation.get(OP).set(READ_RESOURCE_DESCRIPTION_OPERATION);
         operation.get(OPERATIONS).set(true);
-        operation.get(ACCESS_CONTROL).set(COMBINED_DESCRIPTIONS);
+        operation.get(ACCESS_CONTROL).set(cached != null ? TRIM_DESCRIPTIONS : COMBINED_DESCRIPTIONS);
         operation.get(LOCALE).set(locale);
         if (recursive) {
             operation.get("recursive-depth").set(2); // Workaround: Some browsers choke on two big payload size
@@ -86,9 +110,44 @@ public class ReadRequiredResources implements Function<RequiredResourcesContext>
         operation.get(INCLUDE_ALIASES).set(true); // TODO Test if this is still necessary once WFLY-2738 is fixed
         // TODO What about notifications?
 
-        input.add(new Input(addressTemplate, operation));
+        input.add(new Input(addressTemplate, operation, key, cached));
+    }
+
+    public boolean isEmpty() {
+        return input.isEmpty();
+    }
+
+    /**
+     * Overrides the default priority of the composite operation, e.g. {@link Priority#BACKGROUND} for prefetching.
+     */
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Whether the composite operation is cancelled as soon as the user dispatches another request, see {@link
+     * DMRAction#setYielding(boolean)}. The control is aborted with a {@link CancelledException} then.
+     */
+    public void setYielding(boolean yielding) {
+        this.yielding = yielding;
+    }
+
+    /**
+     * Cancels the composite operation if it's still pending. The control is aborted with a {@link
+     * CancelledException}.
+     */
+    public void cancel() {
+        if (request != null) {
+            request.cancel();
+            request = null;
+        }
     }
 
+    /**
+     * Executes the composite operation. The composite is tagged with the address templates it carries: its parser
+     * maps the "step-n" results back to the templates of this composite only, so several instances can be executed
+     * at the same time.
+     */
     @Override
     public void execute(Control<RequiredResourcesContext> control) {
         ModelNode comp = new ModelNode();
@@ -104,7 +163,12 @@ public class ReadRequiredResources implements Function<RequiredResourcesContext>
             stepToInput.put("step-" + index, in);
         }
         comp.get(STEPS).set(steps);
-        dispatcher.execute(new DMRAction(comp), new Parser(control, steps, stepToInput));
+        DMRAction action = new DMRAction(comp);
+        if (priority != null) {
+            action.setPriority(priority);
+        }
+        action.setYielding(yielding);
+        request = dispatcher.execute(action, new Parser(control, steps, stepToInput));
     }
 
 
@@ -113,15 +177,19 @@ public class ReadRequiredResources implements Function<RequiredResourcesContext>
     private static class Input {
         final AddressTemplate addressTemplate;
         final ModelNode operation;
+        final String key;
+        final ResourceDescription cached;
 
-        public Input(AddressTemplate ref, ModelNode operation) {
+        public Input(AddressTemplate ref, ModelNode operation, String key, ResourceDescription cached) {
 
             this.addressTemplate = ref;
             this.operation = operation;
+            this.key = key;
+            this.cached = cached;
         }
     }
 
-    private class Parser implements AsyncCallback<DMRResponse> {
+    private class Parser implements AsyncCallback<DMRResponse>, CancellationAware {
 
         private final Control<RequiredResourcesContext> control;
         private final List<ModelNode> steps;
@@ -142,7 +210,9 @@ public class ReadRequiredResources implements Function<RequiredResourcesContext>
         @Override
         public void onFailure(Throwable caught) {
             control.getContext().setError(caught);
-            caught.printStackTrace();
+            if (!(caught instanceof CancelledException)) {
+                caught.printStackTrace();
+            }
             control.abort();
         }
 
@@ -156,6 +226,14 @@ public class ReadRequiredResources implements Function<RequiredResourcesContext>
 
             } else {
                 ModelNode compositeResult = response.get(RESULT);
+                if (!correlates(compositeResult)) {
+                    control.getContext().setError(
+                            new RuntimeException("Composite result doesn't match its steps: " + stepToInput.keySet()));
+                    control.abort();
+                    return;
+                }
+                control.getContext().addResponseSize(steps.size(), dmrResponse.size());
+
                 for (int i = 1; i <= steps.size(); i++) {
                     String step = "step-" + i;
                     if (compositeResult.hasDefined(step)) {
@@ -201,11 +279,19 @@ public class ReadRequiredResources implements Function<RequiredResourcesContext>
                                         new RuntimeException("Unexpected response format at address: "+in.addressTemplate.toString())
                                 );
                                 control.abort();
+                                return;
                             }
                         } else {
                             payload = stepResult;
                         }
 
+                        if (in.cached != null) {
+                            // only the access control meta data was read
+                            payload = withAccessControl(in, payload);
+                        } else if (cache != null) {
+                            cache.put(in.key, in.addressTemplate, new ResourceDescription(payload));
+                        }
+
                         // add the description to the registry
                        /* ResourceDescriptionRegistry resourceDescriptionRegistry = control.getContext().getResourceDescriptionRegistry();
                         resourceDescriptionRegistry.add(
@@ -215,7 +301,7 @@ public class ReadRequiredResources implements Function<RequiredResourcesContext>
 
                         control.getContext().addDescriptionResult(
                                 in.addressTemplate,
-                                new org.jboss.as.console.client.v3.dmr.ResourceDescription(payload)
+                                new ResourceDescription(payload)
                         );
 
                         // extract and register the access control meta data
@@ -232,6 +318,97 @@ public class ReadRequiredResources implements Function<RequiredResourcesContext>
             control.proceed();
         }
 
+        /**
+         * Whether the result contains the steps of this composite only and each step answers the address of its
+         * input: wildcard addresses return a list of descriptions, at least one of them for the address of the input,
+         * other addresses return a single description.
+         */
+        private boolean correlates(ModelNode compositeResult) {
+            if (!compositeResult.isDefined()) {
+                return false;
+            }
+            for (String step : compositeResult.keys()) {
+                Input in = stepToInput.get(step);
+                if (in == null) {
+                    return false;
+                }
+                ModelNode stepResult = compositeResult.get(step).get(RESULT);
+                if (stepResult.isDefined() && !answers(in, stepResult)) {
+                    Log.error("Result of " + step + " doesn't match " + in.addressTemplate);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean answers(Input in, ModelNode stepResult) {
+            List<ModelNode> inquiryAddress = in.operation.hasDefined(ADDRESS)
+                    ? in.operation.get(ADDRESS).asList() : Collections.<ModelNode>emptyList();
+            boolean wildcard = false;
+            for (ModelNode segment : inquiryAddress) {
+                wildcard |= "*".equals(segment.asProperty().getValue().asString());
+            }
+            if (stepResult.getType() != ModelType.LIST) {
+                return !wildcard;
+            }
+            if (!wildcard) {
+                return false;
+            }
+            for (ModelNode node : stepResult.asList()) {
+                // same rules as for picking the payload in onSuccess()
+                List<ModelNode> responseAddress = node.hasDefined(ADDRESS)
+                        ? node.get(ADDRESS).asList() : Collections.<ModelNode>emptyList();
+                if (!responseAddress.isEmpty() && responseAddress.size() <= inquiryAddress.size()
+                        && matchingAddress(responseAddress, inquiryAddress)
+                        || node.get(RESULT).hasDefined(STORAGE)
+                        && RUNTIME_ONLY.equals(node.get(RESULT).get(STORAGE).asString())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Replaces the access control meta data of the cached description and its child descriptions with the
+         * one just read. The cached description is shared, so a copy is changed. If the child resources don't match,
+         * the cached description is outdated and dropped from the cache, so that it's read completely next time.
+         */
+        private ModelNode withAccessControl(Input in, ModelNode trimmed) {
+            ModelNode description = in.cached.clone();
+            if (!mergeAccessControl(description, trimmed)) {
+                Log.info("Cached description of " + in.addressTemplate + " is outdated");
+                cache.remove(in.key);
+            }
+            return description;
+        }
+
+        private boolean mergeAccessControl(ModelNode description, ModelNode trimmed) {
+            boolean complete = true;
+            if (trimmed.hasDefined(ACCESS_CONTROL)) {
+                description.get(ACCESS_CONTROL).set(trimmed.get(ACCESS_CONTROL));
+            }
+            if (trimmed.hasDefined(CHILDREN)) {
+                for (Property child : trimmed.get(CHILDREN).asPropertyList()) {
+                    if (child.getValue().hasDefined(MODEL_DESCRIPTION)) {
+                        for (Property model : child.getValue().get(MODEL_DESCRIPTION).asPropertyList()) {
+                            if (description.hasDefined(CHILDREN)
+                                    && description.get(CHILDREN).hasDefined(child.getName())
+                                    && description.get(CHILDREN, child.getName()).hasDefined(MODEL_DESCRIPTION)
+                                    && description.get(CHILDREN, child.getName(), MODEL_DESCRIPTION)
+                                    .hasDefined(model.getName())) {
+                                complete &= mergeAccessControl(
+                                        description.get(CHILDREN, child.getName(), MODEL_DESCRIPTION, model.getName()),
+                                        model.getValue());
+                            } else {
+                                complete = false;
+                            }
+                        }
+                    }
+                }
+            }
+            return complete;
+        }
+
         private boolean matchingAddress(List<ModelNode> responseAddress, List<ModelNode> inquiryAddress) {
             int numMatchingTokens = 0;
             int offset = inquiryAddress.size() - responseAddress.size();
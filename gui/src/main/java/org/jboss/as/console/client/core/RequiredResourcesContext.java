@@ -41,6 +41,8 @@ public class RequiredResourcesContext {
     private Map<AddressTemplate, ResourceDescription> descriptions = new HashMap<>();
     private Map<AddressTemplate, Constraints> parentConstraints = new HashMap<>();
     private Map<AddressTemplate, Map<String,Constraints>> childConstraints = new HashMap<>();
+    private int resources;
+    private long responseSize;
 
     public RequiredResourcesContext(String token) {
         this.token = token;
@@ -73,6 +75,28 @@ public class RequiredResourcesContext {
         childConstraints.get(addressTemplate).put(resolvedKey, constraints);
     }
 
+    /**
+     * Records the size of a response, which contained the descriptions of the given number of resources.
+     */
+    public void addResponseSize(int resources, int size) {
+        this.resources += resources;
+        this.responseSize += size;
+    }
+
+    /**
+     * The average size of a response per resource or -1 if there was no response yet.
+     */
+    public int getAverageResponseSize() {
+        return resources > 0 ? (int) (responseSize / resources) : -1;
+    }
+
+    /**
+     * The total size of the responses (number of base64 characters).
+     */
+    public long getResponseSize() {
+        return responseSize;
+    }
+
     public Map<AddressTemplate, ResourceDescription> getDescriptions() {
         return descriptions;
     }
@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.client.core;
+
+import com.allen_sauer.gwt.log.client.Log;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.web.bindery.event.shared.EventBus;
+import com.gwtplatform.mvp.client.proxy.NavigationEvent;
+import com.gwtplatform.mvp.client.proxy.NavigationHandler;
+import org.jboss.dmr.client.dispatch.CancelledException;
+
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+
+/**
+ * Prefetches the resource descriptions of the places which can be reached from the current finder column, while the
+ * user is idle. Finder columns {@linkplain #schedule(Collection) schedule} the name tokens of their items once the
+ * items are shown, e.g. the subsystems of the selected profile.
+ * <p>
+ * After {@link #IDLE_DELAY} ms the places are prefetched one after another using background requests, so they never
+ * compete with the requests of the current place. Prefetching stops as soon as the user navigates or a place is
+ * processed, and for the rest of the session once {@link #BUDGET} characters have been read. Any other request of the
+ * user cancels the running prefetch, which resumes once the user is idle again.
+ */
+public class RequiredResourcesPrefetch implements NavigationHandler {
+
+    private static final int IDLE_DELAY = 2000;
+
+    /**
+     * Upper limit of the descriptions prefetched per session (number of base64 characters).
+     */
+    private static final long BUDGET = 4 * 1024 * 1024;
+
+    private final RequiredResourcesProcessor processor;
+    private final LinkedList<String> pending;
+    private final Set<String> prefetched;
+    private final Timer timer;
+    private long used;
+    private int generation;
+
+    @Inject
+    public RequiredResourcesPrefetch(EventBus eventBus, RequiredResourcesProcessor processor) {
+        this.processor = processor;
+        this.pending = new LinkedList<>();
+        this.prefetched = new HashSet<>();
+        this.timer = new Timer() {
+            @Override
+            public void run() {
+                next(generation);
+            }
+        };
+        eventBus.addHandler(NavigationEvent.getType(), this);
+    }
+
+    /**
+     * Replaces the places to prefetch and (re)starts the idle timer.
+     */
+    public void schedule(Collection<String> tokens) {
+        cancel();
+        for (String token : tokens) {
+            if (token != null && !prefetched.contains(token) && !pending.contains(token)) {
+                pending.add(token);
+            }
+        }
+        if (!pending.isEmpty() && used < BUDGET) {
+            timer.schedule(IDLE_DELAY);
+        }
+    }
+
+    public void cancel() {
+        generation++;
+        timer.cancel();
+        pending.clear();
+        processor.cancelPrefetch();
+    }
+
+    @Override
+    public void onNavigation(NavigationEvent navigationEvent) {
+        cancel();
+    }
+
+    private void next(final int scheduled) {
+        if (scheduled != generation || pending.isEmpty()) {
+            return;
+        }
+        if (used >= BUDGET) {
+            pending.clear();
+            return;
+        }
+
+        final String token = pending.removeFirst();
+        processor.prefetch(token, new AsyncCallback<Long>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                if (caught instanceof CancelledException) {
+                    // real traffic started: wait until the user is idle again
+                    if (scheduled == generation) {
+                        pending.addFirst(token);
+                        timer.schedule(IDLE_DELAY);
+                    }
+                } else {
+                    Log.error("Failed to prefetch " + token + ": " + caught.getMessage());
+                    next(scheduled);
+                }
+            }
+
+            @Override
+            public void onSuccess(Long size) {
+                prefetched.add(token);
+                used += size;
+                next(scheduled);
+            }
+        });
+    }
+}
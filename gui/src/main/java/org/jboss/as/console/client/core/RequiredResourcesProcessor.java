@@ -21,17 +21,21 @@
  */
 package org.jboss.as.console.client.core;
 
+import com.allen_sauer.gwt.log.client.Log;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.inject.Inject;
 import org.jboss.as.console.client.plugins.RequiredResourcesRegistry;
 import org.jboss.as.console.client.rbac.NoGatekeeperContext;
 import org.jboss.as.console.client.rbac.SecurityContextImpl;
 import org.jboss.as.console.client.rbac.SecurityFramework;
+import org.jboss.as.console.client.shared.Preferences;
+import org.jboss.as.console.client.v3.ResourceDescriptionCache;
 import org.jboss.as.console.client.v3.ResourceDescriptionRegistry;
 import org.jboss.as.console.client.v3.dmr.AddressTemplate;
 import org.jboss.as.console.mbui.behaviour.CoreGUIContext;
 import org.jboss.ballroom.client.rbac.SecurityContext;
 import org.jboss.dmr.client.dispatch.DispatchAsync;
+import org.jboss.dmr.client.dispatch.Priority;
 import org.jboss.gwt.flow.client.Async;
 import org.jboss.gwt.flow.client.Outcome;
 import org.useware.kernel.gui.behaviour.FilteringStatementContext;
@@ -49,16 +53,33 @@ import java.util.Set;
 public class RequiredResourcesProcessor {
 
     /**
-     * Number of required resources which are loaded as part of one composite operation.
+     * Number of required resources which are loaded as part of one composite operation until the size of the
+     * responses is known.
      */
-    private final static int BATCH_SIZE = 3;
+    private final static int DEFAULT_BATCH_SIZE = 3;
+    private final static int MAX_BATCH_SIZE = 12;
+
+    /**
+     * Once the size of the responses is known, the batch size is chosen so that a response has about this size
+     * (number of base64 characters).
+     */
+    private final static int TARGET_RESPONSE_SIZE = 256 * 1024;
+
+    /**
+     * Number of composite operations which are executed at the same time, unless specified by {@link
+     * Preferences.Key#DESCRIPTION_PARALLELISM}.
+     */
+    private final static int DEFAULT_PARALLELISM = 3;
 
     private final DispatchAsync dispatcher;
     private final RequiredResourcesRegistry requiredResourcesRegistry;
     private final NameTokenRegistry nameTokenRegistry;
     private final ResourceDescriptionRegistry resourceDescriptionRegistry;
+    private final ResourceDescriptionCache resourceDescriptionCache;
     private final SecurityFramework securityFramework;
     private final StatementContext statementContext;
+    private int averageResponseSize = -1;
+    private ReadRequiredResources prefetching;
 
     @Inject
     protected RequiredResourcesProcessor(DispatchAsync dispatcher,
@@ -66,17 +87,20 @@ public class RequiredResourcesProcessor {
                                          NameTokenRegistry nameTokenRegistry,
                                          RequiredResourcesRegistry requiredResourcesRegistry,
                                          ResourceDescriptionRegistry resourceDescriptionRegistry,
+                                         ResourceDescriptionCache resourceDescriptionCache,
                                          SecurityFramework securityFramework,
                                          CoreGUIContext statementContext) {
         this.dispatcher = dispatcher;
         this.nameTokenRegistry = nameTokenRegistry;
         this.requiredResourcesRegistry = requiredResourcesRegistry;
         this.resourceDescriptionRegistry = resourceDescriptionRegistry;
+        this.resourceDescriptionCache = resourceDescriptionCache;
         this.securityFramework = securityFramework;
         this.statementContext = new FilteringStatementContext(statementContext, new RequiredResourcesFilter(bootstrap));
     }
 
     public void process(final String token, final AsyncCallback<Void> callback) {
+        cancelPrefetch();
         if (!nameTokenRegistry.wasRevealed(token)) {
 
             Set<AddressTemplate> requiredResources = new HashSet<>();
@@ -89,19 +113,23 @@ public class RequiredResourcesProcessor {
                 finishWithContext(token, new NoGatekeeperContext(), callback);
 
             } else {
-                List<ReadRequiredResources> functions = partition(requiredResources, recursive, BATCH_SIZE);
+                int parallelism = parallelism();
+                int batchSize = batchSize(requiredResources.size(), parallelism);
+                List<ReadRequiredResources> functions = partition(requiredResources, recursive, batchSize);
 
-                System.out.println("Num partitions: "+functions.size());
+                Log.debug("Num partitions: " + functions.size() + " (batch size " + batchSize + ")");
 
                 RequiredResourcesContext context = new RequiredResourcesContext(token);
                 Outcome<RequiredResourcesContext> outcome = new Outcome<RequiredResourcesContext>() {
                     @Override
                     public void onFailure(RequiredResourcesContext context) {
+                        learnResponseSize(context);
                         callback.onFailure(context.getError());
                     }
 
                     @Override
                     public void onSuccess(RequiredResourcesContext context) {
+                        learnResponseSize(context);
 
                         // push to registry
                         for (AddressTemplate addressTemplate : context.getDescriptions().keySet()) {
@@ -112,9 +140,8 @@ public class RequiredResourcesProcessor {
                     }
                 };
                 //noinspection unchecked
-                // Unfortunately we cannot use Async.parallel() here unless someone finds a way
-                // to unambiguously map parallel r-r-d operations to their results (multiple "step-1" results)
-                new Async<RequiredResourcesContext>(Footer.PROGRESS_ELEMENT).waterfall(context, outcome,
+                // each composite maps its "step-n" results to its own address templates
+                new Async<RequiredResourcesContext>(Footer.PROGRESS_ELEMENT).parallel(context, outcome, parallelism,
                         functions.toArray(new ReadRequiredResources[functions.size()]));
             }
         } else {
@@ -122,6 +149,70 @@ public class RequiredResourcesProcessor {
         }
     }
 
+    /**
+     * Reads the descriptions of the required resources of a place, which was not revealed yet, into the {@link
+     * ResourceDescriptionCache} using a background request. Descriptions which are cached already are skipped. The
+     * security context is assigned when the place is actually processed, which only reads the access control meta
+     * data of cached descriptions. A pending prefetch is cancelled by {@link #process(String, AsyncCallback)}; its
+     * callback is not notified then. If the user dispatches another request, the prefetch is cancelled and its
+     * callback receives a {@link org.jboss.dmr.client.dispatch.CancelledException}.
+     *
+     * @param callback receives the size of the response (number of base64 characters) or 0 if there was nothing to
+     *                 read
+     */
+    void prefetch(final String token, final AsyncCallback<Long> callback) {
+        cancelPrefetch();
+        if (nameTokenRegistry.wasRevealed(token)) {
+            callback.onSuccess(0L);
+            return;
+        }
+
+        boolean recursive = requiredResourcesRegistry.isRecursive(token);
+        final ReadRequiredResources rrr = new ReadRequiredResources(dispatcher, statementContext,
+                resourceDescriptionCache);
+        rrr.setPriority(Priority.BACKGROUND);
+        rrr.setYielding(true);
+        for (String s : requiredResourcesRegistry.getResources(token)) {
+            AddressTemplate template = AddressTemplate.of(s);
+            String key = ResourceDescriptionCache.key(template.resolve(statementContext), recursive);
+            if (resourceDescriptionCache.get(key) == null) {
+                rrr.add(template, recursive);
+            }
+        }
+        if (rrr.isEmpty()) {
+            callback.onSuccess(0L);
+            return;
+        }
+
+        prefetching = rrr;
+        new Async<RequiredResourcesContext>().single(new RequiredResourcesContext(token),
+                new Outcome<RequiredResourcesContext>() {
+                    @Override
+                    public void onFailure(RequiredResourcesContext context) {
+                        if (prefetching == rrr) {
+                            prefetching = null;
+                            callback.onFailure(context.getError());
+                        }
+                    }
+
+                    @Override
+                    public void onSuccess(RequiredResourcesContext context) {
+                        if (prefetching == rrr) {
+                            prefetching = null;
+                            learnResponseSize(context);
+                            callback.onSuccess(context.getResponseSize());
+                        }
+                    }
+                }, rrr);
+    }
+
+    void cancelPrefetch() {
+        if (prefetching != null) {
+            prefetching.cancel();
+            prefetching = null;
+        }
+    }
+
     private void finishWithContext(String token, SecurityContext securityContext, AsyncCallback<Void> callback) {
         nameTokenRegistry.revealed(token);
         securityFramework.assignContext(token, securityContext);
@@ -136,6 +227,35 @@ public class RequiredResourcesProcessor {
         callback.onSuccess(null);
     }
 
+    private int parallelism() {
+        try {
+            return Math.max(1, Integer.parseInt(Preferences.get(Preferences.Key.DESCRIPTION_PARALLELISM,
+                    String.valueOf(DEFAULT_PARALLELISM))));
+        } catch (NumberFormatException e) {
+            return DEFAULT_PARALLELISM;
+        }
+    }
+
+    /**
+     * Adapts the batch size to the size of previous responses, but spreads small sets of resources over the parallel
+     * composites.
+     */
+    private int batchSize(int resources, int parallelism) {
+        int batchSize = DEFAULT_BATCH_SIZE;
+        if (averageResponseSize > 0) {
+            batchSize = Math.max(1, Math.min(MAX_BATCH_SIZE, TARGET_RESPONSE_SIZE / averageResponseSize));
+        }
+        int spread = (resources + parallelism - 1) / parallelism;
+        return Math.max(1, Math.min(batchSize, spread));
+    }
+
+    private void learnResponseSize(RequiredResourcesContext context) {
+        int size = context.getAverageResponseSize();
+        if (size > 0) {
+            averageResponseSize = averageResponseSize > 0 ? (2 * averageResponseSize + size) / 3 : size;
+        }
+    }
+
     private List<ReadRequiredResources> partition(Set<AddressTemplate> requiredResources, boolean recursive, int batchSize) {
         int index = 0;
         List<ReadRequiredResources> functions = new ArrayList<>();
@@ -143,7 +263,7 @@ public class RequiredResourcesProcessor {
         ReadRequiredResources rrr = null;
         for (Iterator<AddressTemplate> iterator = requiredResources.iterator(); iterator.hasNext(); index++) {
             if (index % batchSize == 0) {
-                rrr = new ReadRequiredResources(dispatcher, statementContext);
+                rrr = new ReadRequiredResources(dispatcher, statementContext, resourceDescriptionCache);
                 functions.add(rrr);
             }
             assert rrr != null;
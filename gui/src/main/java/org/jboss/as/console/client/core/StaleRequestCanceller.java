@@ -0,0 +1,27 @@
+package org.jboss.as.console.client.core;
+
+import com.google.web.bindery.event.shared.EventBus;
+import com.gwtplatform.mvp.client.proxy.NavigationEvent;
+import com.gwtplatform.mvp.client.proxy.NavigationHandler;
+import org.jboss.dmr.client.dispatch.DispatchAsync;
+
+import javax.inject.Inject;
+
+/**
+ * Cancels the pending read requests of the previous place when the user navigates to another place.
+ */
+public class StaleRequestCanceller implements NavigationHandler {
+
+    private final DispatchAsync dispatcher;
+
+    @Inject
+    public StaleRequestCanceller(EventBus eventBus, DispatchAsync dispatcher) {
+        this.dispatcher = dispatcher;
+        eventBus.addHandler(NavigationEvent.getType(), this);
+    }
+
+    @Override
+    public void onNavigation(NavigationEvent navigationEvent) {
+        dispatcher.cancelStaleRequests(navigationEvent.getRequest().getNameToken());
+    }
+}
@@ -35,6 +35,7 @@ public class BootstrapSteps {
     private final ExecutionMode executionMode;
     private final TrackExecutionMode trackExecutionMode;
     private final LoadCompatMatrix loadCompatMatrix;
+    private final LoadResourceDescriptions loadResourceDescriptions;
     private final RegisterSubsystems registerSubsystems;
     private final EagerLoadProfiles eagerLoadProfiles;
     private final HostStoreInit hostStoreInit;
@@ -47,6 +48,7 @@ public class BootstrapSteps {
                           ExecutionMode executionMode,
                           TrackExecutionMode trackExecutionMode,
                           LoadCompatMatrix loadCompatMatrix,
+                          LoadResourceDescriptions loadResourceDescriptions,
                           RegisterSubsystems registerSubsystems,
                           EagerLoadProfiles eagerLoadProfiles,
                           HostStoreInit hostStoreInit,
@@ -57,6 +59,7 @@ public class BootstrapSteps {
         this.executionMode = executionMode;
         this.trackExecutionMode = trackExecutionMode;
         this.loadCompatMatrix = loadCompatMatrix;
+        this.loadResourceDescriptions = loadResourceDescriptions;
         this.registerSubsystems = registerSubsystems;
         this.eagerLoadProfiles = eagerLoadProfiles;
         this.hostStoreInit = hostStoreInit;
@@ -71,6 +74,7 @@ public class BootstrapSteps {
                 executionMode,
                 trackExecutionMode,
                 loadCompatMatrix,
+                loadResourceDescriptions,
                 registerSubsystems,
                 eagerLoadProfiles,
                 hostStoreInit,
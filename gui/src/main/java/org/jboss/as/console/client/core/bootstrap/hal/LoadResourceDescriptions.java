@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.client.core.bootstrap.hal;
+
+import com.allen_sauer.gwt.log.client.Log;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.inject.Inject;
+import org.jboss.as.console.client.core.BootstrapContext;
+import org.jboss.as.console.client.shared.Preferences;
+import org.jboss.as.console.client.v3.ResourceDescriptionCache;
+import org.jboss.as.console.client.v3.ResourceDescriptionRegistry;
+import org.jboss.gwt.flow.client.Control;
+
+/**
+ * Registers the resource descriptions kept from previous sessions with the {@link ResourceDescriptionRegistry}. Must
+ * run after the execution mode is known, since the descriptions are kept per version and role.
+ */
+public class LoadResourceDescriptions implements BootstrapStep {
+
+    private final ResourceDescriptionCache cache;
+    private final ResourceDescriptionRegistry registry;
+
+    @Inject
+    public LoadResourceDescriptions(ResourceDescriptionCache cache, ResourceDescriptionRegistry registry) {
+        this.cache = cache;
+        this.registry = registry;
+    }
+
+    @Override
+    public void execute(final Control<BootstrapContext> control) {
+        String scope = ResourceDescriptionCache.scope(control.getContext(),
+                Preferences.get(Preferences.Key.LOCALE, "en"));
+
+        cache.load(scope, new AsyncCallback<Integer>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                // not needed to proceed, the descriptions are read when they're required
+                Log.error("Unable to load resource descriptions: " + caught.getMessage());
+                control.proceed();
+            }
+
+            @Override
+            public void onSuccess(Integer count) {
+                // decoded on first lookup, not to block the bootstrap
+                registry.addCached(cache, cache.templates());
+                Log.info("Loaded " + count + " resource descriptions");
+                control.proceed();
+            }
+        });
+    }
+}
@@ -54,7 +54,9 @@ import org.jboss.as.console.client.core.MainLayoutPresenter;
 import org.jboss.as.console.client.core.MainLayoutViewImpl;
 import org.jboss.as.console.client.core.NameTokenRegistry;
 import org.jboss.as.console.client.core.NewTokenFormatter;
+import org.jboss.as.console.client.core.RequiredResourcesPrefetch;
 import org.jboss.as.console.client.core.RequiredResourcesProcessor;
+import org.jboss.as.console.client.core.StaleRequestCanceller;
 import org.jboss.as.console.client.core.ToplevelTabs;
 import org.jboss.as.console.client.core.bootstrap.Bootstrapper;
 import org.jboss.as.console.client.core.bootstrap.cors.BootstrapServerSetup;
@@ -64,6 +66,7 @@ import org.jboss.as.console.client.core.bootstrap.hal.EagerLoadProfiles;
 import org.jboss.as.console.client.core.bootstrap.hal.ExecutionMode;
 import org.jboss.as.console.client.core.bootstrap.hal.HostStoreInit;
 import org.jboss.as.console.client.core.bootstrap.hal.LoadCompatMatrix;
+import org.jboss.as.console.client.core.bootstrap.hal.LoadResourceDescriptions;
 import org.jboss.as.console.client.core.bootstrap.hal.LoadGoogleViz;
 import org.jboss.as.console.client.core.bootstrap.hal.RegisterSubsystems;
 import org.jboss.as.console.client.core.bootstrap.hal.ServerStoreInit;
@@ -295,6 +298,7 @@ import org.jboss.as.console.client.tools.ToolsView;
 import org.jboss.as.console.client.tools.modelling.workbench.repository.RepositoryPresenter;
 import org.jboss.as.console.client.tools.modelling.workbench.repository.RepositoryView;
 import org.jboss.as.console.client.tools.modelling.workbench.repository.SampleRepository;
+import org.jboss.as.console.client.v3.ResourceDescriptionCache;
 import org.jboss.as.console.client.v3.ResourceDescriptionRegistry;
 import org.jboss.as.console.client.v3.deployment.DeploymentBrowseContentPresenter;
 import org.jboss.as.console.client.v3.deployment.DeploymentBrowseContentView;
@@ -886,6 +890,7 @@ public class CoreUIModule extends AbstractPresenterModule {
         bind(DomainEndpointStrategy.class).in(Singleton.class);
         bind(RequiredResourcesRegistry.class).to(RequiredResourcesRegistryImpl.class).in(Singleton.class);
         bind(ResourceDescriptionRegistry.class).in(Singleton.class);
+        bind(ResourceDescriptionCache.class).in(Singleton.class);
         bind(SearchIndexRegistry.class).to(SearchIndexRegistryImpl.class).in(Singleton.class);
         bind(SubsystemRegistry.class).to(SubsystemRegistryImpl.class).in(Singleton.class);
         bind(RuntimeExtensionRegistry.class).to(RuntimeLHSItemExtensionRegistryImpl.class).in(Singleton.class);
@@ -904,6 +909,7 @@ public class CoreUIModule extends AbstractPresenterModule {
         bind(ExecutionMode.class).in(Singleton.class);
         bind(TrackExecutionMode.class).in(Singleton.class);
         bind(LoadCompatMatrix.class).in(Singleton.class);
+        bind(LoadResourceDescriptions.class).in(Singleton.class);
         bind(RegisterSubsystems.class).in(Singleton.class);
         bind(EagerLoadProfiles.class).in(Singleton.class);
         bind(HostStoreInit.class).in(Singleton.class);
@@ -919,6 +925,7 @@ public class CoreUIModule extends AbstractPresenterModule {
 
         bind(StandaloneEndpointStrategy.class).in(Singleton.class);
         bind(RequiredResourcesProcessor.class).in(Singleton.class);
+        bind(RequiredResourcesPrefetch.class).in(Singleton.class);
 
         /* use this to test against 6.x until the RBAC facilities are available */
         //bind(SecurityFramework.class).to(MockSecurityFramework.class).in(Singleton.class);
@@ -956,6 +963,7 @@ public class CoreUIModule extends AbstractPresenterModule {
         bindConstant().annotatedWith(GaAccount.class).to("UA-69530797-1");
         bind(GoogleAnalytics.class).toProvider(AnalyticsProvider.class).in(Singleton.class);
         bind(NavigationTracker.class).asEagerSingleton();
+        bind(StaleRequestCanceller.class).asEagerSingleton();
 
         bind(ModelVersions.class).in(Singleton.class);
         bind(FeatureSet.class).in(Singleton.class);
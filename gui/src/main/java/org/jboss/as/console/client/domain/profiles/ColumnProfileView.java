@@ -30,6 +30,7 @@ import com.gwtplatform.mvp.shared.proxy.PlaceRequest;
 import org.jboss.as.console.client.Console;
 import org.jboss.as.console.client.core.FeatureSet;
 import org.jboss.as.console.client.core.NameTokens;
+import org.jboss.as.console.client.core.RequiredResourcesPrefetch;
 import org.jboss.as.console.client.core.SuspendableViewImpl;
 import org.jboss.as.console.client.core.UIConstants;
 import org.jboss.as.console.client.domain.events.ProfileSelectionEvent;
@@ -93,6 +94,7 @@ public class ColumnProfileView extends SuspendableViewImpl
     private final PlaceManager placeManager;
     private final PreviewContentFactory contentFactory;
     private final FeatureSet featureSet;
+    private final RequiredResourcesPrefetch prefetch;
 
     private SplitLayoutPanel splitlayout;
     private LayoutPanel contentCanvas;
@@ -122,11 +124,13 @@ public class ColumnProfileView extends SuspendableViewImpl
 
 
     @Inject
-    public ColumnProfileView(final PlaceManager placeManager, PreviewContentFactory contentFactory, FeatureSet featureSet) {
+    public ColumnProfileView(final PlaceManager placeManager, PreviewContentFactory contentFactory, FeatureSet featureSet,
+            RequiredResourcesPrefetch prefetch) {
         super();
         this.placeManager = placeManager;
         this.contentFactory = contentFactory;
         this.featureSet = featureSet;
+        this.prefetch = prefetch;
 
         contentCanvas = new LayoutPanel();
 
@@ -596,7 +600,15 @@ public class ColumnProfileView extends SuspendableViewImpl
     @Override
     public void setSubsystems(List<SubsystemReference> subsystemRecords)
     {
-        subsystems.updateFrom(matchSubsystems(subsystemRecords), false);
+        List<SubsystemLink> links = matchSubsystems(subsystemRecords);
+        subsystems.updateFrom(links, false);
+
+        // warm the descriptions of the subsystems of the selected profile
+        List<String> tokens = new ArrayList<>();
+        for (SubsystemLink link : links) {
+            tokens.add(link.getToken());
+        }
+        prefetch.schedule(tokens);
     }
 
     @Override
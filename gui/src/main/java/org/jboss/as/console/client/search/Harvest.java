@@ -10,6 +10,7 @@ import org.jboss.as.console.mbui.model.mapping.AddressMapping;
 import org.jboss.dmr.client.ModelNode;
 import org.jboss.dmr.client.ModelType;
 import org.jboss.dmr.client.dispatch.DispatchAsync;
+import org.jboss.dmr.client.dispatch.Priority;
 import org.jboss.dmr.client.dispatch.impl.DMRAction;
 import org.jboss.dmr.client.dispatch.impl.DMRResponse;
 import org.jboss.gwt.flow.client.*;
@@ -88,7 +89,9 @@ public class Harvest {
                     @Override
                     public void execute(final Control<Map<String, SearchIndexData>> control) {
 
-                        dispatcher.execute(new DMRAction(op), new AsyncCallback<DMRResponse>() {
+                        DMRAction action = new DMRAction(op);
+                        action.setPriority(Priority.BACKGROUND);
+                        dispatcher.execute(action, new AsyncCallback<DMRResponse>() {
                             @Override
                             public void onFailure(Throwable caught) {
                                 System.out.println("Skipped " + token + " > " + resource);
@@ -36,7 +36,11 @@ public class Preferences
         LOCALE("locale", "Locale", "en"),
         ANALYTICS("analytics", "Enable Usage Data Collection?", "true"),
         RUN_AS_ROLE("run_as_role", "Run as role", null),
-        SECURITY_CONTEXT("securityCache", "Cache Security Context?", "true");
+        SECURITY_CONTEXT("securityCache", "Cache Security Context?", "true"),
+        JSON_TRANSPORT("json_transport", "Use JSON Transport?", "false"),
+        BATCH_SIZE("batch_size", "Batch Size of Read Operations", "0"),
+        MAX_REQUESTS("max_requests", "Maximum Number of Concurrent Requests", "6"),
+        DESCRIPTION_PARALLELISM("description_parallelism", "Parallel Reads of Resource Descriptions", "3");
 
 
         private String token;
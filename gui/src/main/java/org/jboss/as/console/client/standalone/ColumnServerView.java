@@ -29,6 +29,7 @@ import com.gwtplatform.mvp.client.proxy.PlaceManager;
 import com.gwtplatform.mvp.shared.proxy.PlaceRequest;
 import org.jboss.as.console.client.Console;
 import org.jboss.as.console.client.core.NameTokens;
+import org.jboss.as.console.client.core.RequiredResourcesPrefetch;
 import org.jboss.as.console.client.core.SuspendableViewImpl;
 import org.jboss.as.console.client.domain.model.SimpleCallback;
 import org.jboss.as.console.client.plugins.SubsystemExtensionMetaData;
@@ -78,6 +79,7 @@ public class ColumnServerView extends SuspendableViewImpl
     private final Widget configColWidget;
     private final PlaceManager placeManager;
     private final PreviewContentFactory contentFactory;
+    private final RequiredResourcesPrefetch prefetch;
 
     private SplitLayoutPanel splitlayout;
     private LayoutPanel contentCanvas;
@@ -92,10 +94,12 @@ public class ColumnServerView extends SuspendableViewImpl
 
 
     @Inject
-    public ColumnServerView(final PlaceManager placeManager, PreviewContentFactory contentFactory) {
+    public ColumnServerView(final PlaceManager placeManager, PreviewContentFactory contentFactory,
+            RequiredResourcesPrefetch prefetch) {
         super();
         this.placeManager = placeManager;
         this.contentFactory = contentFactory;
+        this.prefetch = prefetch;
 
         contentCanvas = new LayoutPanel();
 
@@ -383,8 +387,15 @@ public class ColumnServerView extends SuspendableViewImpl
     @Override
     public void updateFrom(List<SubsystemRecord> subsystemRecords) {
 
-        subsystems.updateFrom(matchSubsystems(subsystemRecords), false);
+        List<SubsystemLink> links = matchSubsystems(subsystemRecords);
+        subsystems.updateFrom(links, false);
 
+        // warm the descriptions of the subsystems
+        List<String> tokens = new ArrayList<>();
+        for (SubsystemLink link : links) {
+            tokens.add(link.getToken());
+        }
+        prefetch.schedule(tokens);
     }
 
     @Override
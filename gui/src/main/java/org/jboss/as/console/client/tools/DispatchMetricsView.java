@@ -0,0 +1,123 @@
+package org.jboss.as.console.client.tools;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.event.dom.client.ClickEvent;
+import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
+import com.google.gwt.user.client.ui.HTML;
+import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.TextArea;
+import com.google.gwt.user.client.ui.VerticalPanel;
+import com.google.gwt.user.client.ui.Widget;
+import org.jboss.as.console.client.Console;
+import org.jboss.ballroom.client.widgets.tools.ToolButton;
+import org.jboss.ballroom.client.widgets.tools.ToolStrip;
+import org.jboss.ballroom.client.widgets.window.DefaultWindow;
+import org.jboss.dmr.client.dispatch.DispatchMetrics;
+import org.jboss.dmr.client.dispatch.Histogram;
+
+/**
+ * Shows the latency and payload metrics of the management operations grouped by operation and address template.
+ */
+public class DispatchMetricsView {
+
+    private DispatchMetrics metrics = DispatchMetrics.INSTANCE;
+
+    private HTML table;
+    private boolean refreshScheduled;
+
+    public DispatchMetricsView() {
+        this.table = new HTML();
+
+        metrics.addListener(new DispatchMetrics.Listener() {
+            @Override
+            public void onChange() {
+                // metrics change with every request: refresh once per event loop turn
+                if (!refreshScheduled) {
+                    refreshScheduled = true;
+                    Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
+                        @Override
+                        public void execute() {
+                            refreshScheduled = false;
+                            updateTable();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private void updateTable() {
+        SafeHtmlBuilder html = new SafeHtmlBuilder();
+        html.appendHtmlConstant("<table width='100%' border=0><thead><tr>");
+        html.appendHtmlConstant("<th>Operation</th><th>Count</th>");
+        for (DispatchMetrics.Metric metric : DispatchMetrics.Metric.values()) {
+            html.appendHtmlConstant("<th>").appendEscaped(metric.getLabel() + " p50 / p90 / max")
+                    .appendHtmlConstant("</th>");
+        }
+        html.appendHtmlConstant("</tr></thead><tbody>");
+        for (DispatchMetrics.Group group : metrics.getGroups()) {
+            html.appendHtmlConstant("<tr><td>").appendEscaped(group.getName()).appendHtmlConstant("</td>");
+            html.appendHtmlConstant("<td>").append(group.get(DispatchMetrics.Metric.NETWORK).getCount())
+                    .appendHtmlConstant("</td>");
+            for (DispatchMetrics.Metric metric : DispatchMetrics.Metric.values()) {
+                Histogram histogram = group.get(metric);
+                html.appendHtmlConstant("<td>")
+                        .appendEscaped(format(histogram.getPercentile(0.5)) + " / "
+                                + format(histogram.getPercentile(0.9)) + " / " + format(histogram.getMax()))
+                        .appendHtmlConstant("</td>");
+            }
+            html.appendHtmlConstant("</tr>");
+        }
+        html.appendHtmlConstant("</tbody></table>");
+        table.setHTML(html.toSafeHtml());
+    }
+
+    private String format(double value) {
+        return String.valueOf(Math.round(value));
+    }
+
+    private void export() {
+        final DefaultWindow window = new DefaultWindow("Request Metrics (JSON)");
+        window.setWidth(640);
+        window.setHeight(480);
+
+        TextArea json = new TextArea();
+        json.setReadOnly(true);
+        json.setVisibleLines(25);
+        json.setStyleName("fill-layout-width");
+        json.setText(metrics.toModelNode().toJSONString(false));
+
+        window.setWidget(new ScrollPanel(json));
+        window.setModal(false);
+        window.center();
+        json.selectAll();
+    }
+
+    public Widget asWidget() {
+
+        VerticalPanel panel = new VerticalPanel();
+        panel.setStyleName("fill-layout-width");
+
+        ToolStrip tools = new ToolStrip();
+        tools.addToolButtonRight(new ToolButton("Export", new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent clickEvent) {
+                export();
+            }
+        }));
+        tools.addToolButtonRight(new ToolButton(Console.CONSTANTS.common_label_reset(), new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent clickEvent) {
+                metrics.flush();
+            }
+        }));
+
+        panel.add(tools);
+        panel.add(table);
+
+        updateTable();
+
+        return panel;
+    }
+}
@@ -61,6 +61,7 @@ public class ToolsPresenter extends Presenter<ToolsPresenter.MyView, ToolsPresen
     private RunAsRoleTool runAsRoleTool;
     private DefaultWindow indexWindow;
     private DefaultWindow browserWindow;
+    private DefaultWindow metricsWindow;
 
     @ProxyCodeSplit
     @NameToken(NameTokens.ToolsPresenter)
@@ -188,6 +189,25 @@ public class ToolsPresenter extends Presenter<ToolsPresenter.MyView, ToolsPresen
             }
             //RevealRootPopupContentEvent.fire(this, debug);
         }
+        else if("request-metrics".equals(requestedTool))
+        {
+            if(metricsWindow == null)
+            {
+                metricsWindow = new DefaultWindow("Request Metrics");
+                metricsWindow.setWidth(800);
+                metricsWindow.setHeight(480);
+
+                DispatchMetricsView panel = new DispatchMetricsView();
+                metricsWindow.setWidget(new ScrollPanel(panel.asWidget()));
+
+                metricsWindow.setModal(false);
+                metricsWindow.center();
+            }
+            else
+            {
+                metricsWindow.show();
+            }
+        }
         else if ("run-as-role".equals(requestedTool) && context.isSuperUser()) {
             if (runAsRoleTool == null) {
                 runAsRoleTool = new RunAsRoleTool();
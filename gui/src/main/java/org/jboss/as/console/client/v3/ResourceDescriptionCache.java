@@ -0,0 +1,314 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.client.v3;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.allen_sauer.gwt.log.client.Log;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.as.console.client.core.BootstrapContext;
+import org.jboss.as.console.client.v3.dmr.AddressTemplate;
+import org.jboss.as.console.client.v3.dmr.ResourceDescription;
+import org.jboss.dmr.client.ModelNode;
+
+/**
+ * Keeps resource descriptions across browser sessions in the IndexedDB of the browser.
+ * <p>
+ * The descriptions are kept per scope, which consists of the management endpoint, the product and management model
+ * version, the locale and the roles of the user. Only the descriptions of the current scope are loaded, but the
+ * descriptions of other scopes are kept, so users and locales sharing a browser don't wipe each others cache. When the
+ * cache is loaded, stale descriptions are removed, and the oldest descriptions of other scopes once all descriptions
+ * together exceed {@link #MAX_SIZE}.
+ * The access control meta data is part of the descriptions, but it's refreshed whenever a description is used, see
+ * {@link org.jboss.as.console.client.core.ReadRequiredResources}.
+ * <p>
+ * If IndexedDB is not available (e.g. in private browsing mode), the cache is empty and doesn't keep anything.
+ */
+public class ResourceDescriptionCache {
+
+    /**
+     * Descriptions older than this are fetched again.
+     */
+    private static final double MAX_AGE = 7 * 24 * 60 * 60 * 1000d;
+
+    /**
+     * The number of base64 characters kept for all scopes.
+     */
+    private static final int MAX_SIZE = 32 * 1024 * 1024;
+
+    private final Map<String, Entry> entries;
+    private String scope;
+    @SuppressWarnings("UnusedDeclaration") private JavaScriptObject db;
+
+    public ResourceDescriptionCache() {
+        this.entries = new HashMap<>();
+    }
+
+    public static String scope(BootstrapContext context, String locale) {
+        List<String> roles = new ArrayList<>();
+        if (context.getRunAs() != null) {
+            roles.add(context.getRunAs());
+        } else if (context.getRoles() != null) {
+            roles.addAll(context.getRoles());
+        }
+        Collections.sort(roles);
+        return context.getProperty(BootstrapContext.DOMAIN_API) + "|" + context.getProductName() + " "
+                + context.getProductVersion() + "|" + context.getManagementVersion() + "|" + locale + "|" + roles;
+    }
+
+    /**
+     * The key of a description within a scope.
+     *
+     * @param address   the resolved address
+     * @param recursive whether the description includes the child resources
+     */
+    public static String key(ModelNode address, boolean recursive) {
+        return address.toString() + (recursive ? "#recursive" : "");
+    }
+
+    public static native boolean isSupported() /*-{
+        return !!$wnd.indexedDB;
+    }-*/;
+
+    /**
+     * Opens the database and loads the descriptions of the given scope. Never fails: If the database can't be used,
+     * the cache is empty.
+     *
+     * @param callback receives the number of descriptions loaded
+     */
+    public void load(String scope, final AsyncCallback<Integer> callback) {
+        this.scope = scope;
+        this.entries.clear();
+        if (!isSupported()) {
+            callback.onSuccess(0);
+            return;
+        }
+        try {
+            loadInternal(scope, MAX_SIZE, callback);
+        } catch (Throwable t) {
+            Log.error("Unable to load resource descriptions: " + t.getMessage());
+            db = null;
+            callback.onSuccess(0);
+        }
+    }
+
+    private native void loadInternal(String scope, int maxSize, AsyncCallback<Integer> callback) /*-{
+        var that = this;
+        var done = function (db) {
+            that.@org.jboss.as.console.client.v3.ResourceDescriptionCache::db = db;
+            callback.@com.google.gwt.user.client.rpc.AsyncCallback::onSuccess(*)(
+                @java.lang.Integer::valueOf(I)(that.@org.jboss.as.console.client.v3.ResourceDescriptionCache::size()()));
+        };
+        var request = $wnd.indexedDB.open("hal-resource-descriptions", 1);
+        request.onupgradeneeded = function (event) {
+            event.target.result.createObjectStore("descriptions", {keyPath: "id"});
+        };
+        request.onerror = $entry(function () {
+            done(null);
+        });
+        request.onsuccess = $entry(function (event) {
+            var db = event.target.result;
+            var tx = db.transaction("descriptions", "readwrite");
+            var store = tx.objectStore("descriptions");
+            var others = [];
+            var size = 0;
+            store.openCursor().onsuccess = $entry(function (event) {
+                var cursor = event.target.result;
+                if (cursor) {
+                    var record = cursor.value;
+                    var keep;
+                    if (record.scope === scope) {
+                        keep = that.@org.jboss.as.console.client.v3.ResourceDescriptionCache::loaded(*)(
+                            record.key, record.template, record.payload, record.timestamp);
+                    } else {
+                        keep = !@org.jboss.as.console.client.v3.ResourceDescriptionCache::isStale(D)(
+                            record.timestamp);
+                        if (keep) {
+                            others.push({id: record.id, timestamp: record.timestamp, size: record.payload.length});
+                        }
+                    }
+                    if (keep) {
+                        size += record.payload.length;
+                    } else {
+                        cursor["delete"]();
+                    }
+                    cursor["continue"]();
+                } else if (size > maxSize) {
+                    // the oldest descriptions of other scopes go first
+                    others.sort(function (a, b) {
+                        return a.timestamp - b.timestamp;
+                    });
+                    for (var i = 0; i < others.length && size > maxSize; i++) {
+                        store["delete"](others[i].id);
+                        size -= others[i].size;
+                    }
+                }
+            });
+            tx.oncomplete = $entry(function () {
+                done(db);
+            });
+            tx.onerror = tx.onabort = $entry(function () {
+                done(null);
+            });
+        });
+    }-*/;
+
+    /**
+     * @return false if the entry is stale and should be removed from the database
+     */
+    private boolean loaded(String key, String template, String payload, double timestamp) {
+        Entry entry = new Entry(template, payload, timestamp);
+        if (entry.isStale()) {
+            return false;
+        }
+        entries.put(key, entry);
+        return true;
+    }
+
+    /**
+     * @return the description or null if there's no description or it's stale
+     */
+    public ResourceDescription get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.isStale()) {
+            return null;
+        }
+        try {
+            return new ResourceDescription(entry.decode());
+        } catch (RuntimeException e) {
+            Log.error("Unable to decode resource description " + key + ": " + e.getMessage());
+            entries.remove(key);
+            return null;
+        }
+    }
+
+    public void put(String key, AddressTemplate template, ResourceDescription description) {
+        if (scope == null) {
+            return;
+        }
+        Entry entry = new Entry(template.getTemplate(), description.toBase64String(), now());
+        entries.put(key, entry);
+        if (db != null) {
+            try {
+                putInternal(scope + "|" + key, scope, key, entry.template, entry.payload, entry.timestamp);
+            } catch (Throwable t) {
+                Log.error("Unable to store resource description " + key + ": " + t.getMessage());
+            }
+        }
+    }
+
+    private native void putInternal(String id, String scope, String key, String template, String payload,
+            double timestamp) /*-{
+        var db = this.@org.jboss.as.console.client.v3.ResourceDescriptionCache::db;
+        var tx = db.transaction("descriptions", "readwrite");
+        tx.objectStore("descriptions").put({
+            id: id, scope: scope, key: key, template: template, payload: payload, timestamp: timestamp
+        });
+    }-*/;
+
+    public void remove(String key) {
+        entries.remove(key);
+        if (db != null && scope != null) {
+            try {
+                removeInternal(scope + "|" + key);
+            } catch (Throwable t) {
+                Log.error("Unable to remove resource description " + key + ": " + t.getMessage());
+            }
+        }
+    }
+
+    private native void removeInternal(String id) /*-{
+        var db = this.@org.jboss.as.console.client.v3.ResourceDescriptionCache::db;
+        db.transaction("descriptions", "readwrite").objectStore("descriptions")["delete"](id);
+    }-*/;
+
+    /**
+     * The address templates and keys of the descriptions, which are not stale.
+     */
+    public Map<String, AddressTemplate> templates() {
+        Map<String, AddressTemplate> templates = new HashMap<>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (!entry.getValue().isStale()) {
+                templates.put(entry.getKey(), AddressTemplate.of(entry.getValue().template));
+            }
+        }
+        return templates;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all descriptions of all scopes.
+     */
+    public void clear() {
+        entries.clear();
+        if (db != null) {
+            clearInternal();
+        }
+    }
+
+    private native void clearInternal() /*-{
+        var db = this.@org.jboss.as.console.client.v3.ResourceDescriptionCache::db;
+        db.transaction("descriptions", "readwrite").objectStore("descriptions").clear();
+    }-*/;
+
+    private static native double now() /*-{
+        return Date.now();
+    }-*/;
+
+    private static boolean isStale(double timestamp) {
+        return now() - timestamp > MAX_AGE;
+    }
+
+
+    private static class Entry {
+
+        final String template;
+        final String payload;
+        final double timestamp;
+        ModelNode decoded;
+
+        Entry(String template, String payload, double timestamp) {
+            this.template = template;
+            this.payload = payload;
+            this.timestamp = timestamp;
+        }
+
+        ModelNode decode() {
+            if (decoded == null) {
+                decoded = ModelNode.fromBase64(payload);
+            }
+            return decoded;
+        }
+
+        boolean isStale() {
+            return ResourceDescriptionCache.isStale(timestamp);
+        }
+    }
+}
@@ -33,18 +33,50 @@ import java.util.Map;
 public class ResourceDescriptionRegistry {
 
     private final Map<AddressTemplate, ResourceDescription> registry;
+    private final Map<AddressTemplate, String> cached;
+    private ResourceDescriptionCache cache;
 
     public ResourceDescriptionRegistry() {
         registry = new HashMap<>();
+        cached = new HashMap<>();
     }
 
     public void add(AddressTemplate addressTemplate, ResourceDescription description) {
         registry.put(addressTemplate, description);
+        cached.remove(addressTemplate);
+    }
+
+    /**
+     * Registers the descriptions kept in the cache. They're decoded on first lookup.
+     *
+     * @param templates the address templates by their cache keys
+     */
+    public void addCached(ResourceDescriptionCache cache, Map<String, AddressTemplate> templates) {
+        this.cache = cache;
+        for (Map.Entry<String, AddressTemplate> entry : templates.entrySet()) {
+            if (!registry.containsKey(entry.getValue())) {
+                cached.put(entry.getValue(), entry.getKey());
+            }
+        }
+    }
+
+    private ResourceDescription get(AddressTemplate addressTemplate) {
+        ResourceDescription description = registry.get(addressTemplate);
+        if (description == null) {
+            String key = cached.remove(addressTemplate);
+            if (key != null) {
+                description = cache.get(key);
+                if (description != null) {
+                    registry.put(addressTemplate, description);
+                }
+            }
+        }
+        return description;
     }
 
     public ResourceDescription lookup(AddressTemplate addressTemplate) {
 
-        ResourceDescription resourceDescription = registry.get(addressTemplate);
+        ResourceDescription resourceDescription = get(addressTemplate);
         if(null==resourceDescription)
             throw new RuntimeException("Failed to lookup resource description for "+addressTemplate.toString());
 
@@ -52,10 +84,10 @@ public class ResourceDescriptionRegistry {
     }
 
     public boolean has(AddressTemplate addressTemplate) {
-        return registry.containsKey(addressTemplate);
+        return get(addressTemplate) != null;
     }
 
     public boolean contains(AddressTemplate addressTemplate) {
-        return registry.containsKey(addressTemplate);
+        return get(addressTemplate) != null;
     }
 }
@@ -173,8 +173,7 @@ public class EntityAdapter<T> {
 
 
 
-            String[] splitDetypedName = propBinding.getDetypedName().split("/");
-            ModelNode propValue = actualPayload.get(splitDetypedName);
+            ModelNode propValue = propBinding.getDetypedPath().read(actualPayload);
             Object value = null;
 
             try
@@ -281,7 +280,7 @@ public class EntityAdapter<T> {
                 }
                 else if ("java.util.List".equals(propBinding.getJavaTypeName()))
                 {
-                    ModelNode list = actualPayload.get(splitDetypedName);
+                    ModelNode list = propValue;
                     if (list.isDefined() && propValue.isDefined() && !list.asList().isEmpty()) {
                         if (list.asList().get(0).getType().equals(ModelType.PROPERTY)) {
                             value = propBinding.getEntityAdapterForList().fromDMRPropertyList(list.asPropertyList());
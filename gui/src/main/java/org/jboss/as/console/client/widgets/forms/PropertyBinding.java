@@ -21,12 +21,15 @@ package org.jboss.as.console.client.widgets.forms;
 
 import java.util.Collections;
 
+import org.jboss.dmr.client.ModelPath;
+
 /**
  * @author Heiko Braun
  * @date 4/19/11
  */
 public class PropertyBinding {
     private String detypedName;
+    private ModelPath detypedPath;
     private String javaName;
     private String javaTypeName;
     private Class<?> listType;
@@ -88,6 +91,18 @@ public class PropertyBinding {
 
     public void setDetypedName(String detypedName) {
         this.detypedName = detypedName;
+        this.detypedPath = null;
+    }
+
+    /**
+     * @return the detyped name as compiled path, used to read the value without splitting the detyped name over and
+     * over again.
+     */
+    public ModelPath getDetypedPath() {
+        if (detypedPath == null) {
+            detypedPath = ModelPath.of(detypedName);
+        }
+        return detypedPath;
     }
 
     public String getJavaName() {
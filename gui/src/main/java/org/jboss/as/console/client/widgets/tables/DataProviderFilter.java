@@ -116,15 +116,23 @@ public class DataProviderFilter<T> {
         return panel;
     }
 
+    /**
+     * Returns the values accepted by the predicate for the given prefix.
+     */
+    public static <T> List<T> filter(List<T> values, String prefix, Predicate<T> predicate) {
+        final List<T> next = new ArrayList<T>();
+        for (T item : values) {
+            if (predicate.apply(prefix, item)) { next.add(item); }
+        }
+        return next;
+    }
+
     private void filterByPrefix(String prefix) {
 
         clearSelection();
         delegate.getDataDisplays().iterator().next().setVisibleRange(origVisibleRange);
 
-        final List<T> next = new ArrayList<T>();
-        for (T item : origValues) {
-            if (predicate.apply(prefix, item)) { next.add(item); }
-        }
+        final List<T> next = filter(origValues, prefix, predicate);
 
 
         delegate.getList().clear(); // cannot call setList() as that breaks the sort handler
@@ -0,0 +1,249 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the number of connections the proxy opens to the management interface and keeps them alive between
+ * requests.
+ * <p>
+ * The connections themselves are kept by the keep-alive cache of {@link java.net.HttpURLConnection}, which reuses a
+ * connection (including its TLS session) once the response has been read completely and closed. That cache is
+ * shared by the whole JVM and sized by the system property <code>http.maxConnections</code>, see
+ * {@link #keepAliveConnections()}. This class limits the number of connections in use and makes callers wait for a
+ * free connection. If none becomes
+ * free within the wait timeout, a {@link ServiceUnavailableException} is thrown, which the servlet turns into a 503.
+ * <p>
+ * The cookies the management interface sets after a successful authentication are kept per credential, so following
+ * requests with the same credentials are not challenged again and nobody gets the cookies of another user by
+ * claiming its name.
+ */
+public class ConnectionPool {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final long DEFAULT_MAX_WAIT = 30000;
+
+    /**
+     * The number of users whose cookies are kept.
+     */
+    private static final int MAX_USERS = 256;
+
+    private final int maxConnections;
+    private final int keepAlive;
+    private final long maxWait;
+    private final Semaphore permits;
+    private final AtomicInteger idle = new AtomicInteger();
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+    private final Map<String, Map<String, XmlHttpProxy.Cookie>> cookies;
+
+    /**
+     * @param maxConnections the maximum number of connections in use
+     * @param maxWait        the time in milliseconds to wait for a free connection
+     */
+    public ConnectionPool(int maxConnections, long maxWait) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections must be positive: " + maxConnections);
+        }
+        this.maxConnections = maxConnections;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConnections, true);
+        this.cookies = new LinkedHashMap<String, Map<String, XmlHttpProxy.Cookie>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, XmlHttpProxy.Cookie>> eldest) {
+                return size() > MAX_USERS;
+            }
+        };
+        this.keepAlive = Math.min(maxConnections, keepAliveConnections());
+    }
+
+    /**
+     * The number of idle connections the keep-alive cache keeps per server. The cache is shared by the whole JVM
+     * and configured by the system properties <code>http.keepAlive</code> and <code>http.maxConnections</code>
+     * (default 5), which are read only once. They're not changed here, set them on the command line if more
+     * connections should be kept alive.
+     */
+    static int keepAliveConnections() {
+        if (!Boolean.parseBoolean(System.getProperty("http.keepAlive", "true"))) {
+            return 0;
+        }
+        return Math.max(0, Integer.getInteger("http.maxConnections", 5));
+    }
+
+    /**
+     * Waits for a free connection.
+     *
+     * @throws ServiceUnavailableException if no connection became free within the wait timeout
+     */
+    public Lease acquire() throws ServiceUnavailableException {
+        long start = System.currentTimeMillis();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        long waited = System.currentTimeMillis() - start;
+        totalWaitTime.addAndGet(waited);
+        long max = maxWaitTime.get();
+        while (waited > max && !maxWaitTime.compareAndSet(max, waited)) {
+            max = maxWaitTime.get();
+        }
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new ServiceUnavailableException(String.valueOf(Math.max(1, maxWait / 1000)));
+        }
+        leases.incrementAndGet();
+
+        // an idle connection is picked up if there's one
+        int current;
+        do {
+            current = idle.get();
+        } while (current > 0 && !idle.compareAndSet(current, current - 1));
+        return new Lease();
+    }
+
+    /**
+     * The cookies of one user. They're kept under a hash of the full credentials (the configured user and password
+     * or the Basic authorization header), so only requests with the same password get them. Digest headers change
+     * with every request and the proxy can't verify the user name they claim, so their cookies are not kept.
+     *
+     * @param authHeader the authorization header of the request, may be null
+     * @param userName   the configured user, may be null
+     * @param password   the password of the configured user, may be null
+     */
+    public Map<String, XmlHttpProxy.Cookie> getCookies(String authHeader, String userName, String password) {
+        String user = SharedResponseCache.credential(authHeader, userName, password);
+        if (user == null) {
+            return new ConcurrentHashMap<String, XmlHttpProxy.Cookie>();
+        }
+        synchronized (cookies) {
+            Map<String, XmlHttpProxy.Cookie> userCookies = cookies.get(user);
+            if (userCookies == null) {
+                userCookies = new ConcurrentHashMap<String, XmlHttpProxy.Cookie>();
+                cookies.put(user, userCookies);
+            }
+            return userCookies;
+        }
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * The number of connections currently in use.
+     */
+    public int getActive() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    /**
+     * An estimate of the connections which were returned to the keep-alive cache and not picked up since. The
+     * count is not exact: the cache may close idle connections on its own and doesn't tell which connection a
+     * request picks up.
+     */
+    public int getIdle() {
+        return idle.get();
+    }
+
+    /**
+     * The number of callers waiting for a connection.
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public long getLeases() {
+        return leases.get();
+    }
+
+    /**
+     * The number of callers which gave up waiting for a connection.
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * The average time in milliseconds callers waited for a connection.
+     */
+    public double getAverageWaitTime() {
+        long count = leases.get() + timeouts.get();
+        return count == 0 ? 0 : (double) totalWaitTime.get() / count;
+    }
+
+    /**
+     * The longest time in milliseconds a caller waited for a connection.
+     */
+    public long getMaxWaitTime() {
+        return maxWaitTime.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool{active=" + getActive() + ", idle=" + getIdle() + ", waiting=" + getWaiting() +
+                ", leases=" + getLeases() + ", timeouts=" + getTimeouts() + ", averageWaitTime=" +
+                getAverageWaitTime() + ", maxWaitTime=" + getMaxWaitTime() + "}";
+    }
+
+
+    /**
+     * A connection in use. Must be released exactly once.
+     */
+    public class Lease {
+
+        private boolean reusable;
+        private boolean released;
+
+        private Lease() {}
+
+        /**
+         * @param reusable whether the response was read completely and closed, so the connection went back to the
+         *                 keep-alive cache
+         */
+        public void setReusable(boolean reusable) {
+            this.reusable = reusable;
+        }
+
+        public void release() {
+            if (!released) {
+                released = true;
+                if (reusable) {
+                    int current;
+                    do {
+                        current = idle.get();
+                    } while (current < keepAlive && !idle.compareAndSet(current, current + 1));
+                }
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the binary DMR format into plain Java objects, so the proxy can look at operations and responses without
+ * depending on a DMR implementation. Objects are read as {@link Map}, lists as {@link List}, properties as
+ * {@link Map.Entry}, undefined values as {@code null} and all other values as the matching Java type.
+ */
+final class DmrReader {
+
+    private final DataInputStream in;
+
+    private DmrReader(byte[] bytes) {
+        this.in = new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Reads a base64 encoded payload as used by the {@code application/dmr-encoded} content type.
+     *
+     * @throws IOException if the payload is not valid
+     */
+    static Object readBase64(byte[] encoded) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(encoded);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid base64 payload: " + e.getMessage(), e);
+        }
+        return new DmrReader(bytes).readValue();
+    }
+
+    private Object readValue() throws IOException {
+        char type = (char) in.readUnsignedByte();
+        switch (type) {
+            case 'u':
+                return null;
+            case 'd':
+                return new BigDecimal(in.readUTF());
+            case 'i':
+                return new BigInteger(readBytes());
+            case 'Z':
+                return in.readBoolean();
+            case 'b':
+                return readBytes();
+            case 'D':
+                return in.readDouble();
+            case 'e':
+            case 's':
+                return in.readUTF();
+            case 'I':
+                return in.readInt();
+            case 'J':
+                return in.readLong();
+            case 't':
+                return String.valueOf((char) in.readUnsignedByte());
+            case 'p':
+                String name = in.readUTF();
+                return new AbstractMap.SimpleImmutableEntry<String, Object>(name, readValue());
+            case 'l':
+                int size = in.readInt();
+                List<Object> list = new ArrayList<Object>(Math.min(size, 1024));
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue());
+                }
+                return list;
+            case 'o':
+                int count = in.readInt();
+                Map<String, Object> map = new LinkedHashMap<String, Object>();
+                for (int i = 0; i < count; i++) {
+                    String key = in.readUTF();
+                    map.put(key, readValue());
+                }
+                return map;
+            default:
+                throw new IOException("Invalid type character '" + type + "'");
+        }
+    }
+
+    private byte[] readBytes() throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
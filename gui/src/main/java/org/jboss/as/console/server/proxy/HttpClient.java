@@ -19,6 +19,7 @@
 
 package org.jboss.as.console.server.proxy;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -41,6 +42,7 @@ import java.util.logging.Logger;
 public class HttpClient {
 
     private static Logger logger;
+    private static boolean httpsProviderInstalled = false;
     private String proxyHost = null;
     private int proxyPort = -1;
     private boolean isHttps = false;
@@ -178,6 +180,20 @@ public class HttpClient {
         }
     }
 
+    /**
+     * when communicating with the server which has unsigned or invalid
+     * certificate (https), SSLException or IOException is thrown.
+     * the following lines are a hack to avoid that. Done once, since
+     * registering the provider is synchronized on the JVM wide provider list.
+     */
+    private static synchronized void installHttpsProvider() {
+        if (!httpsProviderInstalled) {
+            Security.addProvider(new com.sun.net.ssl.internal.ssl.Provider());
+            System.setProperty("java.protocol.handler.pkgs", "com.sun.net.ssl.internal.www.protocol");
+            httpsProviderInstalled = true;
+        }
+    }
+
     /**
      * private method to get the URLConnection
      * @param str URL string
@@ -187,12 +203,7 @@ public class HttpClient {
         try {
 
             if (isHttps) {
-                /* when communicating with the server which has unsigned or invalid
-                * certificate (https), SSLException or IOException is thrown.
-                * the following line is a hack to avoid that
-                */
-                Security.addProvider(new com.sun.net.ssl.internal.ssl.Provider());
-                System.setProperty("java.protocol.handler.pkgs", "com.sun.net.ssl.internal.www.protocol");
+                installHttpsProvider();
                 if (isProxy) {
                     System.setProperty("https.proxyHost", proxyHost);
                     System.setProperty("https.proxyPort", proxyPort + "");
@@ -232,6 +243,23 @@ public class HttpClient {
         }
     }
 
+    /**
+     * @param timeout the time in milliseconds to wait for data from the server, 0 waits forever
+     */
+    public void setReadTimeout(int timeout) {
+        this.urlConnection.setReadTimeout(timeout);
+    }
+
+    /**
+     * Closes the connection, e.g. to abort a request from another thread. A thread which reads the response gets
+     * an {@link IOException}.
+     */
+    public void disconnect() {
+        if (this.urlConnection != null) {
+            this.urlConnection.disconnect();
+        }
+    }
+
     public String getSetCookieHeader()
     {
         return setCookieHeader;
@@ -313,15 +341,34 @@ public class HttpClient {
      * @return InputStream input stream from URLConnection
      */
     public InputStream doPost(byte[] postData, String contentType) {
+        return doPost(new ByteArrayInputStream(postData), postData.length, contentType);
+    }
+
+    /**
+     * streams the data to the connection and returns the InputStream.
+     *
+     * @param postData data to be posted. Not closed by this method.
+     * @param contentLength the number of bytes to be posted or -1 if unknown
+     * @param contentType allows you to set the contentType of the request.
+     * @return InputStream input stream from URLConnection
+     */
+    public InputStream doPost(InputStream postData, long contentLength, String contentType) {
         this.urlConnection.setDoOutput(true);
         if (contentType != null) this.urlConnection.setRequestProperty( "Content-type", contentType );
 
+        // don't let the connection buffer the whole body
+        if (contentLength >= 0) {
+            this.urlConnection.setFixedLengthStreamingMode(contentLength);
+        } else {
+            this.urlConnection.setChunkedStreamingMode(ProxyStreams.BUFFER_SIZE);
+        }
+
         OutputStream out = null;
         try {
             out = this.getOutputStream();
             if(out!=null)
             {
-                out.write(postData);
+                ProxyStreams.copy(postData, out);
                 out.flush();
             }
         } catch (IOException e) {
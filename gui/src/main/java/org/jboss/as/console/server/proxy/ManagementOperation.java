@@ -0,0 +1,283 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+/**
+ * What the proxy needs to know about a management operation to share its response: whether it's read-only, whether
+ * it reads descriptions, which resources it addresses and whether it depends on the identity of the caller.
+ */
+final class ManagementOperation {
+
+    static final String OP = "operation";
+    static final String ADDRESS = "address";
+    static final String STEPS = "steps";
+    static final String COMPOSITE = "composite";
+    static final String WHOAMI = "whoami";
+    static final String OPERATION_HEADERS = "operation-headers";
+
+    private static final String READ_PREFIX = "read-";
+    private static final String[] DESCRIPTION_READS = {
+            "read-resource-description", "read-operation-description", "read-operation-names"
+    };
+
+    private final List<Step> steps;
+    private final boolean composite;
+    private final boolean nested;
+    private final boolean headers;
+
+    private ManagementOperation(List<Step> steps, boolean composite, boolean nested, boolean headers) {
+        this.steps = steps;
+        this.composite = composite;
+        this.nested = nested;
+        this.headers = headers;
+    }
+
+    /**
+     * Reads an {@code application/dmr-encoded} request body.
+     *
+     * @return the operation or null if the body is no valid operation
+     */
+    static ManagementOperation fromDmr(byte[] body) {
+        try {
+            Object operation = DmrReader.readBase64(body);
+            if (!(operation instanceof Map)) {
+                return null;
+            }
+            List<Step> steps = new ArrayList<Step>();
+            boolean headers = add((Map) operation, steps);
+            boolean composite = COMPOSITE.equals(((Map) operation).get(OP));
+            boolean nested = false;
+            if (composite) {
+                for (Object step : (List) ((Map) operation).get(STEPS)) {
+                    nested |= COMPOSITE.equals(((Map) step).get(OP));
+                }
+            }
+            return steps.isEmpty() ? null : new ManagementOperation(steps, composite, nested, headers);
+        } catch (IOException e) {
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Describes a request to the HTTP GET API, e.g. {@code /management/subsystem/logging?operation=resource-description}.
+     * The GET API only supports read-only operations. The path is read as pairs of resource type and name, a leading
+     * segment without a pair (e.g. {@code management}) is ignored.
+     *
+     * @param path the path of the request below the service URL
+     * @param operation the value of the {@code operation} parameter, {@code resource} if null
+     */
+    static ManagementOperation fromGet(String path, String operation) {
+        List<String> segments = new ArrayList<String>();
+        StringTokenizer tok = new StringTokenizer(path != null ? path : "", "/");
+        while (tok.hasMoreTokens()) {
+            String token = tok.nextToken();
+            int semicolon = token.indexOf(';');
+            segments.add(semicolon != -1 ? token.substring(0, semicolon) : token);
+        }
+        List<String> address = new ArrayList<String>();
+        for (int i = segments.size() % 2; i + 1 < segments.size(); i += 2) {
+            address.add(segments.get(i) + "=" + segments.get(i + 1));
+        }
+        String name = READ_PREFIX + (operation != null ? operation : "resource");
+        return new ManagementOperation(Collections.singletonList(new Step(name, address)), false, false, false);
+    }
+
+    /**
+     * @return whether the operation has headers
+     */
+    private static boolean add(Map operation, List<Step> steps) {
+        Object name = operation.get(OP);
+        if (!(name instanceof String)) {
+            throw new IllegalArgumentException("No operation name");
+        }
+        boolean headers = operation.get(OPERATION_HEADERS) != null;
+        if (COMPOSITE.equals(name) && operation.get(STEPS) instanceof List) {
+            for (Object step : (List) operation.get(STEPS)) {
+                if (!(step instanceof Map)) {
+                    throw new IllegalArgumentException("Invalid step");
+                }
+                headers |= add((Map) step, steps);
+            }
+        } else {
+            steps.add(new Step((String) name, address(operation.get(ADDRESS))));
+        }
+        return headers;
+    }
+
+    private static List<String> address(Object address) {
+        List<String> segments = new ArrayList<String>();
+        if (address instanceof List) {
+            for (Object segment : (List) address) {
+                if (segment instanceof Map.Entry) {
+                    Map.Entry entry = (Map.Entry) segment;
+                    segments.add(entry.getKey() + "=" + entry.getValue());
+                } else if (segment instanceof Map && ((Map) segment).size() == 1) {
+                    Map.Entry entry = (Map.Entry) ((Map) segment).entrySet().iterator().next();
+                    segments.add(entry.getKey() + "=" + entry.getValue());
+                } else {
+                    throw new IllegalArgumentException("Invalid address");
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * An operation is read-only if its name starts with {@code read-}, if it's {@code whoami} or if it's a
+     * composite operation with read-only steps only.
+     */
+    boolean isReadOnly() {
+        for (Step step : steps) {
+            if (!step.name.startsWith(READ_PREFIX) && !WHOAMI.equals(step.name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether all steps read descriptions, which only change if the management model is changed.
+     */
+    boolean isDescription() {
+        for (Step step : steps) {
+            boolean description = false;
+            for (String read : DESCRIPTION_READS) {
+                description |= read.equals(step.name);
+            }
+            if (!description) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the response depends on the caller rather than on its roles, i.e. the operation contains
+     * {@code whoami} or has headers, which might change the roles of the caller.
+     */
+    boolean isPersonal() {
+        if (headers) {
+            return true;
+        }
+        for (Step step : steps) {
+            if (WHOAMI.equals(step.name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean hasHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return 0 if this is a {@code whoami} operation, the number of the {@code whoami} step of a composite operation
+     * (starting with 1) or -1 if there's no {@code whoami} or the composite operation is nested
+     */
+    int whoamiStep() {
+        if (composite && nested) {
+            return -1;
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            if (WHOAMI.equals(steps.get(i).name)) {
+                return composite ? i + 1 : 0;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether this operation might change the response of the given operation, i.e. one of the addresses is the
+     * same as, a parent of or a child of an address of the other operation. Wildcards match any name.
+     */
+    boolean affects(ManagementOperation other) {
+        for (Step step : steps) {
+            for (Step otherStep : other.steps) {
+                if (overlaps(step.address, otherStep.address)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether one of the steps addresses a resource at or below the given address.
+     */
+    boolean addresses(List<String> address) {
+        for (Step step : steps) {
+            if (step.address.size() >= address.size() && overlaps(step.address, address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean overlaps(List<String> a, List<String> b) {
+        int length = Math.min(a.size(), b.size());
+        for (int i = 0; i < length; i++) {
+            if (!matches(a.get(i), b.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String a, String b) {
+        if (a.equals(b)) {
+            return true;
+        }
+        int equals = a.indexOf('=');
+        return equals != -1 && b.indexOf('=') == equals && a.regionMatches(0, b, 0, equals)
+                && (a.endsWith("=*") || b.endsWith("=*"));
+    }
+
+    @Override
+    public String toString() {
+        return steps.toString();
+    }
+
+
+    private static class Step {
+
+        final String name;
+        final List<String> address;
+
+        Step(String name, List<String> address) {
+            this.name = name;
+            this.address = address;
+        }
+
+        @Override
+        public String toString() {
+            return address + ":" + name;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the numbers of the transfer stats, the connection pool, the async workers and the shared cache of one
+ * servlet and publishes them over JMX.
+ */
+public class ProxyStats implements ProxyStatsMBean {
+
+    private final TransferStats transfers;
+    private final ConnectionPool pool;
+    private final ThreadPoolExecutor executor;
+    private final SharedResponseCache sharedCache;
+    private final AtomicLong asyncRejections = new AtomicLong();
+    private final AtomicLong asyncTimeouts = new AtomicLong();
+    private ObjectName name;
+
+    /**
+     * @param executor    the async workers or null if async mode is disabled
+     * @param sharedCache the shared responses or null if the shared cache is disabled
+     */
+    public ProxyStats(TransferStats transfers, ConnectionPool pool, ThreadPoolExecutor executor,
+            SharedResponseCache sharedCache) {
+        this.transfers = transfers;
+        this.pool = pool;
+        this.executor = executor;
+        this.sharedCache = sharedCache;
+    }
+
+    void asyncRejected() {
+        asyncRejections.incrementAndGet();
+    }
+
+    void asyncTimedOut() {
+        asyncTimeouts.incrementAndGet();
+    }
+
+    /**
+     * Registers the stats with the platform MBean server.
+     *
+     * @throws JMException if the name is invalid or taken, e.g. by a second deployment of the same servlet
+     */
+    public void register(String servletName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("org.jboss.as.console:type=XmlHttpProxy,name=" +
+                ObjectName.quote(servletName));
+        server.registerMBean(this, objectName);
+        name = objectName;
+    }
+
+    public void unregister() throws JMException {
+        if (name != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            name = null;
+        }
+    }
+
+    @Override
+    public long getRequests() {
+        return transfers.getRequests();
+    }
+
+    @Override
+    public long getRequestBytes() {
+        return transfers.getRequestBytes();
+    }
+
+    @Override
+    public long getResponseBytes() {
+        return transfers.getResponseBytes();
+    }
+
+    @Override
+    public long getMaxResponseBytes() {
+        return transfers.getMaxResponseBytes();
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return pool.getMaxConnections();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return pool.getActive();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return pool.getIdle();
+    }
+
+    @Override
+    public int getWaitingForConnection() {
+        return pool.getWaiting();
+    }
+
+    @Override
+    public long getConnectionLeases() {
+        return pool.getLeases();
+    }
+
+    @Override
+    public long getConnectionTimeouts() {
+        return pool.getTimeouts();
+    }
+
+    @Override
+    public double getAverageConnectionWaitTime() {
+        return pool.getAverageWaitTime();
+    }
+
+    @Override
+    public long getMaxConnectionWaitTime() {
+        return pool.getMaxWaitTime();
+    }
+
+    @Override
+    public int getAsyncQueueLength() {
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    @Override
+    public long getAsyncRejections() {
+        return asyncRejections.get();
+    }
+
+    @Override
+    public long getAsyncTimeouts() {
+        return asyncTimeouts.get();
+    }
+
+    @Override
+    public long getSharedCacheHits() {
+        return sharedCache != null ? sharedCache.getHits() : 0;
+    }
+
+    @Override
+    public long getSharedCacheCollapsed() {
+        return sharedCache != null ? sharedCache.getCollapsed() : 0;
+    }
+
+    @Override
+    public long getSharedCacheMisses() {
+        return sharedCache != null ? sharedCache.getMisses() : 0;
+    }
+
+    @Override
+    public long getSharedCacheEvictions() {
+        return sharedCache != null ? sharedCache.getEvictions() : 0;
+    }
+
+    @Override
+    public long getSharedCachePurges() {
+        return sharedCache != null ? sharedCache.getPurges() : 0;
+    }
+
+    @Override
+    public int getSharedCacheSize() {
+        return sharedCache != null ? sharedCache.getSize() : 0;
+    }
+
+    @Override
+    public long getSharedCacheBytes() {
+        return sharedCache != null ? sharedCache.getBytes() : 0;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+/**
+ * The statistics of one {@link XmlHttpProxyServlet}, registered as
+ * <code>org.jboss.as.console:type=XmlHttpProxy,name=&lt;servlet name></code>. The shared cache and async attributes
+ * are 0 if the servlet doesn't use them.
+ */
+public interface ProxyStatsMBean {
+
+    long getRequests();
+
+    long getRequestBytes();
+
+    long getResponseBytes();
+
+    long getMaxResponseBytes();
+
+    int getMaxConnections();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getWaitingForConnection();
+
+    long getConnectionLeases();
+
+    long getConnectionTimeouts();
+
+    double getAverageConnectionWaitTime();
+
+    long getMaxConnectionWaitTime();
+
+    int getAsyncQueueLength();
+
+    long getAsyncRejections();
+
+    long getAsyncTimeouts();
+
+    long getSharedCacheHits();
+
+    long getSharedCacheCollapsed();
+
+    long getSharedCacheMisses();
+
+    long getSharedCacheEvictions();
+
+    long getSharedCachePurges();
+
+    int getSharedCacheSize();
+
+    long getSharedCacheBytes();
+}
@@ -0,0 +1,239 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Copies request and response bodies through the proxy without holding them in memory. Each thread reuses one
+ * large buffer, so copying doesn't allocate per request.
+ */
+public final class ProxyStreams {
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[BUFFER_SIZE];
+        }
+    };
+
+    private ProxyStreams() {}
+
+    /**
+     * Copies the input to the output. Neither stream is closed.
+     *
+     * @return the number of bytes copied
+     */
+    public static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = BUFFERS.get();
+        long count = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            count += read;
+        }
+        return count;
+    }
+
+    /**
+     * Skips the rest of the input and closes it, so the underlying connection can be reused. Errors are ignored.
+     *
+     * @return whether the input was read completely
+     */
+    public static boolean drain(InputStream in) {
+        if (in != null) {
+            try {
+                byte[] buffer = BUFFERS.get();
+                while (in.read(buffer) != -1) {
+                    // discard
+                }
+                in.close();
+                return true;
+            } catch (IOException e) {
+                // the connection is not reused
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads at most {@code limit} bytes of the input, e.g. to report the body of an error response. The rest of the
+     * input is skipped and the input is closed, so the underlying connection can be reused.
+     */
+    public static String toString(InputStream in, int limit, String charset) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(limit, BUFFER_SIZE));
+            byte[] buffer = BUFFERS.get();
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                int keep = Math.min(read, limit - out.size());
+                if (keep > 0) {
+                    out.write(buffer, 0, keep);
+                }
+            }
+            return out.toString(charset);
+        } finally {
+            in.close();
+        }
+    }
+
+
+    /**
+     * Reads the input completely, if it doesn't exceed the limit. The input is not closed.
+     *
+     * @return the bytes read or null if the input exceeded the limit
+     */
+    public static byte[] toByteArray(InputStream in, int limit) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(limit, BUFFER_SIZE));
+        byte[] buffer = BUFFERS.get();
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > limit) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+
+    /**
+     * Counts the bytes read from the wrapped stream.
+     */
+    public static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        public CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read != -1) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+
+    /**
+     * Counts the bytes written to the wrapped stream. Unlike {@link FilterOutputStream} arrays are passed on as a
+     * whole.
+     */
+    public static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        public CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+
+    /**
+     * Keeps a copy of the bytes written to the wrapped stream as long as they don't exceed the limit.
+     */
+    public static class CapturingOutputStream extends FilterOutputStream {
+
+        private final int limit;
+        private ByteArrayOutputStream captured;
+
+        public CapturingOutputStream(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+            this.captured = new ByteArrayOutputStream(Math.min(limit, BUFFER_SIZE));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (captured != null) {
+                if (captured.size() + len > limit) {
+                    captured = null;
+                } else {
+                    captured.write(b, off, len);
+                }
+            }
+        }
+
+        /**
+         * @return the bytes written or null if they exceeded the limit
+         */
+        public byte[] getCaptured() {
+            return captured != null ? captured.toByteArray() : null;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares the responses of read-only management operations between the users of the proxy.
+ * <p>
+ * Identical requests, which are in progress at the same time, are sent to the management interface only once: the
+ * first request (the leader) is proxied, the others wait for its response. Responses of description reads are
+ * additionally kept for a short time, limited by a byte budget. Write operations are never shared; once they're done,
+ * the kept responses of resources they might have changed are removed.
+ * <p>
+ * Requests are shared by principal. The roles of a user are learned from the responses of {@code whoami}, which the
+ * console sends when it starts. Users with the same roles share responses, users with unknown roles only share with
+ * themselves. Since the proxy has to be sure about who sent a request, only requests with basic authentication,
+ * requests using the credentials of the service configuration and requests without credentials are shared.
+ */
+public class SharedResponseCache {
+
+    public static final long DEFAULT_TTL = 10000;
+    public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * The roles of a user are assumed to be valid for this time after they have been learned.
+     */
+    private static final long ROLES_TTL = 5 * 60 * 1000;
+    private static final int MAX_USERS = 256;
+
+    /**
+     * Changes of the role mapping are made below this address.
+     */
+    private static final List<String> AUTHORIZATION = Arrays.asList("core-service=management", "access=authorization");
+
+    private static final String DMR_ENCODED = "application/dmr-encoded";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final long ttl;
+    private final long maxBytes;
+    private final long maxWait;
+    private final Map<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private final Map<String, Roles> roles;
+    private long bytes;
+
+    /**
+     * Incremented by every write, so responses read before the write completed are not kept.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong purges = new AtomicLong();
+
+    /**
+     * @param ttl      the time in milliseconds description reads are kept
+     * @param maxBytes the maximum size of the responses kept
+     * @param maxWait  the time in milliseconds followers wait for the leader, usually the time requests wait for a
+     *                 free connection. Followers which give up send the request themselves.
+     */
+    public SharedResponseCache(long ttl, long maxBytes, long maxWait) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        this.ttl = ttl;
+        this.maxBytes = maxBytes;
+        this.maxWait = maxWait;
+        this.roles = Collections.synchronizedMap(new LinkedHashMap<String, Roles>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Roles> eldest) {
+                return size() > MAX_USERS;
+            }
+        });
+    }
+
+    /**
+     * Identifies the sender of a request.
+     *
+     * @return the credential or null if the request can't be shared
+     */
+    static String credential(String authHeader, String userName, String password) {
+        // the passwords are part of the credentials, which are not kept as such
+        if (userName != null && password != null) {
+            return hash("user:", userName + ":" + password);
+        }
+        if (authHeader == null) {
+            return "anonymous";
+        }
+        if (authHeader.trim().regionMatches(true, 0, "Basic ", 0, 6)) {
+            return hash("basic:", authHeader.trim());
+        }
+        return null;
+    }
+
+    private static String hash(String prefix, String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return prefix + Base64.getEncoder().encodeToString(digest.digest(value.getBytes(UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the principal used to share the response of the operation: the roles of the user if they're known
+     * and the response doesn't depend on the user, the credential otherwise.
+     */
+    String principal(String credential, ManagementOperation operation) {
+        if (!operation.isPersonal()) {
+            Roles known = roles.get(credential);
+            if (known != null && !known.isExpired()) {
+                return "roles:" + known.roles;
+            }
+        }
+        return credential;
+    }
+
+    /**
+     * Returns the kept response for the key if it's still fresh.
+     */
+    Response get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.isExpired()) {
+                    hits.incrementAndGet();
+                    return entry.response;
+                }
+                remove(key);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Joins the request in progress for the key or starts a new one.
+     *
+     * @param keep whether the response is kept, once the request is done
+     */
+    Flight join(String key, ManagementOperation operation, boolean keep) {
+        Flight flight = new Flight(key, operation, keep, generation.get());
+        Flight leader = flights.putIfAbsent(key, flight);
+        if (leader != null) {
+            return new Flight(leader);
+        }
+        misses.incrementAndGet();
+        return flight;
+    }
+
+    /**
+     * Learns the roles of the user from the response to a {@code whoami} operation.
+     */
+    void learnRoles(String credential, ManagementOperation operation, Response response) {
+        int step = operation.whoamiStep();
+        if (step == -1 || operation.hasHeaders() || response.status != 200 || response.contentType == null
+                || !response.contentType.startsWith(DMR_ENCODED)) {
+            return;
+        }
+        try {
+            Object result = result(DmrReader.readBase64(response.body));
+            if (step > 0) {
+                result = result(result instanceof Map ? ((Map) result).get("step-" + step) : null);
+            }
+            Object mapped = result instanceof Map ? ((Map) result).get("mapped-roles") : null;
+            if (mapped instanceof List) {
+                List<String> names = new ArrayList<String>();
+                for (Object role : (List) mapped) {
+                    names.add(String.valueOf(role).toUpperCase());
+                }
+                Collections.sort(names);
+                roles.put(credential, new Roles(names.toString()));
+            }
+        } catch (IOException e) {
+            // nothing to learn
+        }
+    }
+
+    private static Object result(Object response) {
+        return response instanceof Map ? ((Map) response).get("result") : null;
+    }
+
+    /**
+     * Removes the kept responses the write operation might have changed. Requests in progress don't keep their
+     * responses.
+     *
+     * @param operation the write operation or null if it's not known, which removes all kept responses
+     */
+    void written(ManagementOperation operation) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            for (Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next().getValue();
+                if (operation == null || operation.affects(entry.operation)) {
+                    iterator.remove();
+                    bytes -= entry.response.body.length;
+                    purges.incrementAndGet();
+                }
+            }
+        }
+        if (operation == null || operation.addresses(AUTHORIZATION)) {
+            roles.clear();
+        }
+    }
+
+    private void keep(String key, ManagementOperation operation, Response response, long generation) {
+        long size = response.body.length;
+        if (size > maxBytes / 4) {
+            return;
+        }
+        synchronized (entries) {
+            if (generation != this.generation.get()) {
+                return;
+            }
+            remove(key);
+            entries.put(key, new Entry(operation, response, System.currentTimeMillis() + ttl));
+            bytes += size;
+            for (Iterator<Entry> iterator = entries.values().iterator(); bytes > maxBytes && iterator.hasNext(); ) {
+                Entry eldest = iterator.next();
+                iterator.remove();
+                bytes -= eldest.response.body.length;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            bytes -= entry.response.body.length;
+        }
+    }
+
+    /**
+     * The limit of a response to be shared.
+     */
+    int getMaxResponseSize() {
+        return (int) Math.min(maxBytes / 4, Integer.MAX_VALUE);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+        roles.clear();
+    }
+
+    /**
+     * The number of requests answered with a kept response.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * The number of requests answered with the response of an identical request in progress.
+     */
+    public long getCollapsed() {
+        return collapsed.get();
+    }
+
+    /**
+     * The number of shareable requests sent to the management interface.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * The number of kept responses removed to stay within the byte budget.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * The number of kept responses removed because of write operations.
+     */
+    public long getPurges() {
+        return purges.get();
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+
+    /**
+     * A response as sent to the client.
+     */
+    static final class Response {
+
+        final int status;
+        final String contentType;
+        final byte[] body;
+
+        Response(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+
+    /**
+     * A request in progress. The leader sends the request and completes the flight, followers wait for its response.
+     */
+    final class Flight {
+
+        private final String key;
+        private final ManagementOperation operation;
+        private final boolean keep;
+        private final long generation;
+        private final Flight leader;
+        private final CountDownLatch done;
+        private volatile Response response;
+
+        private Flight(String key, ManagementOperation operation, boolean keep, long generation) {
+            this.key = key;
+            this.operation = operation;
+            this.keep = keep;
+            this.generation = generation;
+            this.leader = null;
+            this.done = new CountDownLatch(1);
+        }
+
+        private Flight(Flight leader) {
+            this.key = leader.key;
+            this.operation = leader.operation;
+            this.keep = leader.keep;
+            this.generation = leader.generation;
+            this.leader = leader;
+            this.done = leader.done;
+        }
+
+        boolean isLeader() {
+            return leader == null;
+        }
+
+        /**
+         * Called by the leader once the request is done.
+         *
+         * @param response the response or null if it failed or can't be shared
+         */
+        void complete(Response response) {
+            if (!isLeader()) {
+                throw new IllegalStateException("Not the leader");
+            }
+            flights.remove(key, this);
+            if (response != null && response.status == 200) {
+                this.response = response;
+                if (keep) {
+                    keep(key, operation, response, generation);
+                }
+            }
+            done.countDown();
+        }
+
+        /**
+         * Called by followers to wait for the response of the leader.
+         *
+         * @return the response or null if the leader didn't get a response which can be shared, in which case the
+         * follower sends the request itself
+         */
+        Response await() {
+            if (isLeader()) {
+                throw new IllegalStateException("The leader doesn't wait");
+            }
+            Response shared = null;
+            try {
+                if (done.await(maxWait, TimeUnit.MILLISECONDS)) {
+                    shared = leader.response;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (shared != null) {
+                collapsed.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+            }
+            return shared;
+        }
+    }
+
+
+    private final class Entry {
+
+        final ManagementOperation operation;
+        final Response response;
+        final long expires;
+
+        Entry(ManagementOperation operation, Response response, long expires) {
+            this.operation = operation;
+            this.response = response;
+            this.expires = expires;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+    }
+
+
+    private static final class Roles {
+
+        final String roles;
+        final long expires = System.currentTimeMillis() + ROLES_TTL;
+
+        Roles(String roles) {
+            this.roles = roles;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+/**
+ * Compiled XSL style sheets keyed by URL. Compiling a style sheet is far more expensive than applying it, so each
+ * style sheet is compiled once and every request gets a cheap {@link javax.xml.transform.Transformer} from the
+ * cached {@link Templates}, which are thread safe.
+ * <p>
+ * A style sheet is compiled again when its last-modified time changes. The time is checked at most once per
+ * {@link #CHECK_INTERVAL}.
+ */
+public class TemplatesCache {
+
+    public static final long CHECK_INTERVAL = 2000;
+
+    private final TransformerFactory factory = TransformerFactory.newInstance();
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final long checkInterval;
+
+    public TemplatesCache() {
+        this(CHECK_INTERVAL);
+    }
+
+    /**
+     * @param checkInterval the minimum time in milliseconds between two checks of the last-modified time
+     */
+    TemplatesCache(long checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Returns the compiled style sheet, compiling it if it's not cached or has been modified.
+     */
+    public Templates get(URL url) throws IOException, TransformerConfigurationException {
+        String key = url.toExternalForm();
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (now - entry.checked < checkInterval) {
+                return entry.templates;
+            }
+            long lastModified = lastModified(url);
+            if (lastModified == entry.lastModified) {
+                entry.checked = now;
+                return entry.templates;
+            }
+        }
+
+        // compile outside of the map, another thread compiling the same style sheet only costs time
+        long lastModified = lastModified(url);
+        InputStream in = url.openStream();
+        try {
+            StreamSource source = new StreamSource(in, key);
+            Templates templates = compile(source);
+            entries.put(key, new Entry(templates, lastModified, now));
+            return templates;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Compiles a style sheet without caching it.
+     */
+    public Templates compile(StreamSource source) throws TransformerConfigurationException {
+        // the factory is not thread safe
+        synchronized (factory) {
+            return factory.newTemplates(source);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static long lastModified(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return new File(url.toURI()).lastModified();
+            } catch (URISyntaxException e) {
+                return new File(url.getPath()).lastModified();
+            } catch (IllegalArgumentException e) {
+                return new File(url.getPath()).lastModified();
+            }
+        }
+        URLConnection connection = url.openConnection();
+        return connection.getLastModified();
+    }
+
+
+    private static class Entry {
+
+        final Templates templates;
+        final long lastModified;
+        volatile long checked;
+
+        Entry(Templates templates, long lastModified, long checked) {
+            this.templates = templates;
+            this.lastModified = lastModified;
+            this.checked = checked;
+        }
+    }
+}
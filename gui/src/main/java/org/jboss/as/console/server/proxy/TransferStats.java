@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bytes transferred by the proxy. The numbers of one request are logged at level FINE, the totals are kept here
+ * and published by {@link ProxyStats}.
+ */
+public class TransferStats {
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong requestBytes = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+    private final AtomicLong maxResponseBytes = new AtomicLong();
+
+    public void record(long requestBytes, long responseBytes) {
+        this.requests.incrementAndGet();
+        this.requestBytes.addAndGet(requestBytes);
+        this.responseBytes.addAndGet(responseBytes);
+        long max = maxResponseBytes.get();
+        while (responseBytes > max && !maxResponseBytes.compareAndSet(max, responseBytes)) {
+            max = maxResponseBytes.get();
+        }
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * The bytes received from the clients.
+     */
+    public long getRequestBytes() {
+        return requestBytes.get();
+    }
+
+    /**
+     * The bytes sent to the clients.
+     */
+    public long getResponseBytes() {
+        return responseBytes.get();
+    }
+
+    public long getMaxResponseBytes() {
+        return maxResponseBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "TransferStats{requests=" + getRequests() + ", requestBytes=" + getRequestBytes() +
+                ", responseBytes=" + getResponseBytes() + ", maxResponseBytes=" + getMaxResponseBytes() + "}";
+    }
+}
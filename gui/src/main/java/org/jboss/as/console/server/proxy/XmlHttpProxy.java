@@ -22,7 +22,8 @@ package org.jboss.as.console.server.proxy;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -34,8 +35,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
@@ -57,22 +60,83 @@ public class XmlHttpProxy {
     int proxyPort = -1;
     private Object config;
     private static String USAGE = "Usage:  -url service_URL  -id service_key [-url or -id required] -xslurl xsl_url [optional] -format json|xml [optional] -callback[optional] -config [optional] -resources base_directory_containing XSL stylesheets [optional]";
-    private String authHeader;
-
-    public XmlHttpProxy() {}
+    /**
+     * The state of the current request. The proxy is shared by all requests of the servlet, the servlet reads the
+     * response status and content type on the thread which made the request.
+     */
+    private final ThreadLocal<String> authHeader = new ThreadLocal<String>();
+    private final ThreadLocal<String> contentType = new ThreadLocal<String>();
+    private final ThreadLocal<Integer> status = new ThreadLocal<Integer>();
+    private final ThreadLocal<Boolean> complete = new ThreadLocal<Boolean>();
+    private final ThreadLocal<Abort> abort = new ThreadLocal<Abort>();
 
-    private String contentType = "application/json";
+    /**
+     * Error responses are passed on in the exception up to this size.
+     */
+    private static final int MAX_ERROR_BODY = 64 * 1024;
 
-    private Map<String, Cookie> cookies = new HashMap<String, Cookie>();
+    public XmlHttpProxy() {}
 
-    int status = -1;
+    /**
+     * Created on first use unless configured, since the pool sizes the keep-alive cache of the JVM.
+     */
+    private ConnectionPool connectionPool;
+    private int readTimeout = 0;
+    private final TemplatesCache templatesCache = new TemplatesCache();
 
     public String getContentType() {
-        return contentType;
+        String type = contentType.get();
+        return type != null ? type : "application/json";
     }
 
     public int getStatus() {
-        return status;
+        Integer code = status.get();
+        return code != null ? code : -1;
+    }
+
+    /**
+     * Whether the response body of the last request on this thread was passed on completely. Errors while copying
+     * or transforming the body are only logged, since the status has been sent already.
+     */
+    public boolean isComplete() {
+        return Boolean.TRUE.equals(complete.get());
+    }
+
+    /**
+     * @param readTimeout the time in milliseconds to wait for data from the service, 0 (the default) waits forever
+     */
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * The compiled style sheets, shared by all requests.
+     */
+    public TemplatesCache getTemplatesCache() {
+        return templatesCache;
+    }
+
+    /**
+     * Lets another thread abort the requests executed on the current thread until {@code null} is set.
+     */
+    public void setAbort(Abort abort) {
+        if (abort != null) {
+            this.abort.set(abort);
+        } else {
+            this.abort.remove();
+        }
+    }
+
+    public synchronized ConnectionPool getConnectionPool() {
+        if (connectionPool == null) {
+            connectionPool = new ConnectionPool(ConnectionPool.DEFAULT_MAX_CONNECTIONS,
+                    ConnectionPool.DEFAULT_MAX_WAIT);
+        }
+        return connectionPool;
+    }
+
+    public synchronized void setConnectionPool(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
     }
 
     public interface CookieCallback
@@ -112,9 +176,27 @@ public class XmlHttpProxy {
                                String method,
                                String userName,
                                String password, String authHeader) throws IOException, MalformedURLException {
-        this.authHeader = authHeader;
+        this.authHeader.set(authHeader);
         doProcess(urlString, out, xslInputStream, paramsMap, headers,method, null,null, userName,password);
     }
+
+    /**
+     * Like {@link #processRequest(String, OutputStream, InputStream, Map, Map, String, String, String, String)}, but
+     * uses a compiled style sheet (see {@link #getTemplatesCache()}).
+     *
+     * @param templates - the compiled XSL style sheet or null if there is no transformation
+     */
+    public void processRequest(String urlString,
+                               OutputStream out,
+                               Templates templates,
+                               Map paramsMap,
+                               Map headers,
+                               String method,
+                               String userName,
+                               String password, String authHeader) throws IOException, MalformedURLException {
+        this.authHeader.set(authHeader);
+        doProcess(urlString, out, templates, paramsMap, headers, method, null, -1, null, userName, password);
+    }
     /**
      * This method will go out and make the call and it will apply an XSLT Transformation with the
      * set of parameters provided.
@@ -133,10 +215,33 @@ public class XmlHttpProxy {
                        String postContentType,
                        String userName,
                        String password, String authHeader) throws IOException, MalformedURLException {
-        this.authHeader = authHeader;
+        this.authHeader.set(authHeader);
         doProcess(urlString, out, xslInputStream, paramsMap, headers, XmlHttpProxy.POST, postData, postContentType, userName, password);
     }
 
+    /**
+     * Like {@link #doPost(String, OutputStream, InputStream, Map, Map, byte[], String, String, String, String)}, but
+     * streams the body to the service instead of buffering it and uses a compiled style sheet (see {@link
+     * #getTemplatesCache()}).
+     *
+     * @param templates - the compiled XSL style sheet or null if there is no transformation
+     * @param postData - the body to be posted. Not closed by this method.
+     * @param contentLength - the number of bytes to be posted or -1 if unknown
+     */
+    public void doPost(String urlString,
+                       OutputStream out,
+                       Templates templates,
+                       Map paramsMap,
+                       Map headers,
+                       InputStream postData,
+                       long contentLength,
+                       String postContentType,
+                       String userName,
+                       String password, String authHeader) throws IOException, MalformedURLException {
+        this.authHeader.set(authHeader);
+        doProcess(urlString, out, templates, paramsMap, headers, XmlHttpProxy.POST, postData, contentLength, postContentType, userName, password);
+    }
+
     /**
      * This method will go out and make the call and it will apply an XSLT Transformation with the
      * set of parameters provided.
@@ -161,6 +266,55 @@ public class XmlHttpProxy {
                           String postContentType,
                           String userName,
                           String password) throws IOException, MalformedURLException {
+        doProcess(urlString, out, compile(xslInputStream), paramsMap, headers, method,
+                postData != null ? new ByteArrayInputStream(postData) : null,
+                postData != null ? postData.length : -1, postContentType, userName, password);
+    }
+
+    private void doProcess(String urlString,
+                           OutputStream out,
+                           Templates templates,
+                           Map paramsMap,
+                           Map headers,
+                           String method,
+                           InputStream postData,
+                           long contentLength,
+                           String postContentType,
+                           String userName,
+                           String password) throws IOException, MalformedURLException {
+
+        // the worker threads are reused, don't report the outcome of a previous request
+        contentType.remove();
+        status.remove();
+        complete.remove();
+
+        // blocks until a connection is free
+        ConnectionPool.Lease lease = getConnectionPool().acquire();
+        Abort abort = this.abort.get();
+        try {
+            execute(lease, urlString, out, templates, paramsMap, headers, method, postData, contentLength,
+                    postContentType, userName, password);
+        } finally {
+            // before the connection can be leased again
+            if (abort != null) {
+                abort.detach();
+            }
+            lease.release();
+        }
+    }
+
+    private void execute(ConnectionPool.Lease lease,
+                         String urlString,
+                         OutputStream out,
+                         Templates templates,
+                         Map paramsMap,
+                         Map headers,
+                         String method,
+                         InputStream postData,
+                         long contentLength,
+                         String postContentType,
+                         String userName,
+                         String password) throws IOException, MalformedURLException {
 
         if (paramsMap == null) {
             paramsMap = new HashMap();
@@ -176,12 +330,15 @@ public class XmlHttpProxy {
 
         HttpClient httpclient = null;
 
+        // the cookies are kept per credential
+        final String authHeader = this.authHeader.get();
+        final Map<String, Cookie> cookies = getConnectionPool().getCookies(authHeader, userName, password);
         CookieCallback callback = new CookieCallback()
         {
 
             public Map<String, Cookie> getCookies()
             {
-                return accessCookies();
+                return cookies;
             }
         };
 
@@ -193,12 +350,17 @@ public class XmlHttpProxy {
         {
             httpclient = new HttpClient(proxyHost, proxyPort, urlString, headers, method, callback, authHeader);
         }
+        httpclient.setReadTimeout(readTimeout);
+        Abort abort = this.abort.get();
+        if (abort != null) {
+            abort.attach(httpclient);
+        }
 
         // post data determines whether we are going to do a get or a post
         if (postData == null) {
             in = httpclient.getInputStream();
         } else {
-            in = httpclient.doPost(postData, postContentType);
+            in = httpclient.doPost(postData, contentLength, postContentType);
         }
 
         // Set-Cookie header
@@ -255,16 +417,19 @@ public class XmlHttpProxy {
             if(401== responseCode || 403==responseCode)
             {
                 // authentication required
+                lease.setReusable(ProxyStreams.drain(in));
                 throw new AuthenticationException(responseCode, httpclient.getHeader("WWW-Authenticate"));
             }
             else if(307==responseCode)
             {
                 // redirect
+                lease.setReusable(ProxyStreams.drain(in));
                 throw new RedirectException(httpclient.getHeader("Location"));
             }
             else if(503==responseCode)
             {
                 // service unavailable
+                lease.setReusable(ProxyStreams.drain(in));
                 throw new ServiceUnavailableException(httpclient.getHeader("Retry-After"));
             }
             else
@@ -274,38 +439,29 @@ public class XmlHttpProxy {
 
                 // and into the exception
                 GenericException ex = new GenericException("Failed to open input stream, status: " + responseCode);
-
-
-                /*try {
-
-                    BufferedInputStream bin = new BufferedInputStream(in);
-                    ByteArrayOutputStream bout = new ByteArrayOutputStream();
-                    int next = bin.read();
-                    while (next > -1) {
-                        bout.write(next);
-                        next = in.read();
+                if (in != null) {
+                    try {
+                        ex.setResponseBody(ProxyStreams.toString(in, MAX_ERROR_BODY, charset(httpclient)));
+                        lease.setReusable(true);
+                    } catch (IOException e) {
+                        // ignore
                     }
-
-                    ex.setResponseBody(new String(bout.toByteArray()));
-
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    // ignore
                 }
-*/
                 ex.setResponseText(httpclient.getResponseMessage());
                 throw ex;
             }
         }
 
-        pipeResponsePayload(out, xslInputStream, paramsMap, in, httpclient);
+        lease.setReusable(pipeResponsePayload(out, templates, paramsMap, in, httpclient));
 
 
     }
 
-    private void pipeResponsePayload(OutputStream out, InputStream xslInputStream, Map paramsMap, InputStream in, HttpClient httpclient) {
-        // read the encoding from the incoming document and default to UTF-8
-        // if an encoding is not provided
+    /**
+     * read the encoding from the incoming document and default to UTF-8
+     * if an encoding is not provided
+     */
+    private static String charset(HttpClient httpclient) {
         String ce = httpclient.getContentEncoding();
         if (ce == null) {
             String ct = httpclient.getContentType();
@@ -320,28 +476,32 @@ public class XmlHttpProxy {
                 ce = "UTF-8";
             }
         }
+        return ce;
+    }
+
+    /**
+     * @return whether the response was read completely and closed
+     */
+    private boolean pipeResponsePayload(OutputStream out, Templates templates, Map paramsMap, InputStream in, HttpClient httpclient) {
+        String ce = charset(httpclient);
         // get the content type
-        this.contentType = httpclient.getContentType();
-        this.status = httpclient.getResponseCode();
+        this.contentType.set(httpclient.getContentType());
+        this.status.set(httpclient.getResponseCode());
 
         // write out the content type
         //http://www.ietf.org/rfc/rfc4627.txt
 
+        boolean complete = false;
         try {
 
             // response stream
 
-            byte[] buffer = new byte[1024];
-            int read = 0;
-            if (xslInputStream == null) {
-                while (true) {
-                    read = in.read(buffer);
-                    if (read <= 0) break;
-                    out.write(buffer, 0, read );
-                }
+            if (templates == null) {
+                ProxyStreams.copy(in, out);
             } else {
-                transform(in, xslInputStream, paramsMap, out, ce);
+                doTransform(in, templates, paramsMap, out, ce);
             }
+            complete = true;
         } catch (Exception e) {
             getLogger().severe("XmlHttpProxy transformation error: " + e);
         } finally {
@@ -357,11 +517,8 @@ public class XmlHttpProxy {
                 // do nothing
             }
         }
-    }
-
-    private Map<String,Cookie> accessCookies()
-    {
-        return cookies;
+        this.complete.set(complete);
+        return complete;
     }
 
     /**
@@ -373,20 +530,54 @@ public class XmlHttpProxy {
                            OutputStream result,
                            String encoding) {
         try {
-            TransformerFactory trFac = TransformerFactory.newInstance();
-            Transformer transformer = trFac.newTransformer(new StreamSource(xslIS));
-            Iterator it = params.keySet().iterator();
-            while (it.hasNext()) {
-                String key = (String)it.next();
-                transformer.setParameter(key, (String)params.get(key));
-            }
-            transformer.setOutputProperty("encoding", encoding);
-            transformer.transform(new StreamSource(xmlIS), new StreamResult(result));
+            transform(xmlIS, templatesCache.compile(new StreamSource(xslIS)), params, result, encoding);
+        } catch (Exception e) {
+            getLogger().severe("XmlHttpProxy: Exception with xslt " + e);
+        }
+    }
+
+    /**
+     * Do the XSLT transformation using a compiled style sheet. The document is parsed straight from the input
+     * and the result written straight to the output.
+     */
+    public void transform( InputStream xmlIS,
+                           Templates templates,
+                           Map params,
+                           OutputStream result,
+                           String encoding) {
+        try {
+            doTransform(xmlIS, templates, params, result, encoding);
         } catch (Exception e) {
             getLogger().severe("XmlHttpProxy: Exception with xslt " + e);
         }
     }
 
+    private void doTransform(InputStream xmlIS, Templates templates, Map params, OutputStream result,
+                             String encoding) throws TransformerException, IOException {
+        Transformer transformer = templates.newTransformer();
+        Iterator it = params.keySet().iterator();
+        while (it.hasNext()) {
+            String key = (String)it.next();
+            transformer.setParameter(key, (String)params.get(key));
+        }
+        transformer.setOutputProperty("encoding", encoding);
+        BufferedOutputStream out = new BufferedOutputStream(result, ProxyStreams.BUFFER_SIZE);
+        transformer.transform(new StreamSource(new BufferedInputStream(xmlIS, ProxyStreams.BUFFER_SIZE)),
+                new StreamResult(out));
+        out.flush();
+    }
+
+    private Templates compile(InputStream xslInputStream) throws IOException {
+        if (xslInputStream == null) {
+            return null;
+        }
+        try {
+            return templatesCache.compile(new StreamSource(xslInputStream));
+        } catch (TransformerConfigurationException e) {
+            throw new IOException("Invalid XSL style sheet: " + e.getMessage(), e);
+        }
+    }
+
     /**
      *
      * CLI to the XmlHttpProxy
@@ -533,4 +724,62 @@ public class XmlHttpProxy {
             return authHeader;
         }
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Aborts a request which is executed on another thread, e.g. when an async request timed out. The connection to
+     * the service is closed, so the request doesn't wait for the rest of the response, and nothing is written to a
+     * {@linkplain #guard(OutputStream) guarded} output anymore.
+     */
+    public static class Abort {
+
+        private HttpClient client;
+        private volatile boolean aborted;
+
+        public synchronized void abort() {
+            aborted = true;
+            if (client != null) {
+                client.disconnect();
+                client = null;
+            }
+        }
+
+        public boolean isAborted() {
+            return aborted;
+        }
+
+        /**
+         * Wraps the output, so writing fails once the request was aborted.
+         */
+        public OutputStream guard(OutputStream out) {
+            return new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    check();
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    check();
+                    out.write(b, off, len);
+                }
+            };
+        }
+
+        synchronized void attach(HttpClient client) throws IOException {
+            check();
+            this.client = client;
+        }
+
+        synchronized void detach() {
+            client = null;
+        }
+
+        private void check() throws IOException {
+            if (aborted) {
+                throw new IOException("Request aborted");
+            }
+        }
+    }
+}
@@ -20,6 +20,10 @@
 package org.jboss.as.console.server.proxy;
 
 
+import javax.management.JMException;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -27,12 +31,13 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
+import javax.xml.transform.Templates;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLEncoder;
@@ -43,6 +48,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.PropertyResourceBundle;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -73,6 +85,28 @@ import java.util.logging.Logger;
  *
  * <p/>
  *
+ * The number of connections to the service is limited by the context parameter <code>maxConnections</code>
+ * (default 20). Requests wait up to <code>connectionWaitTimeout</code> milliseconds (default 30000) for a free
+ * connection, otherwise they're answered with 503.<p/>
+ *
+ * In async mode (servlet init parameter <code>async</code> set to <code>true</code> and
+ * <code>&lt;async-supported>true&lt;/async-supported></code>) requests are proxied on a bounded pool of
+ * <code>asyncThreads</code> workers (default: <code>maxConnections</code>) instead of the container threads.
+ * At most <code>asyncQueueSize</code> requests (default 100) wait for a worker, further requests are answered with
+ * 503. Requests which take longer than <code>asyncTimeout</code> milliseconds (default 5 minutes) are answered
+ * with 504.<p/>
+ *
+ * If the servlet init parameter <code>sharedCache</code> is set to <code>true</code>, identical read-only operations
+ * of users with the same roles are sent to the service only once, while they're in progress. Responses of
+ * description reads are kept for <code>sharedCacheTtl</code> milliseconds (default 10000) within a budget of
+ * <code>sharedCacheSize</code> bytes (default 16 MB). Write operations remove the responses they might have changed.
+ * See {@link SharedResponseCache}.<p/>
+ *
+ * The bytes transferred, the connections, the async workers and the shared cache are published over JMX as
+ * <code>org.jboss.as.console:type=XmlHttpProxy,name=&lt;servlet name></code>, see {@link ProxyStatsMBean}.
+ * The proxy doesn't log unless the servlet init parameter <code>logLevel</code> is set, e.g. to <code>FINE</code>
+ * for the bytes of each request.<p/>
+ *
  * gwt-proxy.properties:<br>
  * <pre>
  *    service.id=domain-api
@@ -90,38 +124,44 @@ public class XmlHttpProxyServlet extends HttpServlet
 
     private static String XHP_LAST_MODIFIED = "xhp_last_modified_key";
     private static String DEFAULT_CONFIG = "gwt-proxy.properties";
+    private static long DEFAULT_ASYNC_TIMEOUT = 5 * 60 * 1000;
+    private static int DEFAULT_ASYNC_QUEUE_SIZE = 100;
+    private static long ABORT_WAIT = 5000;
+    private static int MAX_SHARED_REQUEST = 64 * 1024;
 
     private static boolean allowXDomain = false;
     private static boolean requireSession = false;
     private static boolean createSession = false;
     private static String defaultContentType = "application/dmr-encoded;charset=UTF-8";
-    private static boolean rDebug = false;
     private Logger logger = null;
     private XmlHttpProxy xhp = null;
     private ServletContext ctx;
-    private List<Map<String,Object>> services = null;
+    private volatile List<Map<String,Object>> services = null;
     private String resourcesDir = "/resources/";
     private String classpathResourcesDir = "/META-INF/resources/";
     private String headerToken = "jmaki-";
     private String testToken = "xtest-";
 
-    private static String testUser;
-    private static String testPass;
-
     private static String setCookie;
     private String configResource = null;
-    private String authHeader;
-
-    public XmlHttpProxyServlet() {
-        if (rDebug) {
-            logger = getLogger();
-        }
-
-    }
+    private final TransferStats transferStats = new TransferStats();
+    private ThreadPoolExecutor executor;
+    private long asyncTimeout = DEFAULT_ASYNC_TIMEOUT;
+    private SharedResponseCache sharedCache;
+    private ProxyStats stats;
 
     public void init(ServletConfig config) throws ServletException {
         super.init(config);
         ctx = config.getServletContext();
+        // the level of the proxy logger, off unless configured
+        String logLevel = config.getInitParameter("logLevel");
+        if (logLevel != null) {
+            try {
+                getLogger().setLevel(Level.parse(logLevel));
+            } catch (IllegalArgumentException e) {
+                throw new ServletException("XmlHttpProxyServlet: intialization error. Unknown logLevel " + logLevel);
+            }
+        }
         // set the response content type
         if (ctx.getInitParameter("responseContentType") != null) {
             defaultContentType = ctx.getInitParameter("responseContentType");
@@ -185,16 +225,120 @@ public class XmlHttpProxyServlet extends HttpServlet
             xhp = new XmlHttpProxy();
         }
 
+        // connections to the management interface
+        int maxConnections = ConnectionPool.DEFAULT_MAX_CONNECTIONS;
+        long connectionWaitTimeout = ConnectionPool.DEFAULT_MAX_WAIT;
+        try {
+            if (ctx.getInitParameter("maxConnections") != null) {
+                maxConnections = Integer.parseInt(ctx.getInitParameter("maxConnections"));
+            }
+            if (ctx.getInitParameter("connectionWaitTimeout") != null) {
+                connectionWaitTimeout = Long.parseLong(ctx.getInitParameter("connectionWaitTimeout"));
+            }
+        } catch (NumberFormatException nfe) {
+            getLogger().severe("XmlHttpProxyServlet: intialization error. maxConnections and connectionWaitTimeout must be numbers");
+            throw new ServletException("XmlHttpProxyServlet: intialization error. maxConnections and connectionWaitTimeout must be numbers");
+        }
+        xhp.setConnectionPool(new ConnectionPool(maxConnections, connectionWaitTimeout));
+        if (ConnectionPool.keepAliveConnections() < maxConnections) {
+            getLogger().info("XmlHttpProxyServlet: intialization. Only " + ConnectionPool.keepAliveConnections() +
+                    " of " + maxConnections + " connections are kept alive, see the system property http.maxConnections");
+        }
+
         // config override
         String servletName = config.getServletName();
         String configName = config.getInitParameter("config.name");
         configResource = configName!=null ? configName : DEFAULT_CONFIG;
         //System.out.println("Configure "+servletName + " through "+configResource);
+
+        // async mode, the servlet must be declared with <async-supported>
+        if ("true".equals(config.getInitParameter("async"))) {
+            int asyncThreads = maxConnections;
+            int asyncQueueSize = DEFAULT_ASYNC_QUEUE_SIZE;
+            try {
+                if (config.getInitParameter("asyncTimeout") != null) {
+                    asyncTimeout = Long.parseLong(config.getInitParameter("asyncTimeout"));
+                }
+                if (config.getInitParameter("asyncThreads") != null) {
+                    asyncThreads = Integer.parseInt(config.getInitParameter("asyncThreads"));
+                }
+                if (config.getInitParameter("asyncQueueSize") != null) {
+                    asyncQueueSize = Integer.parseInt(config.getInitParameter("asyncQueueSize"));
+                }
+            } catch (NumberFormatException nfe) {
+                getLogger().severe("XmlHttpProxyServlet: intialization error. asyncTimeout, asyncThreads and asyncQueueSize must be numbers");
+                throw new ServletException("XmlHttpProxyServlet: intialization error. asyncTimeout, asyncThreads and asyncQueueSize must be numbers");
+            }
+            executor = createExecutor(servletName, asyncThreads, asyncQueueSize);
+            // don't let a hanging service block the workers beyond the async timeout
+            xhp.setReadTimeout((int) Math.min(asyncTimeout, Integer.MAX_VALUE));
+            getLogger().info("XmlHttpProxyServlet: intialization. Async mode enabled for " + servletName);
+        }
+
+        // responses shared between users
+        if ("true".equals(config.getInitParameter("sharedCache"))) {
+            long ttl = SharedResponseCache.DEFAULT_TTL;
+            long size = SharedResponseCache.DEFAULT_MAX_BYTES;
+            try {
+                if (config.getInitParameter("sharedCacheTtl") != null) {
+                    ttl = Long.parseLong(config.getInitParameter("sharedCacheTtl"));
+                }
+                if (config.getInitParameter("sharedCacheSize") != null) {
+                    size = Long.parseLong(config.getInitParameter("sharedCacheSize"));
+                }
+            } catch (NumberFormatException nfe) {
+                getLogger().severe("XmlHttpProxyServlet: intialization error. sharedCacheTtl and sharedCacheSize must be numbers");
+                throw new ServletException("XmlHttpProxyServlet: intialization error. sharedCacheTtl and sharedCacheSize must be numbers");
+            }
+            // followers don't wait longer for the leader than for a connection
+            sharedCache = new SharedResponseCache(ttl, size, connectionWaitTimeout);
+            getLogger().info("XmlHttpProxyServlet: intialization. Shared cache enabled for " + servletName);
+        }
+
+        stats = new ProxyStats(transferStats, xhp.getConnectionPool(), executor, sharedCache);
+        try {
+            stats.register(servletName);
+        } catch (JMException e) {
+            // the proxy works without its stats
+            getLogger().warning("XmlHttpProxyServlet: unable to register the stats of " + servletName + ": " + e);
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor(final String servletName, int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, servletName + "-proxy-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        if (stats != null) {
+            try {
+                stats.unregister();
+            } catch (JMException e) {
+                getLogger().warning("XmlHttpProxyServlet: unable to unregister the stats: " + e);
+            }
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        super.destroy();
     }
 
     private void getServices(HttpServletResponse res)
     {
-        services = new ArrayList<Map<String,Object>>();
+        // published once complete, concurrent requests may read them meanwhile
+        List<Map<String,Object>> services = new ArrayList<Map<String,Object>>();
 
         InputStream is = XmlHttpProxyServlet.class.getClassLoader()
                 .getResourceAsStream(configResource);
@@ -208,7 +352,11 @@ public class XmlHttpProxyServlet extends HttpServlet
             serviceConfig.put(ProxyConfig.ID, "default");
             serviceConfig.put(ProxyConfig.URL, bundle.getString("service.url"));
             serviceConfig.put(ProxyConfig.PASSTHROUGH, Boolean.valueOf(bundle.getString("service.passthrough")));
+            if (bundle.containsKey("service.xslStyleSheet")) {
+                serviceConfig.put("xslStyleSheet", bundle.getString("service.xslStyleSheet"));
+            }
             services.add(serviceConfig);
+            this.services = services;
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to load proxy configuration");
@@ -235,29 +383,105 @@ public class XmlHttpProxyServlet extends HttpServlet
 
     public void doProcess(HttpServletRequest req, HttpServletResponse res, String method)
     {
+        if (executor != null && req.isAsyncSupported()) {
+            processAsync(req, res, method);
+        } else {
+            proxy(req, res, method, null);
+        }
+    }
 
-        boolean isPost = XmlHttpProxy.POST.equals(method);
+    /**
+     * Detaches the request from the container thread and proxies it on one of the workers. If all workers are busy
+     * and the queue is full, the request is answered with 503. Requests which are not done within the async
+     * timeout are answered with 504.
+     * <p>
+     * A request is completed exactly once: by the listener if the request is still queued, otherwise by the worker.
+     * If a running request times out or fails, the listener aborts the request to the service and waits for the
+     * worker, which stops writing and completes.
+     */
+    private void processAsync(final HttpServletRequest req, final HttpServletResponse res, final String method)
+    {
+        final AsyncContext async = req.startAsync(req, res);
+        async.setTimeout(asyncTimeout);
+        final AsyncState state = new AsyncState();
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                stats.asyncTimedOut();
+                logMessage("XmlHttpProxyServlet: " + method + " " + req.getRequestURI() + " timed out");
+                if (state.cancel()) {
+                    if (!res.isCommitted()) {
+                        res.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                    }
+                    async.complete();
+                } else {
+                    state.awaitFinished(ABORT_WAIT);
+                }
+            }
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        byte[] bodyContent = null;
+            @Override
+            public void onError(AsyncEvent event) throws IOException {
+                if (state.cancel()) {
+                    async.complete();
+                } else {
+                    state.awaitFinished(ABORT_WAIT);
+                }
+            }
 
-        OutputStream out = null;
-        PrintWriter writer = null;
+            @Override
+            public void onComplete(AsyncEvent event) throws IOException {}
 
-        try {
+            @Override
+            public void onStartAsync(AsyncEvent event) throws IOException {}
+        });
 
-            BufferedInputStream in = new BufferedInputStream(req.getInputStream());
-            int next = in.read();
-            while (next > -1) {
-                bos.write(next);
-                next = in.read();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (!state.start()) {
+                        // cancelled and completed while queued
+                        return;
+                    }
+                    xhp.setAbort(state.abort);
+                    try {
+                        proxy(req, res, method, state.abort);
+                    } finally {
+                        xhp.setAbort(null);
+                        try {
+                            if (state.abort.isAborted() && !res.isCommitted()) {
+                                res.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                            }
+                            async.complete();
+                        } finally {
+                            state.finish();
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // back-pressure: the service doesn't keep up
+            stats.asyncRejected();
+            if (state.cancel()) {
+                res.setHeader("Retry-After", "2");
+                res.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                async.complete();
             }
+        }
+    }
+
+    /**
+     * @param abort aborts the request from another thread, null if the request is processed synchronously
+     */
+    private void proxy(HttpServletRequest req, HttpServletResponse res, String method, XmlHttpProxy.Abort abort)
+    {
 
-            bodyContent = bos.toByteArray();
+        boolean isPost = XmlHttpProxy.POST.equals(method);
 
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        // the body is streamed to the service, both streams count the bytes transferred
+        ProxyStreams.CountingInputStream in = null;
+        ProxyStreams.CountingOutputStream out = null;
+        PrintWriter writer = null;
 
         try
         {
@@ -297,7 +521,9 @@ public class XmlHttpProxyServlet extends HttpServlet
             }
             // get the headers to pass through
             Map headers = null;
-            authHeader = null;
+            String authHeader = null;
+            String testUser = null;
+            String testPass = null;
 
             // Forward all request headers starting with the header token jmaki-
             // and chop off the jmaki-
@@ -456,7 +682,16 @@ public class XmlHttpProxyServlet extends HttpServlet
                 paramsMap.put("count", countString);
             }
 
-            InputStream xslInputStream = null;
+            Templates templates = null;
+            if (xslURLString != null) {
+                URL xslURL = getStylesheetURL(xslURLString);
+                if (xslURL == null) {
+                    getLogger().severe("XmlHttpProxyServlet: unable to locate XSL style sheet " + xslURLString);
+                    res.setStatus(500);
+                    return;
+                }
+                templates = xhp.getTemplatesCache().get(xslURL);
+            }
 
             if (urlString == null) {
                 writer = res.getWriter();
@@ -469,22 +704,25 @@ public class XmlHttpProxyServlet extends HttpServlet
                 urlString = processURL(urlString, req, res);
             }
 
-            out = res.getOutputStream();
+            OutputStream responseStream = res.getOutputStream();
+            out = new ProxyStreams.CountingOutputStream(abort != null ? abort.guard(responseStream) : responseStream);
 
-            if (!isPost)
+            if (isPost)
             {
-                xhp.processRequest(urlString, out, xslInputStream, paramsMap, headers, method, userName, password, authHeader);
+                if (req.getContentLength() == 0)
+                    getLogger().info("XmlHttpProxyServlet attempting to post to url " + urlString + " with no body content");
+                in = new ProxyStreams.CountingInputStream(req.getInputStream());
+            }
+
+            if (sharedCache != null)
+            {
+                proxyShared(req, res, method, urlString, templates, paramsMap, headers, in, out, userName, password, authHeader);
             }
             else
             {
-                if (bodyContent == null)
-                    getLogger().info("XmlHttpProxyServlet attempting to post to url " + urlString + " with no body content");
-                xhp.doPost(urlString, out, xslInputStream, paramsMap, headers, bodyContent, req.getContentType(), userName, password, authHeader);
+                forward(req, res, urlString, templates, paramsMap, headers, method, in, req.getContentLength(), out, userName, password, authHeader);
             }
 
-            res.setContentType(xhp.getContentType());
-            res.setStatus(xhp.getStatus());
-
         }
         catch (Exception iox)
         {
@@ -520,7 +758,126 @@ public class XmlHttpProxyServlet extends HttpServlet
                 if (out != null) out.close();
                 if (writer != null) writer.close();
             } catch (java.io.IOException iox){}
+
+            long requestBytes = in != null ? in.getCount() : 0;
+            long responseBytes = out != null ? out.getCount() : 0;
+            transferStats.record(requestBytes, responseBytes);
+            if (getLogger().isLoggable(Level.FINE)) {
+                logMessage("XmlHttpProxyServlet: " + method + " " + req.getRequestURI() + " request " + requestBytes +
+                        " byte(s), response " + responseBytes + " byte(s)");
+            }
+        }
+    }
+
+    private void forward(HttpServletRequest req, HttpServletResponse res, String urlString, Templates templates,
+                         Map paramsMap, Map headers, String method, InputStream in, long contentLength,
+                         OutputStream out, String userName, String password, String authHeader) throws IOException
+    {
+        if (in == null)
+        {
+            xhp.processRequest(urlString, out, templates, paramsMap, headers, method, userName, password, authHeader);
+        }
+        else
+        {
+            xhp.doPost(urlString, out, templates, paramsMap, headers, in, contentLength, req.getContentType(), userName, password, authHeader);
+        }
+
+        res.setContentType(xhp.getContentType());
+        res.setStatus(xhp.getStatus());
+    }
+
+    /**
+     * Proxies the request through the shared cache (see {@link SharedResponseCache}). Read-only operations are
+     * answered with a kept response or the response of an identical request in progress, if possible. Other requests
+     * are forwarded and remove the kept responses they might have changed.
+     */
+    private void proxyShared(HttpServletRequest req, HttpServletResponse res, String method, String urlString,
+                             Templates templates, Map paramsMap, Map headers, InputStream in, OutputStream out,
+                             String userName, String password, String authHeader) throws IOException
+    {
+        ManagementOperation operation = null;
+        byte[] body = null;
+        long contentLength = req.getContentLength();
+        if (in != null)
+        {
+            // larger or chunked bodies are no read operations of the console
+            String requestType = req.getContentType();
+            if (contentLength > 0 && contentLength <= MAX_SHARED_REQUEST
+                    && requestType != null && requestType.startsWith("application/dmr-encoded"))
+            {
+                body = ProxyStreams.toByteArray(in, (int) contentLength);
+                if (body == null)
+                {
+                    res.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                    return;
+                }
+                operation = ManagementOperation.fromDmr(body);
+                in = new ByteArrayInputStream(body);
+            }
+        }
+        else if (XmlHttpProxy.GET.equals(method))
+        {
+            operation = ManagementOperation.fromGet(req.getPathInfo(), req.getParameter("operation"));
+        }
+
+        boolean readOnly = operation != null && operation.isReadOnly();
+        String credential = SharedResponseCache.credential(authHeader, userName, password);
+        if (!readOnly || credential == null)
+        {
+            try
+            {
+                forward(req, res, urlString, templates, paramsMap, headers, method, in, contentLength, out, userName, password, authHeader);
+            }
+            finally
+            {
+                if (!readOnly)
+                {
+                    sharedCache.written(operation);
+                }
+            }
+            return;
+        }
+
+        String key = method + " " + urlString + "\n" + (headers != null ? new TreeMap(headers) : "") + "\n"
+                + sharedCache.principal(credential, operation) + "\n"
+                + (body != null ? new String(body, "ISO-8859-1") : "");
+        SharedResponseCache.Response response = operation.isDescription() ? sharedCache.get(key) : null;
+        if (response == null)
+        {
+            SharedResponseCache.Flight flight = sharedCache.join(key, operation, operation.isDescription());
+            if (flight.isLeader())
+            {
+                ProxyStreams.CapturingOutputStream capture =
+                        new ProxyStreams.CapturingOutputStream(out, sharedCache.getMaxResponseSize());
+                SharedResponseCache.Response captured = null;
+                try
+                {
+                    forward(req, res, urlString, templates, paramsMap, headers, method, in, contentLength, capture, userName, password, authHeader);
+                    // a truncated body must neither be shared nor kept
+                    byte[] bytes = xhp.isComplete() ? capture.getCaptured() : null;
+                    if (bytes != null)
+                    {
+                        captured = new SharedResponseCache.Response(xhp.getStatus(), xhp.getContentType(), bytes);
+                        sharedCache.learnRoles(credential, operation, captured);
+                    }
+                }
+                finally
+                {
+                    flight.complete(captured);
+                }
+                return;
+            }
+            response = flight.await();
+            if (response == null)
+            {
+                // the leader failed, try on our own
+                forward(req, res, urlString, templates, paramsMap, headers, method, in, contentLength, out, userName, password, authHeader);
+                return;
+            }
         }
+        res.setContentType(response.contentType);
+        res.setStatus(response.status);
+        out.write(response.body);
     }
 
     /* Allow for a EL style replacements in the serviceURL
@@ -562,6 +919,21 @@ public class XmlHttpProxyServlet extends HttpServlet
         return serviceURL;
     }
 
+    /**
+     * Style sheets are given as absolute URL or relative to the resources directory of the web application or the
+     * class path.
+     */
+    private URL getStylesheetURL(String xsl) throws MalformedURLException {
+        if (xsl.indexOf(':') > 1) {
+            return new URL(xsl);
+        }
+        URL url = ctx.getResource(resourcesDir + xsl);
+        if (url == null) {
+            url = XmlHttpProxyServlet.class.getResource(classpathResourcesDir + xsl);
+        }
+        return url;
+    }
+
     /**
      * Check to see if the configuration file has been updated so that it may be reloaded.
      */
@@ -593,17 +965,76 @@ public class XmlHttpProxyServlet extends HttpServlet
         if (logger == null) {
             logger = Logger.getLogger("jmaki.services.xhp.Log");
 
-            // TODO: the logger breaks the GWT tests, because it writes to stderr
-            // we'll turn it off for now.
-            //System.out.println("WARN: XHP proxy logging is turned off");
+            // the logger breaks the GWT tests, because it writes to stderr,
+            // so it's off unless the servlet init parameter logLevel is set
             logger.setLevel(Level.OFF);
         }
         return logger;
     }
 
     private void logMessage(String message) {
-        if (rDebug) {
-            getLogger().info(message);
+        getLogger().fine(message);
+    }
+
+
+    /**
+     * The state of an async request, shared by the worker and the async listener.
+     */
+    private static class AsyncState {
+
+        final XmlHttpProxy.Abort abort = new XmlHttpProxy.Abort();
+        private boolean started;
+        private boolean cancelled;
+        private boolean finished;
+
+        /**
+         * @return false if the request was cancelled while it was queued
+         */
+        synchronized boolean start() {
+            if (cancelled) {
+                return false;
+            }
+            started = true;
+            return true;
+        }
+
+        /**
+         * Cancels the request. A running request is aborted and completed by the worker.
+         *
+         * @return whether the caller has to complete the request
+         */
+        synchronized boolean cancel() {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            if (started) {
+                abort.abort();
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void finish() {
+            finished = true;
+            notifyAll();
+        }
+
+        /**
+         * Waits until the worker completed the request, at most {@code timeout} milliseconds.
+         */
+        synchronized void awaitFinished(long timeout) {
+            long deadline = System.currentTimeMillis() + timeout;
+            long remaining = timeout;
+            while (!finished && remaining > 0) {
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.server.proxy;
+
+import java.nio.charset.Charset;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectionPoolTest {
+
+    @Test
+    public void cookiesPerCredential() {
+        ConnectionPool pool = new ConnectionPool(2, 10);
+        Map<String, XmlHttpProxy.Cookie> admin = pool.getCookies(basic("admin:secret"), null, null);
+        Map<String, XmlHttpProxy.Cookie> monitor = pool.getCookies(basic("monitor:secret"), null, null);
+
+        assertNotSame(admin, monitor);
+        assertSame(admin, pool.getCookies(basic("admin:secret"), null, null));
+        assertNotSame(admin, pool.getCookies(basic("admin:guessed"), null, null));
+    }
+
+    @Test
+    public void cookiesOfConfiguredUser() {
+        ConnectionPool pool = new ConnectionPool(2, 10);
+        Map<String, XmlHttpProxy.Cookie> admin = pool.getCookies(null, "admin", "secret");
+
+        assertSame(admin, pool.getCookies(basic("other:secret"), "admin", "secret"));
+        assertNotSame(admin, pool.getCookies(null, "admin", "guessed"));
+        assertSame(pool.getCookies(null, null, null), pool.getCookies(null, null, null));
+    }
+
+    @Test
+    public void digestCookiesNotKept() {
+        ConnectionPool pool = new ConnectionPool(2, 10);
+        String digest = "Digest username=\"admin\", realm=\"ManagementRealm\", nonce=\"1\", nc=00000001";
+        Map<String, XmlHttpProxy.Cookie> cookies = pool.getCookies(digest, null, null);
+        cookies.put("JSESSIONID", new XmlHttpProxy().new Cookie());
+
+        assertNotSame(cookies, pool.getCookies(digest, null, null));
+        assertTrue(pool.getCookies(digest, null, null).isEmpty());
+    }
+
+    @Test
+    public void acquireAndRelease() throws ServiceUnavailableException {
+        ConnectionPool pool = new ConnectionPool(1, 10);
+        ConnectionPool.Lease lease = pool.acquire();
+        assertEquals(1, pool.getActive());
+
+        try {
+            pool.acquire();
+            fail("No connection must be free");
+        } catch (ServiceUnavailableException expected) {
+            assertEquals(1, pool.getTimeouts());
+        }
+
+        lease.setReusable(true);
+        lease.release();
+        lease.release();
+        assertEquals(0, pool.getActive());
+        assertEquals(1, pool.getIdle());
+
+        pool.acquire();
+        assertEquals(0, pool.getIdle());
+        assertEquals(2, pool.getLeases());
+    }
+
+    @Test
+    public void invalidSize() {
+        try {
+            new ConnectionPool(0, 10);
+            fail("Pool size must be positive");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void keepAliveNotChanged() {
+        String maxConnections = System.getProperty("http.maxConnections");
+        System.clearProperty("http.maxConnections");
+        try {
+            XmlHttpProxy proxy = new XmlHttpProxy();
+            proxy.setConnectionPool(new ConnectionPool(7, 10));
+            assertNull(System.getProperty("http.maxConnections"));
+            assertEquals(7, proxy.getConnectionPool().getMaxConnections());
+            assertEquals(5, ConnectionPool.keepAliveConnections());
+
+            System.setProperty("http.maxConnections", "2");
+            assertEquals(2, ConnectionPool.keepAliveConnections());
+        } finally {
+            if (maxConnections != null) {
+                System.setProperty("http.maxConnections", maxConnections);
+            } else {
+                System.clearProperty("http.maxConnections");
+            }
+        }
+    }
+
+    @Test
+    public void idleBoundedByKeepAlive() throws ServiceUnavailableException {
+        String maxConnections = System.getProperty("http.maxConnections");
+        System.setProperty("http.maxConnections", "1");
+        try {
+            ConnectionPool pool = new ConnectionPool(2, 10);
+            ConnectionPool.Lease first = pool.acquire();
+            ConnectionPool.Lease second = pool.acquire();
+            first.setReusable(true);
+            second.setReusable(true);
+            first.release();
+            second.release();
+            assertEquals(1, pool.getIdle());
+        } finally {
+            if (maxConnections != null) {
+                System.setProperty("http.maxConnections", maxConnections);
+            } else {
+                System.clearProperty("http.maxConnections");
+            }
+        }
+    }
+
+    private static String basic(String credentials) {
+        return "Basic " + encode(credentials);
+    }
+
+    private static String encode(String credentials) {
+        return Base64.getEncoder().encodeToString(credentials.getBytes(Charset.forName("UTF-8")));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.server.proxy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes plain Java objects in the binary DMR format, the counterpart of {@link DmrReader} for tests.
+ */
+final class DmrEncoder {
+
+    private DmrEncoder() {}
+
+    static byte[] base64(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            write(out, value);
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getEncoder().encode(bytes.toByteArray());
+    }
+
+    /**
+     * Builds an object from alternating keys and values.
+     */
+    static Map<String, Object> object(Object... keysAndValues) {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+
+    static List<Object> list(Object... values) {
+        return Arrays.asList(values);
+    }
+
+    static Map.Entry<String, Object> property(String name, Object value) {
+        return new AbstractMap.SimpleImmutableEntry<String, Object>(name, value);
+    }
+
+    /**
+     * An operation with an address given as alternating resource types and names.
+     */
+    static Map<String, Object> operation(String name, String... address) {
+        Object[] segments = new Object[address.length / 2];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = property(address[2 * i], address[2 * i + 1]);
+        }
+        return object(ManagementOperation.OP, name, ManagementOperation.ADDRESS, list(segments));
+    }
+
+    static Map<String, Object> composite(Object... steps) {
+        return object(ManagementOperation.OP, ManagementOperation.COMPOSITE, ManagementOperation.ADDRESS, list(),
+                ManagementOperation.STEPS, list(steps));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void write(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte('u');
+        } else if (value instanceof String) {
+            out.writeByte('s');
+            out.writeUTF((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte('I');
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte('J');
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte('Z');
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Map.Entry) {
+            out.writeByte('p');
+            out.writeUTF(((Map.Entry<String, Object>) value).getKey());
+            write(out, ((Map.Entry<String, Object>) value).getValue());
+        } else if (value instanceof List) {
+            out.writeByte('l');
+            out.writeInt(((List) value).size());
+            for (Object element : (List) value) {
+                write(out, element);
+            }
+        } else if (value instanceof Map) {
+            out.writeByte('o');
+            out.writeInt(((Map) value).size());
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                out.writeUTF(entry.getKey());
+                write(out, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported value " + value);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.server.proxy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.jboss.as.console.server.proxy.DmrEncoder.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class DmrReaderTest {
+
+    @Test
+    public void simpleValues() throws IOException {
+        assertNull(DmrReader.readBase64(base64(null)));
+        assertEquals("foo", DmrReader.readBase64(base64("foo")));
+        assertEquals(42, DmrReader.readBase64(base64(42)));
+        assertEquals(42L, DmrReader.readBase64(base64(42L)));
+        assertEquals(true, DmrReader.readBase64(base64(true)));
+    }
+
+    @Test
+    public void otherTypes() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte('l');
+        out.writeInt(7);
+        out.writeByte('d');
+        out.writeUTF("1.5");
+        out.writeByte('i');
+        byte[] big = BigInteger.TEN.pow(20).toByteArray();
+        out.writeInt(big.length);
+        out.write(big);
+        out.writeByte('b');
+        out.writeInt(2);
+        out.write(new byte[]{1, 2});
+        out.writeByte('D');
+        out.writeDouble(0.5);
+        out.writeByte('e');
+        out.writeUTF("${foo}");
+        out.writeByte('t');
+        out.writeByte('S');
+        out.writeByte('u');
+        out.flush();
+
+        List values = (List) DmrReader.readBase64(Base64.getEncoder().encode(bytes.toByteArray()));
+        assertEquals(new BigDecimal("1.5"), values.get(0));
+        assertEquals(BigInteger.TEN.pow(20), values.get(1));
+        assertArrayEquals(new byte[]{1, 2}, (byte[]) values.get(2));
+        assertEquals(0.5, values.get(3));
+        assertEquals("${foo}", values.get(4));
+        assertEquals("S", values.get(5));
+        assertNull(values.get(6));
+    }
+
+    @Test
+    public void nestedValues() throws IOException {
+        Map operation = (Map) DmrReader.readBase64(base64(operation("read-resource", "subsystem", "logging")));
+
+        assertEquals("read-resource", operation.get(ManagementOperation.OP));
+        List address = (List) operation.get(ManagementOperation.ADDRESS);
+        assertEquals(1, address.size());
+        Map.Entry segment = (Map.Entry) address.get(0);
+        assertEquals("subsystem", segment.getKey());
+        assertEquals("logging", segment.getValue());
+    }
+
+    @Test
+    public void mimeLineBreaks() throws IOException {
+        String encoded = new String(base64("a value which is long enough to be wrapped"), "US-ASCII");
+        byte[] wrapped = (encoded.substring(0, 10) + "\r\n" + encoded.substring(10)).getBytes("US-ASCII");
+        assertEquals("a value which is long enough to be wrapped", DmrReader.readBase64(wrapped));
+    }
+
+    @Test
+    public void invalidPayloads() {
+        invalid("not base64 !".getBytes());
+        invalid(Base64.getEncoder().encode(new byte[]{'x'}));
+        invalid(Base64.getEncoder().encode(new byte[]{'s', 0}));
+        invalid(Base64.getEncoder().encode(new byte[]{'b', (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff}));
+        invalid(Base64.getEncoder().encode(new byte[]{'b', 0, 0, 0, 10, 1}));
+    }
+
+    private static void invalid(byte[] encoded) {
+        try {
+            DmrReader.readBase64(encoded);
+            fail("Invalid payload must be rejected");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+}
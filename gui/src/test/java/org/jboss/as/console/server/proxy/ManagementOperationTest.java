@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.server.proxy;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.jboss.as.console.server.proxy.DmrEncoder.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ManagementOperationTest {
+
+    @Test
+    public void readOnly() {
+        assertTrue(op(operation("read-resource", "subsystem", "logging")).isReadOnly());
+        assertTrue(op(operation("whoami")).isReadOnly());
+        assertTrue(op(composite(operation("read-resource"), operation("read-children-names"))).isReadOnly());
+        assertFalse(op(operation("write-attribute", "subsystem", "logging")).isReadOnly());
+        assertFalse(op(composite(operation("read-resource"), operation("add", "subsystem", "foo"))).isReadOnly());
+    }
+
+    @Test
+    public void description() {
+        assertTrue(op(operation("read-resource-description", "subsystem", "logging")).isDescription());
+        assertTrue(op(composite(operation("read-operation-names"), operation("read-operation-description")))
+                .isDescription());
+        assertFalse(op(operation("read-resource", "subsystem", "logging")).isDescription());
+        assertFalse(op(composite(operation("read-resource-description"), operation("read-resource")))
+                .isDescription());
+    }
+
+    @Test
+    public void personal() {
+        assertFalse(op(operation("read-resource")).isPersonal());
+        assertTrue(op(operation("whoami")).isPersonal());
+        assertTrue(op(composite(operation("read-resource"), operation("whoami"))).isPersonal());
+
+        java.util.Map<String, Object> runAs = operation("read-resource");
+        runAs.put(ManagementOperation.OPERATION_HEADERS, object("roles", "Monitor"));
+        ManagementOperation operation = op(runAs);
+        assertTrue(operation.isPersonal());
+        assertTrue(operation.hasHeaders());
+    }
+
+    @Test
+    public void whoamiStep() {
+        assertEquals(0, op(operation("whoami")).whoamiStep());
+        assertEquals(2, op(composite(operation("read-resource"), operation("whoami"))).whoamiStep());
+        assertEquals(-1, op(operation("read-resource")).whoamiStep());
+        assertEquals(-1, op(composite(composite(operation("whoami")), operation("whoami"))).whoamiStep());
+    }
+
+    @Test
+    public void affects() {
+        ManagementOperation write = op(operation("write-attribute", "subsystem", "logging", "logger", "foo"));
+
+        assertTrue(write.affects(op(operation("read-resource", "subsystem", "logging"))));
+        assertTrue(write.affects(op(operation("read-resource", "subsystem", "logging", "logger", "foo"))));
+        assertTrue(write.affects(op(operation("read-resource", "subsystem", "logging", "logger", "*"))));
+        assertTrue(write.affects(op(operation("read-resource"))));
+        assertFalse(write.affects(op(operation("read-resource", "subsystem", "logging", "logger", "bar"))));
+        assertFalse(write.affects(op(operation("read-resource", "subsystem", "web"))));
+        assertTrue(write.affects(op(composite(operation("read-resource", "subsystem", "web"),
+                operation("read-resource", "subsystem", "logging")))));
+    }
+
+    @Test
+    public void addresses() {
+        ManagementOperation mapping = op(operation("add", "core-service", "management", "access", "authorization",
+                "role-mapping", "Monitor"));
+
+        assertTrue(mapping.addresses(Arrays.asList("core-service=management", "access=authorization")));
+        assertFalse(op(operation("add", "core-service", "management"))
+                .addresses(Arrays.asList("core-service=management", "access=authorization")));
+    }
+
+    @Test
+    public void fromGet() {
+        ManagementOperation get = ManagementOperation.fromGet("/management/subsystem/logging;jsessionid=1",
+                "resource-description");
+
+        assertTrue(get.isReadOnly());
+        assertTrue(get.isDescription());
+        assertTrue(op(operation("write-attribute", "subsystem", "logging")).affects(get));
+        assertFalse(op(operation("write-attribute", "subsystem", "web")).affects(get));
+        assertFalse(ManagementOperation.fromGet(null, null).isDescription());
+    }
+
+    @Test
+    public void invalid() {
+        assertNull(ManagementOperation.fromDmr("garbage".getBytes()));
+        assertNull(ManagementOperation.fromDmr(base64("read-resource")));
+        assertNull(ManagementOperation.fromDmr(base64(object(ManagementOperation.ADDRESS, list()))));
+        assertNull(ManagementOperation.fromDmr(base64(object(ManagementOperation.OP, "read-resource",
+                ManagementOperation.ADDRESS, list("invalid")))));
+    }
+
+    private static ManagementOperation op(Object operation) {
+        ManagementOperation parsed = ManagementOperation.fromDmr(base64(operation));
+        if (parsed == null) {
+            throw new IllegalArgumentException("Invalid operation " + operation);
+        }
+        return parsed;
+    }
+}
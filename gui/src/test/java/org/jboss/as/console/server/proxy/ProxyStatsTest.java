@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.server.proxy;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProxyStatsTest {
+
+    @Test
+    public void registerAndUnregister() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.jboss.as.console:type=XmlHttpProxy,name=" +
+                ObjectName.quote("statsTest"));
+        TransferStats transfers = new TransferStats();
+        ProxyStats stats = new ProxyStats(transfers, new ConnectionPool(3, 100), null, null);
+
+        stats.register("statsTest");
+        try {
+            transfers.record(10, 100);
+            transfers.record(20, 50);
+            stats.asyncRejected();
+            assertTrue(server.isRegistered(name));
+            assertEquals(2L, server.getAttribute(name, "Requests"));
+            assertEquals(30L, server.getAttribute(name, "RequestBytes"));
+            assertEquals(150L, server.getAttribute(name, "ResponseBytes"));
+            assertEquals(100L, server.getAttribute(name, "MaxResponseBytes"));
+            assertEquals(3, server.getAttribute(name, "MaxConnections"));
+            assertEquals(1L, server.getAttribute(name, "AsyncRejections"));
+        } finally {
+            stats.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void disabledFeatures() {
+        ProxyStats stats = new ProxyStats(new TransferStats(), new ConnectionPool(1, 100), null, null);
+        assertEquals(0, stats.getAsyncQueueLength());
+        assertEquals(0, stats.getSharedCacheHits());
+        assertEquals(0, stats.getSharedCacheBytes());
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.server.proxy;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.jboss.as.console.server.proxy.DmrEncoder.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SharedResponseCacheTest {
+
+    private static final String DMR_ENCODED = "application/dmr-encoded";
+    private static final String ALICE = SharedResponseCache.credential("Basic YWxpY2U6c2VjcmV0", null, null);
+    private static final String BOB = SharedResponseCache.credential("Basic Ym9iOnNlY3JldA==", null, null);
+    private static final String CAROL = SharedResponseCache.credential("Basic Y2Fyb2w6c2VjcmV0", null, null);
+
+    private SharedResponseCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new SharedResponseCache(60000, 1024, 50);
+    }
+
+    @Test
+    public void credential() {
+        String admin = SharedResponseCache.credential("Basic YWxpY2U6c2VjcmV0", "admin", "secret");
+        assertTrue(admin.startsWith("user:"));
+        assertFalse(admin.contains("secret"));
+        assertEquals(admin, SharedResponseCache.credential(null, "admin", "secret"));
+        assertNotEquals(admin, SharedResponseCache.credential(null, "admin", "guess"));
+        assertNotEquals(admin, SharedResponseCache.credential(null, "admin:secret", ""));
+        assertEquals("anonymous", SharedResponseCache.credential(null, null, null));
+        assertTrue(ALICE.startsWith("basic:"));
+        assertFalse(ALICE.contains("YWxpY2U6c2VjcmV0"));
+        assertEquals(ALICE, SharedResponseCache.credential("Basic YWxpY2U6c2VjcmV0", null, null));
+        assertNotEquals(ALICE, BOB);
+        assertNull(SharedResponseCache.credential("Digest username=\"alice\"", null, null));
+    }
+
+    @Test
+    public void principalOfUnknownUser() {
+        assertEquals(ALICE, cache.principal(ALICE, read("subsystem", "logging")));
+    }
+
+    @Test
+    public void principalOfKnownRoles() {
+        learn(ALICE, "Monitor", "Operator");
+        learn(BOB, "operator", "monitor");
+        learn(CAROL, "Administrator");
+
+        ManagementOperation read = read("subsystem", "logging");
+        assertEquals("roles:[MONITOR, OPERATOR]", cache.principal(ALICE, read));
+        assertEquals(cache.principal(ALICE, read), cache.principal(BOB, read));
+        assertNotEquals(cache.principal(ALICE, read), cache.principal(CAROL, read));
+    }
+
+    @Test
+    public void personalOperationsAreNotShared() {
+        learn(ALICE, "Monitor");
+        learn(BOB, "Monitor");
+
+        ManagementOperation whoami = op(composite(operation("read-resource"), operation("whoami")));
+        assertEquals(ALICE, cache.principal(ALICE, whoami));
+        assertNotEquals(cache.principal(ALICE, whoami), cache.principal(BOB, whoami));
+    }
+
+    @Test
+    public void crossRoleIsolation() {
+        learn(ALICE, "Monitor");
+        learn(CAROL, "Administrator");
+        ManagementOperation read = read("subsystem", "logging");
+
+        lead(cache.principal(ALICE, read), read, "monitor view");
+
+        assertNotNull(cache.get(cache.principal(ALICE, read)));
+        assertNull(cache.get(cache.principal(CAROL, read)));
+    }
+
+    @Test
+    public void learnRolesFromComposite() {
+        ManagementOperation whoami = op(composite(operation("read-resource"), operation("whoami")));
+        Map<String, Object> response = object("outcome", "success", "result", object(
+                "step-1", object("outcome", "success", "result", object()),
+                "step-2", object("outcome", "success", "result", object("mapped-roles", list("Deployer")))));
+
+        cache.learnRoles(ALICE, whoami, dmr(response));
+
+        assertEquals("roles:[DEPLOYER]", cache.principal(ALICE, read("subsystem", "logging")));
+    }
+
+    @Test
+    public void ignoreUnusableWhoami() {
+        Map<String, Object> response = object("outcome", "success", "result",
+                object("mapped-roles", list("Monitor")));
+        Map<String, Object> runAs = operation("whoami");
+        runAs.put(ManagementOperation.OPERATION_HEADERS, object("roles", "Monitor"));
+
+        cache.learnRoles(ALICE, op(runAs), dmr(response));
+        cache.learnRoles(ALICE, op(operation("whoami")),
+                new SharedResponseCache.Response(500, DMR_ENCODED, base64(response)));
+        cache.learnRoles(ALICE, op(operation("whoami")),
+                new SharedResponseCache.Response(200, DMR_ENCODED, "garbage".getBytes()));
+        cache.learnRoles(ALICE, op(operation("read-resource")), dmr(response));
+
+        assertEquals(ALICE, cache.principal(ALICE, read("subsystem", "logging")));
+    }
+
+    @Test
+    public void writePurgesAffectedResponses() {
+        ManagementOperation logging = read("subsystem", "logging");
+        ManagementOperation web = read("subsystem", "web");
+        lead("logging", logging, "logging");
+        lead("web", web, "web");
+
+        cache.written(op(operation("write-attribute", "subsystem", "logging")));
+
+        assertNull(cache.get("logging"));
+        assertNotNull(cache.get("web"));
+        assertEquals(1, cache.getPurges());
+        assertEquals(1, cache.getSize());
+        assertEquals(3, cache.getBytes());
+    }
+
+    @Test
+    public void unknownWritePurgesAll() {
+        learn(ALICE, "Monitor");
+        lead("logging", read("subsystem", "logging"), "logging");
+
+        cache.written(null);
+
+        assertEquals(0, cache.getSize());
+        assertEquals(ALICE, cache.principal(ALICE, read("subsystem", "logging")));
+    }
+
+    @Test
+    public void roleMappingChangeForgetsRoles() {
+        learn(ALICE, "Monitor");
+
+        cache.written(op(operation("add", "core-service", "management", "access", "authorization",
+                "role-mapping", "Operator")));
+
+        assertEquals(ALICE, cache.principal(ALICE, read("subsystem", "logging")));
+    }
+
+    @Test
+    public void writeDuringFlightIsNotKept() {
+        ManagementOperation read = read("subsystem", "logging");
+        SharedResponseCache.Flight flight = cache.join("logging", read, true);
+        assertTrue(flight.isLeader());
+
+        cache.written(op(operation("write-attribute", "subsystem", "web")));
+        flight.complete(response("stale"));
+
+        assertNull(cache.get("logging"));
+    }
+
+    @Test
+    public void followersShareTheResponse() throws Exception {
+        ManagementOperation read = read("subsystem", "logging");
+        SharedResponseCache.Flight leader = cache.join("logging", read, false);
+        final SharedResponseCache.Flight follower = cache.join("logging", read, false);
+        assertTrue(leader.isLeader());
+        assertFalse(follower.isLeader());
+
+        final SharedResponseCache.Response[] shared = new SharedResponseCache.Response[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                shared[0] = follower.await();
+            }
+        });
+        thread.start();
+        SharedResponseCache.Response response = response("logging");
+        leader.complete(response);
+        thread.join(5000);
+
+        assertSame(response, shared[0]);
+        assertEquals(1, cache.getCollapsed());
+        assertNull(cache.get("logging"));
+        assertTrue(cache.join("logging", read, false).isLeader());
+    }
+
+    @Test
+    public void followersDontShareFailures() {
+        ManagementOperation read = read("subsystem", "logging");
+        SharedResponseCache.Flight leader = cache.join("logging", read, true);
+        SharedResponseCache.Flight follower = cache.join("logging", read, true);
+
+        leader.complete(new SharedResponseCache.Response(500, DMR_ENCODED, new byte[0]));
+
+        assertNull(follower.await());
+        assertNull(cache.get("logging"));
+    }
+
+    @Test
+    public void followerWaitIsCapped() {
+        ManagementOperation read = read("subsystem", "logging");
+        cache.join("logging", read, true);
+        SharedResponseCache.Flight follower = cache.join("logging", read, true);
+
+        long start = System.currentTimeMillis();
+        assertNull(follower.await());
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void expiredResponsesAreNotReturned() {
+        cache = new SharedResponseCache(-1, 1024, 50);
+        lead("logging", read("subsystem", "logging"), "logging");
+
+        assertNull(cache.get("logging"));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void byteBudget() {
+        assertEquals(256, cache.getMaxResponseSize());
+        lead("large", read("subsystem", "logging"), new String(new char[257]));
+        assertNull(cache.get("large"));
+
+        for (int i = 0; i < 5; i++) {
+            lead("key" + i, read("subsystem", "logging"), new String(new char[250]));
+        }
+
+        assertNull(cache.get("key0"));
+        assertNotNull(cache.get("key4"));
+        assertEquals(4, cache.getSize());
+        assertEquals(1000, cache.getBytes());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    private void lead(String key, ManagementOperation operation, String body) {
+        SharedResponseCache.Flight flight = cache.join(key, operation, true);
+        assertTrue(flight.isLeader());
+        flight.complete(response(body));
+    }
+
+    private void learn(String credential, String... roles) {
+        cache.learnRoles(credential, op(operation("whoami")),
+                dmr(object("outcome", "success", "result", object("mapped-roles", list((Object[]) roles)))));
+    }
+
+    private static ManagementOperation read(String... address) {
+        return op(operation("read-resource", address));
+    }
+
+    private static ManagementOperation op(Map<String, Object> operation) {
+        return ManagementOperation.fromDmr(base64(operation));
+    }
+
+    private static SharedResponseCache.Response dmr(Object value) {
+        return new SharedResponseCache.Response(200, DMR_ENCODED, base64(value));
+    }
+
+    private static SharedResponseCache.Response response(String body) {
+        return new SharedResponseCache.Response(200, DMR_ENCODED, body.getBytes());
+    }
+}
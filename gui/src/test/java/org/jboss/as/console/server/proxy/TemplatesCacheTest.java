@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.server.proxy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TemplatesCacheTest {
+
+    private File file;
+    private URL url;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("templates", ".xsl");
+        url = file.toURI().toURL();
+        write("first");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void compileOnce() throws Exception {
+        TemplatesCache cache = new TemplatesCache(0);
+        Templates templates = cache.get(url);
+
+        assertSame(templates, cache.get(url));
+        assertEquals(1, cache.size());
+        assertEquals("first", transform(templates));
+    }
+
+    @Test
+    public void reloadModified() throws Exception {
+        TemplatesCache cache = new TemplatesCache(0);
+        Templates first = cache.get(url);
+
+        write("second");
+        file.setLastModified(file.lastModified() + 10000);
+        Templates second = cache.get(url);
+
+        assertNotSame(first, second);
+        assertEquals("second", transform(second));
+        assertSame(second, cache.get(url));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void checkInterval() throws Exception {
+        TemplatesCache cache = new TemplatesCache(60000);
+        Templates first = cache.get(url);
+
+        write("second");
+        file.setLastModified(file.lastModified() + 10000);
+
+        // not checked again within the interval
+        assertSame(first, cache.get(url));
+    }
+
+    @Test
+    public void clear() throws Exception {
+        TemplatesCache cache = new TemplatesCache(60000);
+        Templates first = cache.get(url);
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertNotSame(first, cache.get(url));
+    }
+
+    private void write(String text) throws IOException {
+        String xsl = "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">" +
+                "<xsl:output method=\"text\"/>" +
+                "<xsl:template match=\"/\">" + text + "</xsl:template>" +
+                "</xsl:stylesheet>";
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(xsl.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String transform(Templates templates) throws Exception {
+        StringWriter result = new StringWriter();
+        templates.newTransformer().transform(new StreamSource(new StringReader("<root/>")),
+                new StreamResult(result));
+        return result.toString();
+    }
+}
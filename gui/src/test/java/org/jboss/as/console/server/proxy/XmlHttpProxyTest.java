@@ -0,0 +1,185 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2010, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.console.server.proxy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.transform.Templates;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class XmlHttpProxyTest {
+
+    private HttpServer server;
+    private CountDownLatch firstChunk;
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() throws IOException {
+        firstChunk = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/slow", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("Content-Type", "application/dmr-encoded");
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream body = exchange.getResponseBody();
+                try {
+                    body.write(new byte[]{'a', 'b', 'c'});
+                    body.flush();
+                    firstChunk.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    body.write(new byte[]{'d', 'e', 'f'});
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException e) {
+                    // aborted by the client
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    public void abortRunningRequest() throws Exception {
+        final XmlHttpProxy proxy = new XmlHttpProxy();
+        final XmlHttpProxy.Abort abort = new XmlHttpProxy.Abort();
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        final String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/slow";
+
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                proxy.setAbort(abort);
+                try {
+                    proxy.processRequest(url, abort.guard(response), (Templates) null, null, null,
+                            XmlHttpProxy.GET, null, null, null);
+                } catch (IOException e) {
+                    // aborted
+                } finally {
+                    proxy.setAbort(null);
+                }
+            }
+        });
+        worker.start();
+
+        assertTrue(firstChunk.await(5, TimeUnit.SECONDS));
+        abort.abort();
+        worker.join(5000);
+        assertFalse("Worker must stop after the abort", worker.isAlive());
+
+        release.countDown();
+        Thread.sleep(100);
+        assertFalse(response.toString("UTF-8").contains("def"));
+        assertEquals(0, proxy.getConnectionPool().getActive());
+    }
+
+    @Test
+    public void abortBeforeStart() throws Exception {
+        XmlHttpProxy proxy = new XmlHttpProxy();
+        XmlHttpProxy.Abort abort = new XmlHttpProxy.Abort();
+        abort.abort();
+
+        proxy.setAbort(abort);
+        try {
+            proxy.processRequest("http://127.0.0.1:" + server.getAddress().getPort() + "/slow",
+                    new ByteArrayOutputStream(), (Templates) null, null, null, XmlHttpProxy.GET, null, null, null);
+            fail("Aborted request must not be sent");
+        } catch (IOException expected) {
+            assertEquals(1, firstChunk.getCount());
+        } finally {
+            proxy.setAbort(null);
+        }
+        assertEquals(0, proxy.getConnectionPool().getActive());
+    }
+
+    @Test
+    public void completeResponse() throws Exception {
+        XmlHttpProxy proxy = new XmlHttpProxy();
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        release.countDown();
+
+        proxy.processRequest("http://127.0.0.1:" + server.getAddress().getPort() + "/slow", response,
+                (Templates) null, null, null, XmlHttpProxy.GET, null, null, null);
+
+        assertEquals("abcdef", response.toString("UTF-8"));
+        assertEquals(200, proxy.getStatus());
+        assertTrue(proxy.isComplete());
+    }
+
+    @Test
+    public void clientDisconnect() throws Exception {
+        XmlHttpProxy proxy = new XmlHttpProxy();
+        release.countDown();
+
+        proxy.processRequest("http://127.0.0.1:" + server.getAddress().getPort() + "/slow", new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        }, (Templates) null, null, null, XmlHttpProxy.GET, null, null, null);
+
+        // the status is sent already, but the body must not be shared
+        assertEquals(200, proxy.getStatus());
+        assertFalse(proxy.isComplete());
+    }
+
+    @Test
+    public void guardedOutput() throws IOException {
+        XmlHttpProxy.Abort abort = new XmlHttpProxy.Abort();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = abort.guard(bytes);
+        out.write('a');
+        abort.abort();
+
+        try {
+            out.write('b');
+            fail("Writing must fail after the abort");
+        } catch (IOException expected) {
+            assertEquals("a", bytes.toString("UTF-8"));
+        }
+    }
+}